@@ -0,0 +1,177 @@
+package com.addressbook.jmh;
+
+import com.addressbook.model.Contact;
+import com.addressbook.test.ContactSampler;
+import com.addressbook.test.ContactSampler.Names;
+import com.addressbook.test.ContactSampler.Skew;
+import com.addressbook.tree.AVLTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AVLTree核心操作的JMH基准测试
+ * 覆盖insert、delete、search、searchByPrefix、getAllContacts和三种遍历获取方法；
+ * 按通讯录规模、姓名分布（中文/英文）和重名程度组合参数，每组参数在试验开始时用ContactSampler构建一次数据。
+ * 插入和删除每次调用处理一批新联系人，批次的准备与撤销不计时，树的规模在整个试验中保持不变。
+ * 单线程运行；规模10000000需要约10GB以上的堆，可用 -p size=1000,100000 只测部分规模
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+@State(Scope.Benchmark)
+public class AVLTreeBenchmark {
+    static final int BATCH = 256;          // 插入、删除每次调用处理的联系人数
+    private static final int QUERIES = 4096; // 预先抽取的查询数，按顺序循环使用
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"CHINESE", "LATIN"})
+    Names names;
+
+    @Param({"NATURAL", "HEAVY"})
+    Skew skew;
+
+    private ContactSampler sampler;
+    private AVLTree tree;
+    private String[] queryNames;
+    private String[] queryPrefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sampler = new ContactSampler(names, skew, size, 2024);
+        List<Contact> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contacts.add(sampler.next());
+        }
+        tree = new AVLTree();
+        tree.bulkLoad(contacts);
+
+        // 查询取自已有姓名，前缀取姓名开头的两个汉字或三个字母
+        Random random = sampler.random();
+        int prefixLength = names == Names.CHINESE ? 2 : 3;
+        queryNames = new String[QUERIES];
+        queryPrefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = contacts.get(random.nextInt(size)).getName();
+            queryNames[i] = name;
+            queryPrefixes[i] = name.substring(0, Math.min(prefixLength, name.length()));
+        }
+    }
+
+    /**
+     * 每次调用前生成一批新联系人，调用后删除，使树的规模不变
+     */
+    @State(Scope.Thread)
+    public static class InsertBatch {
+        final List<Contact> contacts = new ArrayList<>(BATCH);
+
+        @Setup(Level.Invocation)
+        public void prepare(AVLTreeBenchmark book) {
+            contacts.clear();
+            for (int i = 0; i < BATCH; i++) {
+                contacts.add(book.sampler.next());
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(AVLTreeBenchmark book) {
+            for (Contact c : contacts) {
+                book.tree.delete(c.getName(), c.getPhone());
+            }
+        }
+    }
+
+    /**
+     * 每次调用前插入一批新联系人，供删除测试删去
+     */
+    @State(Scope.Thread)
+    public static class DeleteBatch {
+        final List<Contact> contacts = new ArrayList<>(BATCH);
+
+        @Setup(Level.Invocation)
+        public void prepare(AVLTreeBenchmark book) {
+            contacts.clear();
+            for (int i = 0; i < BATCH; i++) {
+                Contact c = book.sampler.next();
+                book.tree.insert(c);
+                contacts.add(c);
+            }
+        }
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insert(InsertBatch batch, Blackhole blackhole) {
+        for (Contact c : batch.contacts) {
+            tree.insert(c);
+        }
+        blackhole.consume(tree.size());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void delete(DeleteBatch batch, Blackhole blackhole) {
+        for (Contact c : batch.contacts) {
+            blackhole.consume(tree.delete(c.getName(), c.getPhone()));
+        }
+    }
+
+    @Benchmark
+    public void search(Blackhole blackhole) {
+        blackhole.consume(tree.search(queryNames[nextQuery()]));
+    }
+
+    @Benchmark
+    public void searchByPrefix(Blackhole blackhole) {
+        blackhole.consume(tree.searchByPrefix(queryPrefixes[nextQuery()]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getAllContacts(Blackhole blackhole) {
+        blackhole.consume(tree.getAllContacts());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getPreorderContacts(Blackhole blackhole) {
+        blackhole.consume(tree.getPreorderContacts());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getPostorderContacts(Blackhole blackhole) {
+        blackhole.consume(tree.getPostorderContacts());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getLevelOrderContacts(Blackhole blackhole) {
+        blackhole.consume(tree.getLevelOrderContacts());
+    }
+}
@@ -0,0 +1,63 @@
+package com.addressbook.jmh;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import com.addressbook.test.ContactSampler;
+import com.addressbook.test.ContactSampler.Names;
+import com.addressbook.test.ContactSampler.Skew;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AddressBookService.getContactCount的JMH基准测试
+ * 计数本身与规模无关（读取根节点的子树计数），测量的主要是读锁的获取与释放；
+ * 参数与AVLTreeBenchmark相同，便于放在同一张结果表中对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+@State(Scope.Benchmark)
+public class AddressBookServiceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"CHINESE", "LATIN"})
+    Names names;
+
+    @Param({"NATURAL", "HEAVY"})
+    Skew skew;
+
+    private AddressBookService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ContactSampler sampler = new ContactSampler(names, skew, size, 2024);
+        List<Contact> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contacts.add(sampler.next());
+        }
+        service = new AddressBookService();
+        service.importAll(contacts);
+    }
+
+    @Benchmark
+    public void getContactCount(Blackhole blackhole) {
+        blackhole.consume(service.getContactCount());
+    }
+}
@@ -0,0 +1,158 @@
+package com.addressbook.gui;
+
+import com.addressbook.model.Contact;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 后台查询执行器
+ * 查询在单个后台线程上执行，事件线程只负责把结果写入表格，大通讯录上查询时界面不会卡住。
+ * 每次提交都使之前的查询过期：尚未开始的直接取消，正在执行的在交出下一个联系人时中止，
+ * 已经排队等待事件线程的结果也会因编号过期而被丢弃。
+ * 结果每BATCH_SIZE个一批交回事件线程：第一批替换表格内容（在此之前保留上一次的结果，避免闪烁），之后的批次追加。
+ * 界面上的修改操作也经由mutate在同一线程上执行：流式查询会一直持有服务的读锁，
+ * 若在事件线程上直接修改，写锁要等查询结束才能拿到，界面随之卡住
+ */
+final class BackgroundSearch {
+    private static final int BATCH_SIZE = 256; // 每批交回事件线程的联系人数
+
+    /**
+     * 在后台线程执行的查询，把结果逐个交给sink
+     */
+    interface Query {
+        void run(Consumer<Contact> sink);
+    }
+
+    private final Component parent;
+    private final ContactTableModel tableModel;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "contact-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong generation = new AtomicLong(); // 最新查询的编号
+    private Future<?> running; // 只在事件线程访问
+
+    BackgroundSearch(Component parent, ContactTableModel tableModel) {
+        this.parent = parent;
+        this.tableModel = tableModel;
+    }
+
+    /**
+     * 提交查询（在事件线程调用），之前的查询随即过期
+     *
+     * @param onDone 查询完成且未过期时在事件线程上调用，参数为结果总数
+     */
+    void submit(Query query, IntConsumer onDone) {
+        long id = cancel();
+        running = executor.submit(() -> execute(id, query, onDone));
+    }
+
+    /**
+     * 在查询线程上执行修改（在事件线程调用）
+     * 先使正在执行的查询过期，它在交出下一个联系人时中止并释放读锁，修改随后在同一线程上取得写锁，
+     * 事件线程不等待锁；之后提交的查询不会取消已提交的修改
+     *
+     * @param onDone 修改完成后在事件线程上调用，参数为action的返回值
+     * @param onError action抛出异常时在事件线程上调用
+     */
+    <T> void mutate(Supplier<T> action, Consumer<T> onDone, Consumer<RuntimeException> onError) {
+        cancel();
+        executor.execute(() -> {
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> onError.accept(e));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> onDone.accept(result));
+        });
+    }
+
+    /**
+     * 使正在执行和排队的查询过期（在事件线程调用）
+     *
+     * @return 新的查询编号
+     */
+    long cancel() {
+        long id = generation.incrementAndGet();
+        if (running != null) {
+            running.cancel(false);
+            running = null;
+        }
+        return id;
+    }
+
+    private boolean isCurrent(long id) {
+        return generation.get() == id;
+    }
+
+    private void execute(long id, Query query, IntConsumer onDone) {
+        if (!isCurrent(id)) {
+            return;
+        }
+        List<Contact> batch = new ArrayList<>(BATCH_SIZE);
+        int[] total = {0};
+        try {
+            query.run(contact -> {
+                if (!isCurrent(id)) {
+                    throw new CancellationException(); // 中止过期查询，沿调用栈释放读锁
+                }
+                batch.add(contact);
+                if (batch.size() == BATCH_SIZE) {
+                    publish(id, new ArrayList<>(batch), total[0] == 0);
+                    total[0] += batch.size();
+                    batch.clear();
+                }
+            });
+        } catch (CancellationException e) {
+            return;
+        } catch (RuntimeException e) {
+            SwingUtilities.invokeLater(() -> {
+                if (isCurrent(id)) {
+                    JOptionPane.showMessageDialog(parent, "查询失败：" + e.getMessage(), "错误",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            });
+            return;
+        }
+        if (!batch.isEmpty() || total[0] == 0) {
+            publish(id, new ArrayList<>(batch), total[0] == 0);
+            total[0] += batch.size();
+        }
+        int count = total[0];
+        SwingUtilities.invokeLater(() -> {
+            if (isCurrent(id)) {
+                onDone.accept(count);
+            }
+        });
+    }
+
+    /**
+     * 把一批结果交给事件线程写入表格
+     */
+    private void publish(long id, List<Contact> batch, boolean first) {
+        SwingUtilities.invokeLater(() -> {
+            if (!isCurrent(id)) {
+                return;
+            }
+            if (first) {
+                tableModel.setContacts(batch);
+            } else {
+                tableModel.appendContacts(batch);
+            }
+        });
+    }
+}
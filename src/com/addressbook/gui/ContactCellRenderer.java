@@ -0,0 +1,100 @@
+package com.addressbook.gui;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+/**
+ * 联系人表格的单元格渲染器
+ * 表格模型只返回纯文本，字体、颜色、图标前缀和内边距由渲染器按列设置，
+ * 不再为每个单元格拼接HTML、也不必在每次重绘时经过Swing的HTML引擎解析；
+ * 边框和派生字体预先创建，滚动时除图标前缀的拼接外不产生新对象
+ */
+public class ContactCellRenderer extends DefaultTableCellRenderer {
+    /**
+     * 列样式
+     */
+    public enum Style {
+        INDEX(Font.BOLD, 16f, new Color(149, 165, 166), ""),   // 序号
+        NAME(Font.BOLD, 0f, null, ""),                          // 姓名，沿用表格的前景色
+        PHONE(Font.PLAIN, 0f, new Color(52, 73, 94), "📞 "),    // 电话
+        EMAIL(Font.PLAIN, 0f, new Color(127, 140, 141), "✉ "), // 邮箱
+        ADDRESS(Font.PLAIN, 0f, new Color(149, 165, 166), "🏠 "); // 地址
+
+        private final int fontStyle;
+        private final float fontSize; // 0表示沿用表格字号
+        private final Color color;    // null表示沿用表格前景色
+        private final String prefix;
+
+        Style(int fontStyle, float fontSize, Color color, String prefix) {
+            this.fontStyle = fontStyle;
+            this.fontSize = fontSize;
+            this.color = color;
+            this.prefix = prefix;
+        }
+    }
+
+    private static final Border CELL_BORDER = BorderFactory.createCompoundBorder(
+            BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(240, 240, 240)), // 底部分割线
+            new EmptyBorder(5, 20, 5, 20));
+
+    private final Style[] columns; // 按模型列号排列的样式
+    private Font baseFont;         // 派生字体所依据的表格字体
+    private Font[] fonts;          // 与columns对应的派生字体
+
+    /**
+     * @param columns 模型中各列的样式
+     */
+    public ContactCellRenderer(Style... columns) {
+        this.columns = columns.clone();
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+            boolean hasFocus, int row, int column) {
+        int modelColumn = table.convertColumnIndexToModel(column);
+        Style style = columns[modelColumn];
+        String text;
+        if (value == null) {
+            text = "";
+        } else if (style.prefix.isEmpty()) {
+            text = value.toString();
+        } else {
+            text = style.prefix + value;
+        }
+        super.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
+
+        if (!isSelected) {
+            setBackground(Color.WHITE); // 全白背景更干净
+        }
+        setFont(fontFor(table, modelColumn));
+        // 渲染器由各列共用，而setForeground会记下颜色供之后未选中的单元格使用，因此每次都显式设置
+        if (style.color != null) {
+            setForeground(style.color);
+        } else {
+            setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
+        }
+        setBorder(CELL_BORDER);
+        return this;
+    }
+
+    /**
+     * 获取模型第modelColumn列的字体，表格字体变化时重新派生
+     */
+    private Font fontFor(JTable table, int modelColumn) {
+        Font font = table.getFont();
+        if (font != baseFont) {
+            baseFont = font;
+            fonts = new Font[columns.length];
+        }
+        if (fonts[modelColumn] == null) {
+            Style style = columns[modelColumn];
+            fonts[modelColumn] = style.fontSize > 0
+                    ? font.deriveFont(style.fontStyle, style.fontSize)
+                    : font.deriveFont(style.fontStyle);
+        }
+        return fonts[modelColumn];
+    }
+}
@@ -7,6 +7,8 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
 import java.awt.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 联系人表单面板
@@ -24,6 +26,7 @@ public class ContactFormPanel extends ModernPanel {
     private Contact editingContact; // 当前正在编辑的联系人（如果是新增则为null）
     private Runnable onSaveSuccess;
     private Runnable onCancel;
+    private BackgroundSearch backgroundSearch; // 修改在它的后台线程上执行，未设置时在事件线程上直接执行
 
     public ContactFormPanel(AddressBookService service) {
         super(new GridBagLayout());
@@ -43,6 +46,10 @@ public class ContactFormPanel extends ModernPanel {
         this.onCancel = onCancel;
     }
 
+    void setBackgroundSearch(BackgroundSearch backgroundSearch) {
+        this.backgroundSearch = backgroundSearch;
+    }
+
     private void initUI() {
         JPanel formPanel = new JPanel(new GridBagLayout());
         formPanel.setBackground(Color.WHITE);
@@ -147,29 +154,47 @@ public class ContactFormPanel extends ModernPanel {
             return;
         }
 
-        try {
-            if (editingContact == null) {
+        Contact editing = editingContact;
+        Supplier<Boolean> action = () -> {
+            if (editing == null) {
                 // 添加模式
                 service.addContact(name, phone, email, address);
+                return true;
+            }
+            // 更新模式
+            return service.updateContact(editing.getName(), editing.getPhone(), phone, email, address);
+        };
+        Consumer<Boolean> onDone = success -> {
+            saveButton.setEnabled(true);
+            if (editing == null) {
                 JOptionPane.showMessageDialog(this, "添加成功");
+            } else if (success) {
+                JOptionPane.showMessageDialog(this, "更新成功");
             } else {
-                // 更新模式
-                boolean success = service.updateContact(
-                        editingContact.getName(),
-                        editingContact.getPhone(),
-                        phone, email, address);
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "更新成功");
-                } else {
-                    JOptionPane.showMessageDialog(this, "更新失败，原联系人可能已被删除", "错误", JOptionPane.ERROR_MESSAGE);
-                }
+                JOptionPane.showMessageDialog(this, "更新失败，原联系人可能已被删除", "错误", JOptionPane.ERROR_MESSAGE);
             }
-
             if (onSaveSuccess != null) {
                 onSaveSuccess.run();
             }
-        } catch (Exception e) {
+        };
+        Consumer<RuntimeException> onError = e -> {
+            saveButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+        };
+
+        if (backgroundSearch == null) {
+            Boolean success;
+            try {
+                success = action.get();
+            } catch (RuntimeException e) {
+                onError.accept(e);
+                return;
+            }
+            onDone.accept(success);
+            return;
         }
+        // 在后台线程执行，期间禁用保存按钮防止重复提交
+        saveButton.setEnabled(false);
+        backgroundSearch.mutate(action, onDone, onError);
     }
 }
@@ -1,13 +1,20 @@
 package com.addressbook.gui;
 
 import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
 import com.addressbook.service.AddressBookService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
@@ -15,16 +22,27 @@ import java.util.function.Consumer;
  * 展示联系人表格，提供搜索和操作功能
  */
 public class ContactListPanel extends ModernPanel {
+    private static final int PHONE_RESULT_LIMIT = 200; // 电话前缀查找最多显示的条数
+    private static final int PINYIN_RESULT_LIMIT = 200; // 拼音查找最多显示的条数
+    private static final int CONTAINS_RESULT_LIMIT = 200; // 包含查找每个字段最多显示的条数
+    private static final int FUZZY_MAX_EDITS = 1; // 精确查找无结果时模糊查找允许的编辑距离
+    private static final int DEBOUNCE_MILLIS = 200; // 输入停顿多久后开始查询
+
     private AddressBookService service;
     private ContactTableModel tableModel;
     private JTable table;
     private JTextField searchField;
     private Consumer<Contact> onEditRequest;
+    private final BackgroundSearch backgroundSearch;
+    private final Timer debounceTimer;
 
     public ContactListPanel(AddressBookService service) {
         super(new BorderLayout(0, 0));
         this.service = service;
         this.tableModel = new ContactTableModel();
+        this.backgroundSearch = new BackgroundSearch(this, tableModel);
+        this.debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> performLiveSearch());
+        debounceTimer.setRepeats(false);
 
         setBackground(Color.WHITE); // 设置为白色背景
         setShowBorder(false); // 不显示边框，只要圆角背景
@@ -64,8 +82,23 @@ public class ContactListPanel extends ModernPanel {
 
         // 2. 搜索框
         searchField = new ModernTextField(15);
-        searchField.putClientProperty("JTextField.placeholderText", "输入姓名查找...");
+        searchField.putClientProperty("JTextField.placeholderText", "输入姓名、拼音或电话查找...");
         searchField.setPreferredSize(new Dimension(180, 36));
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         gbc.gridx = 1;
         panel.add(searchField, gbc);
 
@@ -81,8 +114,13 @@ public class ContactListPanel extends ModernPanel {
         prefixSearchBtn.setPreferredSize(new Dimension(70, 36));
         prefixSearchBtn.addActionListener(e -> performSearch(true));
 
+        JButton containsSearchBtn = new ModernButton("包含", new Color(31, 97, 141));
+        containsSearchBtn.setPreferredSize(new Dimension(70, 36));
+        containsSearchBtn.addActionListener(e -> performContainsSearch());
+
         searchBtnGroup.add(searchBtn);
         searchBtnGroup.add(prefixSearchBtn);
+        searchBtnGroup.add(containsSearchBtn);
 
         gbc.gridx = 2;
         panel.add(searchBtnGroup, gbc);
@@ -100,6 +138,7 @@ public class ContactListPanel extends ModernPanel {
         resetBtn.setPreferredSize(new Dimension(70, 36));
         resetBtn.addActionListener(e -> {
             searchField.setText("");
+            debounceTimer.stop();
             refreshData();
         });
 
@@ -148,26 +187,12 @@ public class ContactListPanel extends ModernPanel {
         centerRenderer.setHorizontalAlignment(JLabel.CENTER);
         centerRenderer.setBorder(new EmptyBorder(0, 10, 0, 10));
 
-        // 自定义渲染器实现斑马纹和内边距
-        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (!isSelected) {
-                    c.setBackground(Color.WHITE); // 全白背景更干净
-                }
-
-                // 底部边框分割线
-                JComponent jc = (JComponent) c;
-                jc.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(240, 240, 240)),
-                        new EmptyBorder(0, 15, 0, 15)));
-
-                return c;
-            }
-        });
+        // 单元格渲染器：纯文本加按列样式，避免每次重绘解析HTML
+        table.setDefaultRenderer(Object.class, new ContactCellRenderer(
+                ContactCellRenderer.Style.NAME,
+                ContactCellRenderer.Style.PHONE,
+                ContactCellRenderer.Style.EMAIL,
+                ContactCellRenderer.Style.ADDRESS));
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.getViewport().setBackground(Color.WHITE);
@@ -189,26 +214,102 @@ public class ContactListPanel extends ModernPanel {
         return panel;
     }
 
+    /**
+     * 边输入边查询：每次输入重新计时，停顿DEBOUNCE_MILLIS后按前缀在后台查询，结果不弹窗提示
+     */
+    private void performLiveSearch() {
+        String keyword = searchField.getText().trim();
+        if (keyword.isEmpty()) {
+            refreshData();
+            return;
+        }
+        backgroundSearch.submit(prefixQuery(keyword), count -> { });
+    }
+
     private void performSearch(boolean isPrefix) {
         String keyword = searchField.getText().trim();
         if (keyword.isEmpty()) {
             JOptionPane.showMessageDialog(this, "请输入搜索关键词", "提示", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        debounceTimer.stop();
 
-        List<Contact> results;
         if (isPrefix) {
-            results = service.findByPrefix(keyword);
-        } else {
-            results = service.findContact(keyword);
+            backgroundSearch.submit(prefixQuery(keyword), this::showEmptyResultMessage);
+            return;
         }
+        if (keyword.matches("[0-9]+")) {
+            // 纯数字按电话精确查找，走哈希索引
+            backgroundSearch.submit(sink -> {
+                Contact contact = service.findByPhone(keyword);
+                if (contact != null) {
+                    sink.accept(contact);
+                }
+            }, this::showEmptyResultMessage);
+            return;
+        }
+        AtomicBoolean fuzzy = new AtomicBoolean();
+        backgroundSearch.submit(sink -> {
+            List<Contact> results = service.findContact(keyword);
+            if (results.isEmpty()) {
+                // 没有同名联系人时显示姓名相近的联系人，容忍一个错字
+                results = service.findFuzzy(keyword, FUZZY_MAX_EDITS);
+                fuzzy.set(!results.isEmpty());
+            }
+            results.forEach(sink);
+        }, count -> {
+            if (fuzzy.get()) {
+                JOptionPane.showMessageDialog(this, "未找到姓名完全相同的联系人，已显示姓名相近的联系人",
+                        "搜索结果", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                showEmptyResultMessage(count);
+            }
+        });
+    }
+
+    /**
+     * 前缀查询：纯数字走电话前缀树，字母开头按姓名拼音查找（全拼和首字母均可，英文姓名同样匹配），
+     * 其余按姓名前缀沿树逐个取出，结果边取边显示
+     */
+    private BackgroundSearch.Query prefixQuery(String keyword) {
+        if (keyword.matches("[0-9]+")) {
+            return sink -> service.findByPhonePrefix(keyword, PHONE_RESULT_LIMIT).forEach(sink);
+        }
+        if (keyword.matches("[A-Za-z][A-Za-z0-9 ']*")) {
+            return sink -> service.findByPinyin(keyword, PINYIN_RESULT_LIMIT).forEach(sink);
+        }
+        return sink -> service.forEachMatch(ContactQuery.prefix(ContactField.NAME, keyword), sink);
+    }
 
-        tableModel.setContacts(results);
-        if (results.isEmpty()) {
+    private void showEmptyResultMessage(int count) {
+        if (count == 0) {
             JOptionPane.showMessageDialog(this, "未找到匹配的联系人", "搜索结果", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    /**
+     * 在姓名、邮箱、地址中查找包含关键词的联系人（n-gram索引），同一联系人只显示一次
+     */
+    private void performContainsSearch() {
+        String keyword = searchField.getText().trim();
+        if (keyword.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请输入搜索关键词", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        debounceTimer.stop();
+
+        backgroundSearch.submit(sink -> {
+            Set<Contact> seen = new HashSet<>();
+            for (ContactField field : new ContactField[] { ContactField.NAME, ContactField.EMAIL, ContactField.ADDRESS }) {
+                for (Contact contact : service.searchContains(field, keyword, CONTAINS_RESULT_LIMIT)) {
+                    if (seen.add(contact)) {
+                        sink.accept(contact);
+                    }
+                }
+            }
+        }, this::showEmptyResultMessage);
+    }
+
     private void handleDelete() {
         int row = table.getSelectedRow();
         if (row < 0) {
@@ -222,13 +323,15 @@ public class ContactListPanel extends ModernPanel {
                 "确认删除", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = service.deleteContact(contact.getName(), contact.getPhone());
-            if (success) {
-                JOptionPane.showMessageDialog(this, "删除成功");
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "删除失败", "错误", JOptionPane.ERROR_MESSAGE);
-            }
+            debounceTimer.stop();
+            backgroundSearch.mutate(() -> service.deleteContact(contact.getName(), contact.getPhone()), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "删除成功");
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "删除失败", "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }, e -> JOptionPane.showMessageDialog(this, e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -244,8 +347,15 @@ public class ContactListPanel extends ModernPanel {
         }
     }
 
+    /**
+     * 列表的后台查询执行器，表单等其他面板的修改也经由它执行
+     */
+    BackgroundSearch getBackgroundSearch() {
+        return backgroundSearch;
+    }
+
     public void refreshData() {
-        List<Contact> all = service.getAllContacts();
-        tableModel.setContacts(all);
+        backgroundSearch.cancel(); // 丢弃尚未显示的查询结果，避免覆盖刷新后的列表
+        tableModel.showAll(service);
     }
 }
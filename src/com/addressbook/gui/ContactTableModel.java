@@ -1,18 +1,36 @@
 package com.addressbook.gui;
 
 import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 联系人表格模型
  * 用于在JTable中展示联系人信息
+ * 展示全部联系人时直接按位置从AVL树分块读取，只加载可视区域附近的行；
+ * 展示搜索结果时使用普通列表
  */
 public class ContactTableModel extends AbstractTableModel {
+    private static final int BLOCK_SIZE = 64;       // 每次从树中读取的行数
+    private static final int MAX_CACHED_BLOCKS = 8; // 最多缓存的分块数
+
     private final String[] columnNames = {"姓名", "电话", "邮箱", "地址"};
     private List<Contact> contacts;
 
+    private AddressBookService source;              // 树模式下的数据源，列表模式下为null
+    private int sourceRowCount;                     // 树模式下的行数快照
+    private final Map<Integer, List<Contact>> blockCache =
+            new LinkedHashMap<Integer, List<Contact>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Contact>> eldest) {
+                    return size() > MAX_CACHED_BLOCKS;
+                }
+            };
+
     /**
      * 构造函数
      */
@@ -21,17 +39,51 @@ public class ContactTableModel extends AbstractTableModel {
     }
 
     /**
-     * 设置联系人数据
+     * 设置联系人数据（列表模式）
      */
     public void setContacts(List<Contact> contacts) {
+        detachSource();
         this.contacts = contacts != null ? new ArrayList<>(contacts) : new ArrayList<>();
         fireTableDataChanged();
     }
 
+    /**
+     * 在列表末尾追加一批联系人（列表模式），只通知新增的行
+     */
+    public void appendContacts(List<Contact> batch) {
+        if (source != null) {
+            setContacts(batch);
+            return;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int first = contacts.size();
+        contacts.addAll(batch);
+        fireTableRowsInserted(first, contacts.size() - 1);
+    }
+
+    /**
+     * 按姓名顺序展示通讯录中的全部联系人（树模式）
+     * 不复制数据，行数取自树的联系人计数，行内容在绘制时按需分块读取
+     */
+    public void showAll(AddressBookService service) {
+        this.contacts = new ArrayList<>();
+        this.source = service;
+        this.sourceRowCount = service.getContactCount();
+        blockCache.clear();
+        fireTableDataChanged();
+    }
+
     /**
      * 添加联系人
      */
     public void addContact(Contact contact) {
+        if (source != null) {
+            // 树模式下联系人已由服务层插入，重新读取即可保持顺序
+            showAll(source);
+            return;
+        }
         contacts.add(contact);
         fireTableRowsInserted(contacts.size() - 1, contacts.size() - 1);
     }
@@ -40,6 +92,7 @@ public class ContactTableModel extends AbstractTableModel {
      * 清空所有数据
      */
     public void clear() {
+        detachSource();
         contacts.clear();
         fireTableDataChanged();
     }
@@ -48,15 +101,42 @@ public class ContactTableModel extends AbstractTableModel {
      * 获取指定行的联系人
      */
     public Contact getContactAt(int row) {
-        if (row >= 0 && row < contacts.size()) {
+        if (row < 0 || row >= getRowCount()) {
+            return null;
+        }
+        if (source == null) {
             return contacts.get(row);
         }
-        return null;
+        List<Contact> block = loadBlock(row / BLOCK_SIZE);
+        int offsetInBlock = row % BLOCK_SIZE;
+        // 树在两次刷新之间被修改时分块可能变短
+        return offsetInBlock < block.size() ? block.get(offsetInBlock) : null;
+    }
+
+    /**
+     * 读取指定分块，优先命中缓存
+     */
+    private List<Contact> loadBlock(int blockIndex) {
+        List<Contact> block = blockCache.get(blockIndex);
+        if (block == null) {
+            block = source.getContactPage(blockIndex * BLOCK_SIZE, BLOCK_SIZE);
+            blockCache.put(blockIndex, block);
+        }
+        return block;
+    }
+
+    /**
+     * 退出树模式并释放分块缓存
+     */
+    private void detachSource() {
+        source = null;
+        sourceRowCount = 0;
+        blockCache.clear();
     }
 
     @Override
     public int getRowCount() {
-        return contacts.size();
+        return source != null ? sourceRowCount : contacts.size();
     }
 
     @Override
@@ -71,17 +151,21 @@ public class ContactTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Contact contact = contacts.get(rowIndex);
+        Contact contact = getContactAt(rowIndex);
+        if (contact == null) {
+            return null;
+        }
+        // 只返回纯文本，样式由ContactCellRenderer按列设置
         switch (columnIndex) {
-            case 0: 
-                return "<html><body style='padding:5px;'><b>" + contact.getName() + "</b></body></html>";
-            case 1: 
-                return "<html><body style='padding:5px;'><span style='color:#34495e;'>📞 " + contact.getPhone() + "</span></body></html>";
-            case 2: 
-                return "<html><body style='padding:5px;'><span style='color:#7f8c8d;'>✉ " + contact.getEmail() + "</span></body></html>";
-            case 3: 
-                return "<html><body style='padding:5px;line-height:1.5;'><span style='color:#95a5a6;'>🏠 " + contact.getAddress() + "</span></body></html>";
-            default: 
+            case 0:
+                return contact.getName();
+            case 1:
+                return contact.getPhone();
+            case 2:
+                return contact.getEmail();
+            case 3:
+                return contact.getAddress();
+            default:
                 return null;
         }
     }
@@ -4,12 +4,19 @@ import com.addressbook.service.AddressBookService;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * 主窗口框架
  * 集成所有功能面板
  */
 public class MainFrame extends JFrame {
+    private static final Path DATA_DIRECTORY = Paths.get(System.getProperty("user.home"), ".addressbook");
+
     private AddressBookService service;
     private JPanel contentPanel;
     private CardLayout cardLayout;
@@ -19,17 +26,42 @@ public class MainFrame extends JFrame {
     private TraversalPanel traversalPanel;
 
     public MainFrame() {
-        service = new AddressBookService();
-        initTestData(); // 初始化一些数据方便演示
+        service = openService();
+        if (service.getContactCount() == 0) {
+            initTestData(); // 首次启动时初始化一些数据方便演示
+        }
 
         initUI();
     }
 
+    /**
+     * 打开持久化通讯录，失败时退回纯内存模式
+     */
+    private AddressBookService openService() {
+        try {
+            return new AddressBookService(DATA_DIRECTORY);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "无法加载通讯录数据，本次修改将不会保存：" + e.getMessage(),
+                    "错误", JOptionPane.ERROR_MESSAGE);
+            return new AddressBookService();
+        }
+    }
+
     private void initUI() {
         setTitle("通讯录管理系统");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1200, 900);
         setLocationRelativeTo(null);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    service.close(); // 退出前同步尚未落盘的日志
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
 
         // 设置外观
         try {
@@ -59,6 +91,7 @@ public class MainFrame extends JFrame {
         });
 
         formPanel = new ContactFormPanel(service);
+        formPanel.setBackgroundSearch(listPanel.getBackgroundSearch());
         formPanel.setOnSaveSuccess(() -> {
             listPanel.refreshData();
             cardLayout.show(contentPanel, "list");
@@ -1,13 +1,11 @@
 package com.addressbook.gui;
 
-import com.addressbook.model.Contact;
 import com.addressbook.service.AddressBookService;
+import com.addressbook.tree.TraversalOrder;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.util.List;
 
 /**
  * 遍历展示面板
@@ -107,26 +105,13 @@ public class TraversalPanel extends ModernPanel {
         table.getTableHeader().setPreferredSize(new Dimension(0, 50));
         table.getTableHeader().setBorder(BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(236, 240, 241)));
 
-        // 单元格渲染器
-        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (!isSelected) {
-                    c.setBackground(Color.WHITE);
-                }
-
-                // 底部边框分割线
-                JComponent jc = (JComponent) c;
-                jc.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(240, 240, 240)),
-                        new EmptyBorder(0, 15, 0, 15)));
-
-                return c;
-            }
-        });
+        // 单元格渲染器：纯文本加按列样式，避免每次重绘解析HTML
+        table.setDefaultRenderer(Object.class, new ContactCellRenderer(
+                ContactCellRenderer.Style.INDEX,
+                ContactCellRenderer.Style.NAME,
+                ContactCellRenderer.Style.PHONE,
+                ContactCellRenderer.Style.EMAIL,
+                ContactCellRenderer.Style.ADDRESS));
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.getViewport().setBackground(Color.WHITE);
@@ -151,21 +136,22 @@ public class TraversalPanel extends ModernPanel {
     private void showTraversal(String type, String desc) {
         statusLabel.setText(desc);
 
-        List<Contact> contacts = null;
+        TraversalOrder order = null;
         switch (type) {
             case "preorder":
-                contacts = service.getPreorderContacts();
+                order = TraversalOrder.PREORDER;
                 break;
             case "inorder":
-                contacts = service.getAllContacts();
+                order = TraversalOrder.INORDER;
                 break;
             case "postorder":
-                contacts = service.getPostorderContacts();
+                order = TraversalOrder.POSTORDER;
                 break;
         }
 
-        if (contacts != null) {
-            tableModel.setContacts(contacts);
+        // 只记录遍历顺序和行数，行内容由表格模型按可视区域分块读取
+        if (order != null) {
+            tableModel.showTraversal(service, order);
         } else {
             tableModel.clear();
         }
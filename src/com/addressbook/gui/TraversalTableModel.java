@@ -1,30 +1,44 @@
 package com.addressbook.gui;
 
 import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import com.addressbook.tree.TraversalOrder;
 import javax.swing.table.AbstractTableModel;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 遍历表格模型（带序号）
  * 用于在遍历页面展示联系人信息
+ * 行数取自树的联系人计数，行内容在绘制时按遍历顺序从AVL树分块读取，只加载可视区域附近的行
  */
 public class TraversalTableModel extends AbstractTableModel {
+    private static final int BLOCK_SIZE = 64;       // 每次从树中读取的行数
+    private static final int MAX_CACHED_BLOCKS = 8; // 最多缓存的分块数
+
     private final String[] columnNames = {"序号", "姓名", "电话", "邮箱", "地址"};
-    private List<Contact> contacts;
 
-    /**
-     * 构造函数
-     */
-    public TraversalTableModel() {
-        this.contacts = new ArrayList<>();
-    }
+    private AddressBookService source;              // 数据源，未展示时为null
+    private TraversalOrder order;                   // 当前展示的遍历顺序
+    private int rowCount;                           // 展示时的行数快照
+    private final Map<Integer, List<Contact>> blockCache =
+            new LinkedHashMap<Integer, List<Contact>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Contact>> eldest) {
+                    return size() > MAX_CACHED_BLOCKS;
+                }
+            };
 
     /**
-     * 设置联系人数据
+     * 按指定遍历顺序展示通讯录中的全部联系人
+     * 不复制数据，行内容在绘制时按需分块读取
      */
-    public void setContacts(List<Contact> contacts) {
-        this.contacts = contacts != null ? new ArrayList<>(contacts) : new ArrayList<>();
+    public void showTraversal(AddressBookService service, TraversalOrder order) {
+        this.source = service;
+        this.order = order;
+        this.rowCount = service.getContactCount();
+        blockCache.clear();
         fireTableDataChanged();
     }
 
@@ -32,13 +46,40 @@ public class TraversalTableModel extends AbstractTableModel {
      * 清空所有数据
      */
     public void clear() {
-        contacts.clear();
+        source = null;
+        rowCount = 0;
+        blockCache.clear();
         fireTableDataChanged();
     }
 
+    /**
+     * 获取指定行的联系人
+     */
+    public Contact getContactAt(int row) {
+        if (source == null || row < 0 || row >= rowCount) {
+            return null;
+        }
+        List<Contact> block = loadBlock(row / BLOCK_SIZE);
+        int offsetInBlock = row % BLOCK_SIZE;
+        // 树在两次刷新之间被修改时分块可能变短
+        return offsetInBlock < block.size() ? block.get(offsetInBlock) : null;
+    }
+
+    /**
+     * 读取指定分块，优先命中缓存
+     */
+    private List<Contact> loadBlock(int blockIndex) {
+        List<Contact> block = blockCache.get(blockIndex);
+        if (block == null) {
+            block = source.getContactPage(order, blockIndex * BLOCK_SIZE, BLOCK_SIZE);
+            blockCache.put(blockIndex, block);
+        }
+        return block;
+    }
+
     @Override
     public int getRowCount() {
-        return contacts.size();
+        return rowCount;
     }
 
     @Override
@@ -53,20 +94,23 @@ public class TraversalTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Contact contact = contacts.get(rowIndex);
+        Contact contact = getContactAt(rowIndex);
+        if (contact == null) {
+            return null;
+        }
+        // 只返回纯文本，样式由ContactCellRenderer按列设置
         switch (columnIndex) {
             case 0:
-                // 序号列
-                return "<html><body style='padding:5px;'><span style='color:#95a5a6;font-size:16px;'><b>" + (rowIndex + 1) + "</b></span></body></html>";
-            case 1: 
-                return "<html><body style='padding:5px;'><b>" + contact.getName() + "</b></body></html>";
-            case 2: 
-                return "<html><body style='padding:5px;'><span style='color:#34495e;'>📞 " + contact.getPhone() + "</span></body></html>";
-            case 3: 
-                return "<html><body style='padding:5px;'><span style='color:#7f8c8d;'>✉ " + contact.getEmail() + "</span></body></html>";
-            case 4: 
-                return "<html><body style='padding:5px;line-height:1.5;'><span style='color:#95a5a6;'>🏠 " + contact.getAddress() + "</span></body></html>";
-            default: 
+                return rowIndex + 1; // 序号列
+            case 1:
+                return contact.getName();
+            case 2:
+                return contact.getPhone();
+            case 3:
+                return contact.getEmail();
+            case 4:
+                return contact.getAddress();
+            default:
                 return null;
         }
     }
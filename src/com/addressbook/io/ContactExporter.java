@@ -0,0 +1,32 @@
+package com.addressbook.io;
+
+import com.addressbook.model.Contact;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 联系人导出工具
+ * 边遍历边写出，不预先收集联系人列表，内存占用与联系人数量无关
+ */
+public final class ContactExporter {
+    private ContactExporter() {
+    }
+
+    /**
+     * 按contacts的迭代顺序写出全部联系人
+     * 不关闭out，调用方负责刷新和关闭
+     *
+     * @return 写出的联系人数
+     * @throws IOException 如果写入失败
+     */
+    public static long export(Iterable<Contact> contacts, Writer out, ContactFormat format) throws IOException {
+        RecordWriter writer = format.newWriter(out);
+        writer.writeHeader();
+        long count = 0;
+        for (Contact contact : contacts) {
+            writer.write(contact);
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package com.addressbook.io;
+
+import java.io.BufferedReader;
+import java.io.Writer;
+
+/**
+ * 联系人交换格式
+ */
+public enum ContactFormat {
+    /**
+     * 逗号分隔值（RFC 4180），首行为 name,phone,email,address 表头
+     */
+    CSV {
+        @Override
+        RecordReader newReader(BufferedReader in) {
+            return new CsvCodec.Reader(in);
+        }
+
+        @Override
+        RecordWriter newWriter(Writer out) {
+            return new CsvCodec.Writer(out);
+        }
+    },
+
+    /**
+     * vCard 3.0（RFC 2426），读取FN/N、TEL、EMAIL、ADR属性
+     */
+    VCARD {
+        @Override
+        RecordReader newReader(BufferedReader in) {
+            return new VCardCodec.Reader(in);
+        }
+
+        @Override
+        RecordWriter newWriter(Writer out) {
+            return new VCardCodec.Writer(out);
+        }
+    };
+
+    abstract RecordReader newReader(BufferedReader in);
+
+    abstract RecordWriter newWriter(Writer out);
+}
@@ -0,0 +1,180 @@
+package com.addressbook.io;
+
+import com.addressbook.model.Contact;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 联系人流式导入工具
+ * 解析、校验、插入三个阶段流水线执行：解析线程逐条读取记录，校验线程检查必填字段并构造联系人，
+ * 调用线程把校验后的批次交给插入函数。阶段之间用容量固定的阻塞队列按批传递，
+ * 下游较慢时上游自动阻塞，因此除插入结果外，导入过程的内存占用与文件大小无关
+ */
+public final class ContactImporter {
+    static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+
+    private ContactImporter() {
+    }
+
+    /**
+     * 在阶段之间传递的一批数据，last为true的批次表示上游已结束
+     */
+    private static final class Batch<T> {
+        final List<T> items;
+        final List<String> errors = new ArrayList<>(0);
+        final boolean last;
+
+        private Batch(int capacity, boolean last) {
+            this.items = new ArrayList<>(capacity);
+            this.last = last;
+        }
+
+        static <T> Batch<T> create() {
+            return new Batch<>(BATCH_SIZE, false);
+        }
+
+        static <T> Batch<T> end() {
+            return new Batch<>(0, true);
+        }
+    }
+
+    /**
+     * 解析出的原始记录及其起始行号
+     */
+    private static final class RawRecord {
+        final long line;
+        final String[] fields;
+
+        RawRecord(long line, String[] fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * 流水线中的一个后台阶段
+     */
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * 读取并导入in中的全部记录，不关闭in
+     *
+     * @param inserter 插入一批联系人，返回其中被拒绝的原因（全部成功时返回空列表）
+     * @return 导入结果
+     * @throws IOException 如果读取失败或文件格式无法解析（此前的批次已经插入）
+     */
+    public static ImportResult importFrom(Reader in, ContactFormat format,
+            Function<List<Contact>, List<String>> inserter) throws IOException {
+        BufferedReader buffered = in instanceof BufferedReader
+                ? (BufferedReader) in : new BufferedReader(in, READ_BUFFER_CHARS);
+        RecordReader reader = format.newReader(buffered);
+        BlockingQueue<Batch<RawRecord>> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch<Contact>> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread parser = startStage("import-parser", () -> parse(reader, parsed), parsed, failure);
+        Thread validator = startStage("import-validator", () -> validate(parsed, validated), validated, failure);
+        ImportResult result = new ImportResult();
+        try {
+            Batch<Contact> batch;
+            while (!(batch = validated.take()).last) {
+                batch.errors.forEach(result::addRejected);
+                List<String> rejected = inserter.apply(batch.items);
+                result.addImported(batch.items.size() - rejected.size());
+                rejected.forEach(result::addRejected);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("导入被中断");
+        } finally {
+            // 正常结束时两个阶段已退出；插入失败时中断它们，使阻塞在队列上的阶段退出
+            parser.interrupt();
+            validator.interrupt();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error != null) {
+            throw new IOException("导入失败：" + error.getMessage(), error);
+        }
+        return result;
+    }
+
+    /**
+     * 启动一个后台阶段，阶段结束（包括出错）后向下游发送结束批次
+     */
+    private static <T> Thread startStage(String name, Stage stage, BlockingQueue<Batch<T>> downstream,
+            AtomicReference<Throwable> failure) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                return; // 下游已放弃
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+            try {
+                downstream.put(Batch.end());
+            } catch (InterruptedException e) {
+                // 下游已放弃
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void parse(RecordReader reader, BlockingQueue<Batch<RawRecord>> out)
+            throws IOException, InterruptedException {
+        Batch<RawRecord> batch = Batch.create();
+        String[] fields;
+        while ((fields = reader.next()) != null) {
+            batch.items.add(new RawRecord(reader.getLineNumber(), fields));
+            if (batch.items.size() == BATCH_SIZE) {
+                out.put(batch);
+                batch = Batch.create();
+            }
+        }
+        if (!batch.items.isEmpty()) {
+            out.put(batch);
+        }
+    }
+
+    /**
+     * 校验必填字段（姓名和电话，与表单一致），去掉各字段首尾空白
+     */
+    private static void validate(BlockingQueue<Batch<RawRecord>> in, BlockingQueue<Batch<Contact>> out)
+            throws InterruptedException {
+        Batch<RawRecord> raw;
+        while (!(raw = in.take()).last) {
+            Batch<Contact> batch = Batch.create();
+            for (RawRecord record : raw.items) {
+                String name = record.fields[0].trim();
+                String phone = record.fields[1].trim();
+                if (name.isEmpty()) {
+                    batch.errors.add("第 " + record.line + " 行：姓名不能为空");
+                } else if (phone.isEmpty()) {
+                    batch.errors.add("第 " + record.line + " 行：电话不能为空");
+                } else {
+                    batch.items.add(new Contact(name, phone, record.fields[2].trim(), record.fields[3].trim()));
+                }
+            }
+            out.put(batch);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.addressbook.io;
+
+import com.addressbook.model.Contact;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV编解码
+ * 字段含逗号、双引号或换行时用双引号包围，内部双引号写为两个双引号
+ */
+final class CsvCodec {
+    static final String HEADER = "name,phone,email,address";
+    private static final int FIELD_COUNT = 4;
+
+    private CsvCodec() {
+    }
+
+    /**
+     * 逐行读取，引号内的换行会继续读取下一行拼接为同一条记录
+     */
+    static final class Reader implements RecordReader {
+        private final BufferedReader in;
+        private final StringBuilder field = new StringBuilder();
+        private long lineNumber;
+        private long recordLine;
+        private boolean started;
+
+        Reader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+                if (!started) {
+                    started = true;
+                    if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                        line = line.substring(1); // 去掉Excel写入的BOM
+                    }
+                    if (isHeader(line)) {
+                        line = "";
+                    }
+                }
+            } while (line.isEmpty());
+            recordLine = lineNumber;
+            return toRecord(parse(line));
+        }
+
+        @Override
+        public long getLineNumber() {
+            return recordLine;
+        }
+
+        private static boolean isHeader(String line) {
+            return line.regionMatches(true, 0, "name,", 0, 5) || line.startsWith("姓名,");
+        }
+
+        private List<String> parse(String line) throws IOException {
+            List<String> fields = new ArrayList<>(FIELD_COUNT);
+            field.setLength(0);
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // 引号内的换行：字段跨行，继续读取下一行
+                    line = in.readLine();
+                    lineNumber++;
+                    if (line == null) {
+                        throw new IOException("第 " + recordLine + " 行：引号未闭合");
+                    }
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static String[] toRecord(List<String> fields) {
+            String[] record = new String[FIELD_COUNT];
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                record[i] = i < fields.size() ? fields.get(i) : "";
+            }
+            return record;
+        }
+    }
+
+    static final class Writer implements RecordWriter {
+        private final java.io.Writer out;
+
+        Writer(java.io.Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            out.write(HEADER);
+            out.write("\r\n");
+        }
+
+        @Override
+        public void write(Contact contact) throws IOException {
+            writeField(contact.getName());
+            out.write(',');
+            writeField(contact.getPhone());
+            out.write(',');
+            writeField(contact.getEmail());
+            out.write(',');
+            writeField(contact.getAddress());
+            out.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!needsQuoting(value)) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        }
+
+        private static boolean needsQuoting(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
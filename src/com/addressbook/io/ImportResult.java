@@ -0,0 +1,57 @@
+package com.addressbook.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 导入结果
+ * 记录成功导入和被拒绝的记录数，只保留前若干条拒绝原因，避免大文件中大量错误行占满内存
+ */
+public final class ImportResult {
+    static final int MAX_ERRORS = 100;
+
+    private long importedCount;
+    private long rejectedCount;
+    private final List<String> errors = new ArrayList<>();
+
+    ImportResult() {
+    }
+
+    void addImported(int count) {
+        importedCount += count;
+    }
+
+    void addRejected(String reason) {
+        rejectedCount++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(reason);
+        }
+    }
+
+    /**
+     * 获取成功导入的联系人数
+     */
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * 获取因格式错误、缺少必填字段或重复而被拒绝的记录数
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 获取拒绝原因（最多前100条）
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "导入结果{成功=" + importedCount + ", 拒绝=" + rejectedCount + '}';
+    }
+}
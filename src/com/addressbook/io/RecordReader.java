@@ -0,0 +1,22 @@
+package com.addressbook.io;
+
+import java.io.IOException;
+
+/**
+ * 交换格式记录读取接口
+ * 每次读取一条记录，只持有当前记录，不把整个文件读入内存
+ */
+interface RecordReader {
+    /**
+     * 读取下一条记录
+     *
+     * @return 姓名、电话、邮箱、地址四个字段（缺失的字段为空字符串），到达末尾时返回null
+     * @throws IOException 如果读取失败或记录格式无法解析
+     */
+    String[] next() throws IOException;
+
+    /**
+     * 获取上一条记录在文件中的起始行号（从1开始）
+     */
+    long getLineNumber();
+}
@@ -0,0 +1,19 @@
+package com.addressbook.io;
+
+import com.addressbook.model.Contact;
+import java.io.IOException;
+
+/**
+ * 交换格式记录写出接口
+ */
+interface RecordWriter {
+    /**
+     * 写出文件头（格式没有文件头时为空操作）
+     */
+    void writeHeader() throws IOException;
+
+    /**
+     * 写出一个联系人
+     */
+    void write(Contact contact) throws IOException;
+}
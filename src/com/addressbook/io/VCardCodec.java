@@ -0,0 +1,235 @@
+package com.addressbook.io;
+
+import com.addressbook.model.Contact;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * vCard编解码
+ * 读取时展开折行（以空格或制表符开头的行接在上一行之后），忽略属性参数和分组前缀，
+ * 同一属性出现多次时只取第一个；写出时对反斜杠、逗号、分号和换行转义
+ */
+final class VCardCodec {
+    private VCardCodec() {
+    }
+
+    static final class Reader implements RecordReader {
+        private final BufferedReader in;
+        private final StringBuilder unfolded = new StringBuilder();
+        private String lookahead;  // 已读出但属于下一逻辑行的物理行
+        private long lineNumber;   // 已读取的物理行数
+        private long recordLine;
+
+        Reader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            String line;
+            do {
+                line = readLogicalLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (!line.equalsIgnoreCase("BEGIN:VCARD"));
+            recordLine = lineNumber - (lookahead != null ? 1 : 0);
+
+            String[] record = {"", "", "", ""};
+            String structuredName = null;
+            while (true) {
+                line = readLogicalLine();
+                if (line == null) {
+                    throw new IOException("第 " + recordLine + " 行：vCard缺少END:VCARD");
+                }
+                if (line.equalsIgnoreCase("END:VCARD")) {
+                    break;
+                }
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String property = propertyName(line.substring(0, colon));
+                String value = line.substring(colon + 1);
+                switch (property) {
+                    case "FN":
+                        fillOnce(record, 0, unescape(value));
+                        break;
+                    case "N":
+                        if (structuredName == null) {
+                            structuredName = joinComponents(value, "");
+                        }
+                        break;
+                    case "TEL":
+                        fillOnce(record, 1, unescape(value));
+                        break;
+                    case "EMAIL":
+                        fillOnce(record, 2, unescape(value));
+                        break;
+                    case "ADR":
+                        fillOnce(record, 3, joinComponents(value, " "));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (record[0].isEmpty() && structuredName != null) {
+                record[0] = structuredName; // 没有FN时用N的姓和名拼接
+            }
+            return record;
+        }
+
+        @Override
+        public long getLineNumber() {
+            return recordLine;
+        }
+
+        /**
+         * 读取一个逻辑行：把随后以空白开头的折行拼接上来
+         */
+        private String readLogicalLine() throws IOException {
+            String line = lookahead != null ? lookahead : readPhysicalLine();
+            lookahead = null;
+            if (line == null) {
+                return null;
+            }
+            unfolded.setLength(0);
+            unfolded.append(line);
+            String next;
+            while ((next = readPhysicalLine()) != null
+                    && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                unfolded.append(next, 1, next.length());
+            }
+            lookahead = next;
+            return unfolded.toString().trim();
+        }
+
+        private String readPhysicalLine() throws IOException {
+            String line = in.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        }
+
+        /**
+         * 去掉分组前缀（item1.TEL）和参数（TEL;TYPE=CELL），返回大写属性名
+         */
+        private static String propertyName(String raw) {
+            int semicolon = raw.indexOf(';');
+            String name = semicolon < 0 ? raw : raw.substring(0, semicolon);
+            int dot = name.lastIndexOf('.');
+            return (dot < 0 ? name : name.substring(dot + 1)).toUpperCase();
+        }
+
+        private static void fillOnce(String[] record, int index, String value) {
+            if (record[index].isEmpty()) {
+                record[index] = value;
+            }
+        }
+
+        /**
+         * 按未转义的分号拆分结构化值，去掉空分量后用separator拼接
+         */
+        private static String joinComponents(String value, String separator) {
+            StringBuilder joined = new StringBuilder();
+            int start = 0;
+            for (int i = 0; i <= value.length(); i++) {
+                if (i == value.length() || (value.charAt(i) == ';' && !isEscaped(value, i))) {
+                    String component = unescape(value.substring(start, i)).trim();
+                    if (!component.isEmpty()) {
+                        if (joined.length() > 0) {
+                            joined.append(separator);
+                        }
+                        joined.append(component);
+                    }
+                    start = i + 1;
+                }
+            }
+            return joined.toString();
+        }
+
+        private static boolean isEscaped(String value, int index) {
+            int backslashes = 0;
+            for (int i = index - 1; i >= 0 && value.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+
+        private static String unescape(String value) {
+            if (value.indexOf('\\') < 0) {
+                return value;
+            }
+            StringBuilder result = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\\' && i + 1 < value.length()) {
+                    char escaped = value.charAt(++i);
+                    result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+                } else {
+                    result.append(c);
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    static final class Writer implements RecordWriter {
+        private final java.io.Writer out;
+
+        Writer(java.io.Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeHeader() {
+            // vCard没有文件头
+        }
+
+        @Override
+        public void write(Contact contact) throws IOException {
+            out.write("BEGIN:VCARD\r\nVERSION:3.0\r\n");
+            writeProperty("FN:", contact.getName(), "");
+            writeProperty("N:", contact.getName(), ";;;;"); // 整个姓名作为姓氏分量
+            writeProperty("TEL:", contact.getPhone(), "");
+            writeProperty("EMAIL:", contact.getEmail(), "");
+            writeProperty("ADR:;;", contact.getAddress(), ";;;;"); // 地址作为街道分量
+            out.write("END:VCARD\r\n");
+        }
+
+        /**
+         * 写出一行属性，值为空时省略
+         */
+        private void writeProperty(String prefix, String value, String suffix) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            out.write(prefix);
+            writeEscaped(value);
+            out.write(suffix);
+            out.write("\r\n");
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\':
+                    case ',':
+                    case ';':
+                        out.write('\\');
+                        out.write(c);
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        break;
+                    default:
+                        out.write(c);
+                }
+            }
+        }
+    }
+}
@@ -1,29 +1,35 @@
 package com.addressbook.model;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 二叉搜索树节点类
  * 每个节点存储一个姓名作为关键字，以及具有该姓名的所有联系人（处理重名情况）
+ * 同名联系人存放在ContactBucket中，重名很多时也能按电话O(1)删除
  */
 public class BSTNode {
     private String key;                        // 姓名关键字
-    private LinkedList<Contact> contacts;      // 存储同名联系人的链表
+    private String sortKey;                    // 姓名的排序键，树中按它比较
+    private ContactBucket contacts;            // 存储同名联系人的桶
     private BSTNode left;                      // 左子节点
     private BSTNode right;                     // 右子节点
     private int height;                        // 节点高度（用于AVL树平衡）
+    private int size;                          // 以该节点为根的子树中联系人总数
 
     /**
      * 构造函数
+     *
+     * @param sortKey 姓名的排序键（见NameCollation），由树在插入时计算一次
      */
-    public BSTNode(String key, Contact contact) {
+    public BSTNode(String key, String sortKey, Contact contact) {
         this.key = key;
-        this.contacts = new LinkedList<>();
-        this.contacts.add(contact);
+        this.sortKey = sortKey;
+        this.contacts = new ContactBucket(contact);
         this.left = null;
         this.right = null;
         this.height = 1;
+        this.size = 1;
     }
 
     // Getter 和 Setter 方法
@@ -31,11 +37,23 @@ public class BSTNode {
         return key;
     }
 
-    public void setKey(String key) {
+    public void setKey(String key, String sortKey) {
         this.key = key;
+        this.sortKey = sortKey;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * 同名联系人的只读视图（按加入顺序，不复制）
+     */
+    public List<Contact> getContacts() {
+        return contacts.view();
     }
 
-    public LinkedList<Contact> getContacts() {
+    public ContactBucket getBucket() {
         return contacts;
     }
 
@@ -67,11 +85,19 @@ public class BSTNode {
         this.height = height;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
     /**
-     * 获取所有同名联系人
+     * 获取所有同名联系人的副本
      */
     public List<Contact> getAllContacts() {
-        return new LinkedList<>(contacts);
+        return new ArrayList<>(contacts.view());
     }
 
     /**
@@ -87,4 +113,19 @@ public class BSTNode {
     public boolean hasContacts() {
         return !contacts.isEmpty();
     }
+
+    /**
+     * 移除所有同名联系人
+     */
+    public void clearContacts() {
+        contacts.clear();
+    }
+
+    /**
+     * 接管另一个节点的同名联系人桶（删除有两个子节点的节点时使用），另一个节点随后为空
+     */
+    public void takeContactsFrom(BSTNode other) {
+        contacts = other.contacts;
+        other.contacts = new ContactBucket();
+    }
 }
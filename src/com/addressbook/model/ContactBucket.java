@@ -0,0 +1,342 @@
+package com.addressbook.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 同名联系人桶
+ * 联系人按加入顺序存放在数组中。人数不超过HASH_THRESHOLD时是紧凑数组，删除时前移后续元素；
+ * 超过后另建电话到数组下标的开放寻址散列表，按电话查找和删除都是O(1)：删除只把槽位置空，
+ * 空洞多于联系人时整体压紧并重建散列表，均摊仍为O(1)，且保持其余联系人的先后顺序。
+ * view()返回的只读视图直接读取数组，不复制；在读锁下可被多个线程同时读取
+ */
+public final class ContactBucket {
+    private static final int HASH_THRESHOLD = 8;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int NOT_FOUND = -1;
+
+    private Contact[] contacts;   // 按加入顺序存放，散列模式下删除会留下null空洞
+    private int end;              // 已使用的槽位数（含空洞）
+    private int size;             // 联系人数
+    private int[] table;          // 电话 -> 槽位下标+1，EMPTY为空位，DELETED为已删除；紧凑模式下为null
+    private int tableUsed;        // 散列表中非空位的数量（含已删除标记）
+    private final List<Contact> view = new View();
+
+    public ContactBucket() {
+        contacts = new Contact[1];
+    }
+
+    public ContactBucket(Contact first) {
+        contacts = new Contact[] {first};
+        end = 1;
+        size = 1;
+    }
+
+    /**
+     * 追加联系人（电话是否重复由调用方保证）
+     */
+    public void add(Contact contact) {
+        if (end == contacts.length) {
+            contacts = Arrays.copyOf(contacts, Math.max(4, end + (end >> 1)));
+        }
+        contacts[end++] = contact;
+        size++;
+        if (table != null) {
+            if ((tableUsed + 1) * 2 > table.length) {
+                rebuildTable();
+            } else {
+                indexPhone(end - 1);
+            }
+        } else if (size > HASH_THRESHOLD) {
+            rebuildTable();
+        }
+    }
+
+    /**
+     * 按引用移除联系人
+     *
+     * @return 联系人是否在桶中
+     */
+    public boolean remove(Contact contact) {
+        if (table == null) {
+            for (int i = 0; i < end; i++) {
+                if (contacts[i] == contact) {
+                    System.arraycopy(contacts, i + 1, contacts, i, end - i - 1);
+                    contacts[--end] = null;
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int slot = unindex(contact);
+        if (slot == NOT_FOUND) {
+            return false;
+        }
+        contacts[slot] = null;
+        size--;
+        if (end - size > size) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * 修改桶中联系人的电话，保持其在桶中的位置
+     * 散列表按电话登记，因此桶中联系人的电话只能通过此方法修改
+     *
+     * @return 联系人是否在桶中
+     */
+    public boolean changePhone(Contact contact, String phone) {
+        if (table == null) {
+            for (int i = 0; i < end; i++) {
+                if (contacts[i] == contact) {
+                    contact.setPhone(phone);
+                    return true;
+                }
+            }
+            return false;
+        }
+        int slot = unindex(contact);
+        if (slot == NOT_FOUND) {
+            return false;
+        }
+        contact.setPhone(phone);
+        if ((tableUsed + 1) * 2 > table.length) {
+            rebuildTable();
+        } else {
+            indexPhone(slot);
+        }
+        return true;
+    }
+
+    /**
+     * 按电话查找桶中的联系人，散列模式下为O(1)
+     *
+     * @return 联系人，不存在时返回null
+     */
+    public Contact findByPhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        if (table == null) {
+            for (int i = 0; i < end; i++) {
+                if (phone.equals(contacts[i].getPhone())) {
+                    return contacts[i];
+                }
+            }
+            return null;
+        }
+        int position = probe(phone);
+        return position >= 0 ? contacts[table[position] - 1] : null;
+    }
+
+    /**
+     * 清空桶
+     */
+    public void clear() {
+        contacts = new Contact[1];
+        end = 0;
+        size = 0;
+        table = null;
+        tableUsed = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 获取第index个联系人（按加入顺序）
+     * 没有空洞时直接按下标读取，否则跳过空洞顺序查找
+     */
+    public Contact get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引越界：" + index);
+        }
+        if (end == size) {
+            return contacts[index];
+        }
+        return contacts[slotOf(index)];
+    }
+
+    /**
+     * 从第from个联系人开始按加入顺序迭代
+     */
+    public Iterator<Contact> iterator(int from) {
+        if (from < 0 || from > size) {
+            throw new IndexOutOfBoundsException("索引越界：" + from);
+        }
+        int start = from == size ? end : (end == size ? from : slotOf(from));
+        return new Iterator<Contact>() {
+            private int slot = skipHoles(start);
+
+            @Override
+            public boolean hasNext() {
+                return slot < end;
+            }
+
+            @Override
+            public Contact next() {
+                if (slot >= end) {
+                    throw new NoSuchElementException();
+                }
+                Contact contact = contacts[slot];
+                slot = skipHoles(slot + 1);
+                return contact;
+            }
+        };
+    }
+
+    /**
+     * 只读视图，直接读取桶内数组；桶被修改后视图随之变化
+     */
+    public List<Contact> view() {
+        return view;
+    }
+
+    /**
+     * 第index个联系人所在的槽位
+     */
+    private int slotOf(int index) {
+        int slot = skipHoles(0);
+        for (int i = 0; i < index; i++) {
+            slot = skipHoles(slot + 1);
+        }
+        return slot;
+    }
+
+    private int skipHoles(int slot) {
+        while (slot < end && contacts[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * 去掉空洞并重建散列表，人数降到阈值以下时退回紧凑模式
+     */
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < end; i++) {
+            if (contacts[i] != null) {
+                contacts[live++] = contacts[i];
+            }
+        }
+        Arrays.fill(contacts, live, end, null);
+        end = live;
+        if (size > HASH_THRESHOLD) {
+            rebuildTable();
+        } else {
+            table = null;
+            tableUsed = 0;
+        }
+    }
+
+    /**
+     * 按当前人数重新分配散列表并登记全部有电话的联系人
+     */
+    private void rebuildTable() {
+        table = new int[Integer.highestOneBit(Math.max(size, HASH_THRESHOLD) * 4 - 1) << 1];
+        tableUsed = 0;
+        for (int i = 0; i < end; i++) {
+            if (contacts[i] != null) {
+                indexPhone(i);
+            }
+        }
+    }
+
+    /**
+     * 在散列模式下定位联系人的槽位，并把它从散列表中注销
+     *
+     * @return 槽位下标，联系人不在桶中时返回-1
+     */
+    private int unindex(Contact contact) {
+        if (contact.getPhone() == null) {
+            for (int i = 0; i < end; i++) {
+                if (contacts[i] == contact) {
+                    return i;
+                }
+            }
+            return NOT_FOUND;
+        }
+        int position = probe(contact.getPhone());
+        if (position < 0 || contacts[table[position] - 1] != contact) {
+            return NOT_FOUND;
+        }
+        int slot = table[position] - 1;
+        table[position] = DELETED;
+        return slot;
+    }
+
+    private void indexPhone(int slot) {
+        String phone = contacts[slot].getPhone();
+        if (phone == null) {
+            return;
+        }
+        int mask = table.length - 1;
+        int position = hash(phone) & mask;
+        while (table[position] != EMPTY) {
+            position = (position + 1) & mask;
+        }
+        table[position] = slot + 1;
+        tableUsed++;
+    }
+
+    /**
+     * 在散列表中查找电话
+     *
+     * @return 散列表中的位置，不存在时返回-1
+     */
+    private int probe(String phone) {
+        int mask = table.length - 1;
+        for (int position = hash(phone) & mask; table[position] != EMPTY; position = (position + 1) & mask) {
+            if (table[position] != DELETED && phone.equals(contacts[table[position] - 1].getPhone())) {
+                return position;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static int hash(String phone) {
+        int h = phone.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 桶的只读列表视图
+     */
+    private final class View extends AbstractList<Contact> {
+        @Override
+        public Contact get(int index) {
+            return ContactBucket.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Contact> iterator() {
+            return ContactBucket.this.iterator(0);
+        }
+
+        @Override
+        public Object[] toArray() {
+            if (end == size) {
+                return Arrays.copyOf(contacts, size, Object[].class);
+            }
+            return super.toArray();
+        }
+    }
+}
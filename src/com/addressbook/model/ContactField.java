@@ -0,0 +1,27 @@
+package com.addressbook.model;
+
+/**
+ * 联系人字段
+ */
+public enum ContactField {
+    NAME,     // 姓名
+    PHONE,    // 电话
+    EMAIL,    // 邮箱
+    ADDRESS;  // 地址
+
+    /**
+     * 读取联系人的该字段值（可能为null）
+     */
+    public String valueOf(Contact contact) {
+        switch (this) {
+            case NAME:
+                return contact.getName();
+            case PHONE:
+                return contact.getPhone();
+            case EMAIL:
+                return contact.getEmail();
+            default:
+                return contact.getAddress();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.addressbook.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 联系人查询条件（不可变）
+ * 由字段条件（相等、前缀、包含、邮箱域名）经AND、OR组合而成，matches给出条件的准确语义；
+ * 执行时由AVL树的查询规划选择最有选择性的索引取候选，再用matches过滤其余条件。
+ * 各字段的比较方式：
+ * 姓名的相等与前缀区分大小写（与按姓名查找一致）；电话的前缀与包含只比较数字（与拨号盘查找一致）；
+ * 包含查询一律不区分大小写（与子串查找一致）；邮箱和地址的前缀也不区分大小写；相等比较完全相同
+ */
+public final class ContactQuery {
+    /**
+     * 条件类型
+     */
+    public enum Kind {
+        EQUALS,       // 字段值相等
+        PREFIX,       // 字段值以value开头
+        CONTAINS,     // 字段值包含value
+        EMAIL_DOMAIN, // 邮箱属于域名value
+        AND,          // 全部子条件成立
+        OR            // 任一子条件成立
+    }
+
+    private final Kind kind;
+    private final ContactField field;
+    private final String value;
+    private final List<ContactQuery> children;
+
+    private ContactQuery(Kind kind, ContactField field, String value, List<ContactQuery> children) {
+        this.kind = kind;
+        this.field = field;
+        this.value = value;
+        this.children = children;
+    }
+
+    private static ContactQuery leaf(Kind kind, ContactField field, String value) {
+        if (field == null || value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("查询字段和内容不能为空");
+        }
+        return new ContactQuery(kind, field, value, Collections.emptyList());
+    }
+
+    /**
+     * 字段值与value完全相同
+     */
+    public static ContactQuery equalTo(ContactField field, String value) {
+        return leaf(Kind.EQUALS, field, value);
+    }
+
+    /**
+     * 字段值以value开头
+     */
+    public static ContactQuery prefix(ContactField field, String value) {
+        return leaf(Kind.PREFIX, field, value);
+    }
+
+    /**
+     * 字段值包含value（不区分大小写）
+     */
+    public static ContactQuery contains(ContactField field, String value) {
+        return leaf(Kind.CONTAINS, field, value);
+    }
+
+    /**
+     * 邮箱属于域名domain（不区分大小写，如"qq.com"或"@qq.com"）
+     */
+    public static ContactQuery emailDomain(String domain) {
+        if (domain == null || domain.trim().isEmpty()) {
+            throw new IllegalArgumentException("查询字段和内容不能为空");
+        }
+        String trimmed = domain.trim();
+        return leaf(Kind.EMAIL_DOMAIN, ContactField.EMAIL, trimmed.startsWith("@") ? trimmed : "@" + trimmed);
+    }
+
+    /**
+     * 全部条件成立
+     */
+    public static ContactQuery and(ContactQuery... queries) {
+        return group(Kind.AND, queries);
+    }
+
+    /**
+     * 任一条件成立
+     */
+    public static ContactQuery or(ContactQuery... queries) {
+        return group(Kind.OR, queries);
+    }
+
+    private static ContactQuery group(Kind kind, ContactQuery[] queries) {
+        if (queries == null || queries.length == 0) {
+            throw new IllegalArgumentException("组合条件至少需要一个子条件");
+        }
+        List<ContactQuery> children = new ArrayList<>(Arrays.asList(queries));
+        if (children.contains(null)) {
+            throw new IllegalArgumentException("子条件不能为null");
+        }
+        return new ContactQuery(kind, null, null, Collections.unmodifiableList(children));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 字段条件的字段，组合条件为null
+     */
+    public ContactField getField() {
+        return field;
+    }
+
+    /**
+     * 字段条件的内容（邮箱域名条件带前导'@'），组合条件为null
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 组合条件的子条件，字段条件为空列表
+     */
+    public List<ContactQuery> getChildren() {
+        return children;
+    }
+
+    /**
+     * 判断联系人是否满足条件
+     */
+    public boolean matches(Contact contact) {
+        switch (kind) {
+            case AND:
+                for (ContactQuery child : children) {
+                    if (!child.matches(contact)) {
+                        return false;
+                    }
+                }
+                return true;
+            case OR:
+                for (ContactQuery child : children) {
+                    if (child.matches(contact)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                String actual = field.valueOf(contact);
+                return actual != null && matchesValue(actual);
+        }
+    }
+
+    private boolean matchesValue(String actual) {
+        switch (kind) {
+            case EQUALS:
+                return actual.equals(value);
+            case PREFIX:
+                if (field == ContactField.NAME) {
+                    return actual.startsWith(value);
+                }
+                if (field == ContactField.PHONE) {
+                    return digitsOf(actual).startsWith(digitsOf(value));
+                }
+                return fold(actual).startsWith(fold(value));
+            case CONTAINS:
+                if (field == ContactField.PHONE) {
+                    return digitsOf(actual).contains(digitsOf(value));
+                }
+                return fold(actual).contains(fold(value));
+            default:
+                return fold(actual).endsWith(fold(value));
+        }
+    }
+
+    /**
+     * 逐字符转为小写，保持长度不变（与子串索引的处理一致）
+     */
+    private static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 提取电话中的数字
+     */
+    private static String digitsOf(String phone) {
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.AND || kind == Kind.OR) {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    text.append(kind == Kind.AND ? " AND " : " OR ");
+                }
+                text.append(children.get(i));
+            }
+            return text.append(')').toString();
+        }
+        return field + " " + kind + " \"" + value + "\"";
+    }
+}
@@ -1,21 +1,159 @@
 package com.addressbook.service;
 
+import com.addressbook.io.ContactExporter;
+import com.addressbook.io.ContactFormat;
+import com.addressbook.io.ContactImporter;
+import com.addressbook.io.ImportResult;
 import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import com.addressbook.storage.ContactStorage;
+import com.addressbook.storage.LogRecord;
+import com.addressbook.storage.SnapshotFile;
 import com.addressbook.tree.AVLTree;
+import com.addressbook.tree.ContactTree;
+import com.addressbook.tree.OffHeapAVLTree;
+import com.addressbook.tree.TraversalOrder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * 通讯录服务类
  * 提供通讯录管理的业务逻辑层
+ * 线程安全：查询操作持有读锁可并发执行，修改操作持有写锁串行执行，
+ * 可在Swing事件线程、后台导入线程和查询接口之间共享同一实例。
+ * 指定数据目录时启用持久化：每次修改写入预写日志，启动时从快照和日志恢复。
+ * 构造时选择存储方式（见StorageMode），两种方式提供相同的功能，数据目录可以在两者之间互换使用
  */
-public class AddressBookService {
-    private AVLTree tree; // AVL树数据结构
+public class AddressBookService implements AutoCloseable {
+    private final StorageMode storageMode;
+    private ContactTree tree; // AVL树数据结构
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ContactStorage storage; // 持久化存储，纯内存模式下为null
 
     /**
-     * 构造函数
+     * 构造函数（纯内存模式，堆内存储）
      */
     public AddressBookService() {
-        this.tree = new AVLTree();
+        this(StorageMode.ON_HEAP);
+    }
+
+    /**
+     * 构造函数（纯内存模式）
+     */
+    public AddressBookService(StorageMode storageMode) {
+        if (storageMode == null) {
+            throw new IllegalArgumentException("存储方式不能为空");
+        }
+        this.storageMode = storageMode;
+        this.tree = newTree();
+    }
+
+    /**
+     * 构造函数（持久化模式，堆内存储），从数据目录恢复已有数据
+     *
+     * @throws IOException 如果数据文件无法打开或已损坏
+     */
+    public AddressBookService(Path dataDirectory) throws IOException {
+        this(dataDirectory, StorageMode.ON_HEAP);
+    }
+
+    /**
+     * 构造函数（持久化模式），从数据目录恢复已有数据
+     *
+     * @throws IOException 如果数据文件无法打开或已损坏
+     */
+    public AddressBookService(Path dataDirectory, StorageMode storageMode) throws IOException {
+        this(storageMode);
+        this.storage = new ContactStorage(dataDirectory);
+        try {
+            storage.recover(tree);
+        } catch (IOException e) {
+            storage.close();
+            throw e;
+        }
+    }
+
+    private ContactTree newTree() {
+        return storageMode == StorageMode.OFF_HEAP ? new OffHeapAVLTree() : new AVLTree();
+    }
+
+    /**
+     * 获取构造时选择的存储方式
+     */
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * 在读锁保护下访问底层AVL树，供同包的查询会话使用
+     */
+    <T> T readTree(Function<ContactTree, T> query) {
+        return read(() -> query.apply(tree));
+    }
+
+    /**
+     * 在读锁保护下执行查询
+     */
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在写锁保护下执行修改
+     */
+    private <T> T write(Supplier<T> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 将已生效的修改写入日志，日志过大时开始后台压缩
+     * 需在写锁内调用，保证日志顺序与修改顺序一致。
+     * 压缩时写锁内只捕获快照镜像（树形与各字段的字符串引用，见SnapshotFile.Image），
+     * 把日志改名为contacts.wal.old并打开下一代号的新日志；快照由后台线程写入
+     *
+     * @throws IllegalStateException 如果写入失败（内存中的修改已生效）
+     */
+    private void persist(LogRecord record) {
+        if (storage == null) {
+            return;
+        }
+        try {
+            storage.append(record);
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new IllegalStateException("持久化失败：" + e.getMessage(), e);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (storage.needsCompaction()) {
+            storage.startCompaction(tree);
+        }
     }
 
     /**
@@ -24,11 +162,117 @@ public class AddressBookService {
      * @throws IllegalArgumentException 如果添加失败
      */
     public void addContact(String name, String phone, String email, String address) {
+        Contact contact = new Contact(name, phone, email, address);
+        write(() -> {
+            try {
+                tree.insert(contact);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+            persist(LogRecord.add(contact));
+            return null;
+        });
+    }
+
+    /**
+     * 批量导入联系人
+     * 一次排序后整体重建平衡树，适合大批量导入；出现重复时整批不导入
+     * 
+     * @throws IllegalArgumentException 如果存在空姓名或重复联系人
+     */
+    public void importAll(Collection<Contact> contacts) {
+        write(() -> {
+            tree.bulkLoad(contacts);
+            if (storage != null) {
+                try {
+                    storage.appendAll(contacts);
+                    compactIfNeeded();
+                } catch (IOException e) {
+                    throw new IllegalStateException("持久化失败：" + e.getMessage(), e);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 从CSV或vCard文件流式导入联系人（UTF-8编码）
+     *
+     * @return 导入结果，格式错误、缺少姓名或电话、重复的记录被跳过并计入拒绝数
+     * @throws IOException 如果文件无法读取
+     */
+    public ImportResult importFrom(Path file, ContactFormat format) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(in, format);
+        }
+    }
+
+    /**
+     * 从字符流流式导入联系人，不关闭in
+     * 解析和校验在后台线程进行，每批联系人在一次写锁内插入，批次之间查询仍可进行
+     *
+     * @return 导入结果
+     * @throws IOException 如果读取失败
+     */
+    public ImportResult importFrom(Reader in, ContactFormat format) throws IOException {
+        return ContactImporter.importFrom(in, format, this::insertBatch);
+    }
+
+    /**
+     * 逐个插入一批联系人并写入日志，返回被拒绝的原因
+     */
+    private List<String> insertBatch(List<Contact> batch) {
+        return write(() -> {
+            List<String> rejected = new ArrayList<>(0);
+            List<Contact> inserted = new ArrayList<>(batch.size());
+            for (Contact contact : batch) {
+                try {
+                    tree.insert(contact);
+                    inserted.add(contact);
+                } catch (IllegalArgumentException e) {
+                    rejected.add(e.getMessage());
+                }
+            }
+            if (storage != null) {
+                try {
+                    storage.appendAll(inserted);
+                    compactIfNeeded();
+                } catch (IOException e) {
+                    throw new IllegalStateException("持久化失败：" + e.getMessage(), e);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    /**
+     * 按姓名顺序把全部联系人导出为CSV或vCard文件（UTF-8编码）
+     *
+     * @return 导出的联系人数
+     * @throws IOException 如果写入失败
+     */
+    public long exportTo(Path file, ContactFormat format) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportTo(out, format);
+        }
+    }
+
+    /**
+     * 按姓名顺序把全部联系人写入字符流，不关闭out
+     * 沿中序遍历边走边写，不构建联系人列表；导出期间持有读锁，写操作需等待导出完成
+     *
+     * @return 导出的联系人数
+     * @throws IOException 如果写入失败
+     */
+    public long exportTo(Writer out, ContactFormat format) throws IOException {
+        Writer buffered = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        lock.readLock().lock();
         try {
-            Contact contact = new Contact(name, phone, email, address);
-            tree.insert(contact);
-        } catch (Exception e) {
-            throw new IllegalArgumentException(e.getMessage());
+            long count = ContactExporter.export(tree, buffered, format);
+            buffered.flush();
+            return count;
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -38,7 +282,13 @@ public class AddressBookService {
      * @return 是否删除成功
      */
     public boolean deleteContact(String name, String phone) {
-        return tree.delete(name, phone);
+        return write(() -> {
+            boolean deleted = tree.delete(name, phone);
+            if (deleted) {
+                persist(LogRecord.delete(name, phone));
+            }
+            return deleted;
+        });
     }
 
     /**
@@ -47,7 +297,13 @@ public class AddressBookService {
      * @return 是否删除成功
      */
     public boolean deleteAllByName(String name) {
-        return tree.delete(name, null);
+        return write(() -> {
+            boolean deleted = tree.delete(name, null);
+            if (deleted) {
+                persist(LogRecord.delete(name, null));
+            }
+            return deleted;
+        });
     }
 
     /**
@@ -56,7 +312,112 @@ public class AddressBookService {
      * @return 联系人列表
      */
     public List<Contact> findContact(String name) {
-        return tree.search(name);
+        return read(() -> tree.search(name));
+    }
+
+    /**
+     * 按电话精确查找联系人（来电显示），哈希索引O(1)
+     *
+     * @return 联系人，不存在时返回null
+     */
+    public Contact findByPhone(String phone) {
+        return read(() -> tree.searchByPhone(phone));
+    }
+
+    /**
+     * 按电话数字前缀查找联系人（拨号盘查询），按号码数字顺序返回至多limit个
+     *
+     * @return 联系人列表
+     */
+    public List<Contact> findByPhonePrefix(String digits, int limit) {
+        return read(() -> tree.searchByPhonePrefix(digits, limit));
+    }
+
+    /**
+     * 开始一次拨号盘增量查询，每输入一位数字只从上一位的位置继续匹配
+     */
+    public PhoneSearch startPhoneSearch() {
+        return new PhoneSearch(this);
+    }
+
+    /**
+     * 按姓名拼音前缀查找联系人，全拼和首字母均可匹配，按拼音顺序返回至多limit个
+     *
+     * @return 联系人列表
+     */
+    public List<Contact> findByPinyin(String prefix, int limit) {
+        return read(() -> tree.searchByPinyin(prefix, limit));
+    }
+
+    /**
+     * 模糊查找：姓名与name的编辑距离不超过maxEdits的联系人（容忍错字、漏字、多字），
+     * 按距离升序排列，距离相同时按姓名排序
+     *
+     * @return 联系人列表
+     */
+    public List<Contact> findFuzzy(String name, int maxEdits) {
+        return read(() -> tree.searchFuzzy(name, maxEdits));
+    }
+
+    /**
+     * 子串查找：字段值包含text（不区分大小写）的全部联系人，支持姓名、邮箱和地址
+     *
+     * @return 联系人列表，堆内存储按加入通讯录的先后顺序排列，堆外存储按姓名顺序排列
+     */
+    public List<Contact> searchContains(ContactField field, String text) {
+        return searchContains(field, text, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 子串查找，至多返回limit个联系人
+     *
+     * @return 联系人列表，堆内存储按加入通讯录的先后顺序排列，堆外存储按姓名顺序排列
+     */
+    public List<Contact> searchContains(ContactField field, String text, int limit) {
+        return read(() -> tree.searchContains(field, text, limit));
+    }
+
+    /**
+     * 按组合条件查询联系人（可组合姓名、电话、邮箱域名、地址上的相等、前缀、包含条件）
+     * 自动选用选择性最高的索引，其余条件在候选上过滤；堆外存储没有这些索引，按姓名顺序逐个过滤
+     *
+     * @return 联系人列表，按姓名顺序排列
+     */
+    public List<Contact> query(ContactQuery query) {
+        return query(query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按组合条件查询，至多返回limit个联系人
+     *
+     * @return 联系人列表，按姓名顺序排列
+     */
+    public List<Contact> query(ContactQuery query, int limit) {
+        return read(() -> tree.query(query, limit));
+    }
+
+    /**
+     * 统计满足条件的联系人数，不生成结果列表
+     */
+    public int count(ContactQuery query) {
+        return read(() -> tree.forEachMatch(query, contact -> { }));
+    }
+
+    /**
+     * 在读锁内按姓名顺序把满足条件的联系人逐个交给action（适合报表统计，不复制整个通讯录）
+     * action中不应修改通讯录
+     *
+     * @return 满足条件的联系人数
+     */
+    public int forEachMatch(ContactQuery query, Consumer<Contact> action) {
+        return read(() -> tree.forEachMatch(query, action));
+    }
+
+    /**
+     * 说明查询将如何执行（选用的索引及估计候选数）
+     */
+    public String explain(ContactQuery query) {
+        return read(() -> tree.explain(query));
     }
 
     /**
@@ -65,45 +426,143 @@ public class AddressBookService {
      * @return 联系人列表
      */
     public List<Contact> findByPrefix(String prefix) {
-        return tree.searchByPrefix(prefix);
+        return read(() -> tree.searchByPrefix(prefix));
     }
 
     /**
      * 更新联系人信息
      * 
      * @return 是否更新成功
+     * @throws IllegalArgumentException 如果新电话已被其他联系人使用
      */
     public boolean updateContact(String name, String phone, String newPhone, String newEmail, String newAddress) {
         Contact newContact = new Contact(name, newPhone, newEmail, newAddress);
-        return tree.update(name, phone, newContact);
+        return write(() -> {
+            boolean updated = tree.update(name, phone, newContact);
+            if (updated) {
+                persist(LogRecord.update(name, phone, newPhone, newEmail, newAddress));
+            }
+            return updated;
+        });
     }
 
     /**
      * 获取所有联系人（中序遍历）
      */
     public List<Contact> getAllContacts() {
-        return tree.getAllContacts();
+        return read(() -> tree.getAllContacts());
     }
 
     /**
      * 获取前序遍历联系人
      */
     public List<Contact> getPreorderContacts() {
-        return tree.getPreorderContacts();
+        return read(() -> tree.getPreorderContacts());
     }
 
     /**
      * 获取后序遍历联系人
      */
     public List<Contact> getPostorderContacts() {
-        return tree.getPostorderContacts();
+        return read(() -> tree.getPostorderContacts());
+    }
+
+    /**
+     * 获取层序遍历联系人
+     */
+    public List<Contact> getLevelOrderContacts() {
+        return read(() -> tree.getLevelOrderContacts());
+    }
+
+    /**
+     * 按指定遍历顺序获取联系人流
+     * 堆内存储的流是惰性的，在消费时才沿树推进，不受读写锁保护，存在并发写入时应改用返回列表的方法；
+     * 堆外存储在读锁内先复制为列表
+     */
+    public Stream<Contact> streamContacts(TraversalOrder order) {
+        return read(() -> tree.stream(order));
     }
 
     /**
      * 获取所有联系人数量
      */
     public int getContactCount() {
-        return tree.getAllContacts().size();
+        return read(() -> tree.size());
+    }
+
+    /**
+     * 按姓名顺序获取第index个联系人
+     */
+    public Contact getContactAt(int index) {
+        return read(() -> tree.select(index));
+    }
+
+    /**
+     * 获取姓名排在name之前的联系人数量
+     */
+    public int getRank(String name) {
+        return read(() -> tree.rank(name));
+    }
+
+    /**
+     * 分页获取联系人（按姓名顺序）
+     * 
+     * @return 从offset开始的至多limit个联系人
+     */
+    public List<Contact> getContactPage(int offset, int limit) {
+        return read(() -> tree.getPage(offset, limit));
+    }
+
+    /**
+     * 按指定遍历顺序分页获取联系人，前序、中序、后序为O(log n + limit)
+     *
+     * @return 遍历序列中从offset开始的至多limit个联系人
+     */
+    public List<Contact> getContactPage(TraversalOrder order, int offset, int limit) {
+        return read(() -> tree.getPage(order, offset, limit));
+    }
+
+    /**
+     * 把全部联系人保存为二进制快照文件
+     *
+     * @throws IOException 如果写入失败
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        lock.readLock().lock();
+        try {
+            SnapshotFile.write(file, 0, tree);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从二进制快照文件加载，替换当前全部联系人
+     * 持久化模式下随即压缩为数据目录中的新快照，保证重启后仍是加载后的内容
+     *
+     * @throws IOException 如果文件损坏或写入数据目录失败
+     */
+    public void loadSnapshot(Path file) throws IOException {
+        ContactTree loaded = newTree();
+        SnapshotFile.load(file, loaded);
+        lock.writeLock().lock();
+        try {
+            tree = loaded;
+            if (storage != null) {
+                storage.compact(tree);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 校验底层AVL树的结构不变量
+     * 
+     * @return 有序性、高度、平衡因子、子树计数与电话索引是否全部正确
+     */
+    public boolean checkIntegrity() {
+        return read(tree::isValid);
     }
 
     /**
@@ -112,7 +571,7 @@ public class AddressBookService {
      * @deprecated Use findContact instead
      */
     public List<Contact> searchByName(String name) {
-        return tree.search(name);
+        return read(() -> tree.search(name));
     }
 
     /**
@@ -121,6 +580,22 @@ public class AddressBookService {
      * @deprecated Use findByPrefix instead
      */
     public List<Contact> searchByPrefix(String prefix) {
-        return tree.searchByPrefix(prefix);
+        return read(() -> tree.searchByPrefix(prefix));
+    }
+
+    /**
+     * 关闭持久化存储，同步尚未落盘的日志（纯内存模式下无操作）
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (storage != null) {
+                storage.close();
+                storage = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 }
@@ -0,0 +1,117 @@
+package com.addressbook.service;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import com.addressbook.tree.ContactScan;
+import com.addressbook.tree.ContactTree;
+import com.addressbook.tree.PhoneTrie;
+import java.util.List;
+
+/**
+ * 拨号盘增量查询会话
+ * 包装电话前缀树的游标，每次操作都在服务的读锁内进行；
+ * 通讯录被整体替换（如加载快照）后自动在新数据上重新定位已输入的数字。
+ * 堆外存储没有电话前缀树，此时只记录已输入的数字，查询时遍历全部联系人。
+ * 一个会话对应一个输入框，不应在多个线程间共享
+ */
+public final class PhoneSearch {
+    private final AddressBookService service;
+    private final StringBuilder typed = new StringBuilder(); // 已输入的数字
+    private ContactTree boundTree;
+    private PhoneTrie.Cursor cursor; // 绑定到boundTree的游标，树没有电话前缀树时为null
+
+    PhoneSearch(AddressBookService service) {
+        this.service = service;
+    }
+
+    /**
+     * 获取绑定到当前树的游标，树没有电话前缀树时返回null
+     */
+    private PhoneTrie.Cursor cursor(ContactTree tree) {
+        if (tree != boundTree) {
+            cursor = tree instanceof AVLTree ? ((AVLTree) tree).phoneCursor().type(typed) : null;
+            boundTree = tree;
+        }
+        return cursor;
+    }
+
+    /**
+     * 追加输入的数字（非数字字符被忽略）
+     */
+    public PhoneSearch type(CharSequence digits) {
+        service.readTree(tree -> {
+            PhoneTrie.Cursor current = cursor(tree);
+            for (int i = 0; i < digits.length(); i++) {
+                char c = digits.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    typed.append(c);
+                    if (current != null) {
+                        current.type(c);
+                    }
+                }
+            }
+            return null;
+        });
+        return this;
+    }
+
+    /**
+     * 删除最后一位数字
+     */
+    public PhoneSearch backspace() {
+        service.readTree(tree -> {
+            PhoneTrie.Cursor current = cursor(tree);
+            if (typed.length() > 0) {
+                typed.setLength(typed.length() - 1);
+                if (current != null) {
+                    current.backspace();
+                }
+            }
+            return null;
+        });
+        return this;
+    }
+
+    /**
+     * 清空已输入的数字
+     */
+    public PhoneSearch clear() {
+        service.readTree(tree -> {
+            PhoneTrie.Cursor current = cursor(tree);
+            typed.setLength(0);
+            if (current != null) {
+                current.clear();
+            }
+            return null;
+        });
+        return this;
+    }
+
+    /**
+     * 获取已输入的数字
+     */
+    public String getPrefix() {
+        return typed.toString();
+    }
+
+    /**
+     * 获取匹配当前前缀的联系人数
+     */
+    public int count() {
+        return service.readTree(tree -> {
+            PhoneTrie.Cursor current = cursor(tree);
+            return current != null ? current.count() : ContactScan.countByPhonePrefix(tree, typed.toString());
+        });
+    }
+
+    /**
+     * 按号码数字顺序获取至多limit个匹配的联系人
+     */
+    public List<Contact> results(int limit) {
+        return service.readTree(tree -> {
+            PhoneTrie.Cursor current = cursor(tree);
+            return current != null ? current.results(limit)
+                    : ContactScan.byPhonePrefix(tree, typed.toString(), limit);
+        });
+    }
+}
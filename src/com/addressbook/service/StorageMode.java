@@ -0,0 +1,18 @@
+package com.addressbook.service;
+
+/**
+ * 通讯录在内存中的存储方式
+ */
+public enum StorageMode {
+    /**
+     * 堆内存储（AVLTree）：联系人是普通Java对象，维护电话前缀、拼音、子串等全部二级索引
+     */
+    ON_HEAP,
+
+    /**
+     * 堆外存储（OffHeapAVLTree）：联系人字段以UTF-8记录存放在直接内存中，堆上对象数与联系人数无关，
+     * 适合数百万联系人以上、对GC停顿敏感的场景；只维护电话索引，
+     * 拼音、模糊、电话前缀、子串和组合条件查询改为按姓名顺序遍历（O(n)），功能与堆内存储相同
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,240 @@
+package com.addressbook.storage;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.ContactTree;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 通讯录持久化存储类
+ * 在数据目录中维护一个快照文件和一个预写日志：每次修改追加到日志，启动时先加载快照再重放日志，
+ * 日志超过阈值时把当前全部联系人压缩为新快照并清空日志。
+ * 快照与日志都带有代号，只有代号一致的日志才会在快照之上重放，
+ * 因此即使在写完快照、清空日志之前崩溃，也不会重复重放已包含在快照中的记录。
+ * 压缩在后台进行：调用方只需在写锁内捕获树的当前内容（见SnapshotFile.Image）并把日志切换为下一代号的新文件，
+ * 旧日志改名保留，后台线程写完快照后才删除它；期间崩溃时按“快照 + 旧日志 + 新日志”恢复
+ */
+public class ContactStorage implements Closeable {
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+    public static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    private static final String SNAPSHOT_FILE = "contacts.snapshot";
+    private static final int BULK_REPLAY_MIN = 64;
+    private static final String LOG_FILE = "contacts.wal";
+    private static final String OLD_LOG_FILE = "contacts.wal.old";
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final Path oldLogFile;      // 后台压缩期间保留的上一代日志
+    private final long syncIntervalMillis;
+    private final long compactThresholdBytes;
+    private final ExecutorService snapshotWriter;
+    private WriteAheadLog log;
+    private Future<?> compaction;       // 进行中的后台压缩，没有时为null
+
+    /**
+     * 使用默认同步间隔和压缩阈值打开数据目录
+     */
+    public ContactStorage(Path directory) throws IOException {
+        this(directory, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_COMPACT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * 打开数据目录，目录不存在时创建
+     *
+     * @param syncIntervalMillis    日志批量fsync的间隔
+     * @param compactThresholdBytes 日志超过该字节数时压缩为快照
+     */
+    public ContactStorage(Path directory, long syncIntervalMillis, long compactThresholdBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.oldLogFile = directory.resolve(OLD_LOG_FILE);
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.log = new WriteAheadLog(logFile, syncIntervalMillis);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 从快照和日志恢复数据到空树中
+     *
+     * @throws IOException 如果文件损坏或日志记录无法重放
+     */
+    public void recover(ContactTree tree) throws IOException {
+        long generation = Files.exists(snapshotFile) ? SnapshotFile.load(snapshotFile, tree) : 0;
+        boolean oldLogReplayed = false;
+        if (Files.exists(oldLogFile)) {
+            // 上次后台压缩已切换到新日志但没有写完快照：旧日志中的修改不在快照里，需先于新日志重放
+            try (WriteAheadLog oldLog = new WriteAheadLog(oldLogFile, syncIntervalMillis)) {
+                if (oldLog.getGeneration() > generation) {
+                    throw new IOException("旧日志代号 " + oldLog.getGeneration() + " 与快照代号 " + generation + " 不匹配");
+                }
+                if (oldLog.getGeneration() == generation) {
+                    replay(oldLog, tree);
+                    generation++;
+                    oldLogReplayed = true;
+                }
+            }
+        }
+        if (log.getGeneration() < generation) {
+            // 上次压缩已写好快照但未来得及清空日志，日志内容已全部包含在快照中
+            log.reset(generation);
+        } else if (log.getGeneration() > generation) {
+            throw new IOException("日志代号 " + log.getGeneration() + " 与快照代号 " + generation + " 不匹配");
+        } else {
+            replay(log, tree);
+        }
+        if (oldLogReplayed) {
+            // 补完中断的压缩，之后的压缩才能再次切换日志
+            compactNow(tree);
+        } else {
+            Files.deleteIfExists(oldLogFile);
+        }
+    }
+
+    private static void replay(WriteAheadLog log, ContactTree tree) throws IOException {
+        try {
+            List<Contact> pendingAdds = new ArrayList<>();
+            log.replay(record -> {
+                if (record.getType() == LogRecord.Type.ADD) {
+                    pendingAdds.add(record.toContact());
+                } else {
+                    flushAdds(tree, pendingAdds);
+                    record.applyTo(tree);
+                }
+            });
+            flushAdds(tree, pendingAdds);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("日志记录无法重放：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 应用连续的添加记录：数量相对树规模较大时整体批量导入，否则逐个插入，
+     * 避免大批量导入逐条重放过慢，也避免零散添加每次都重建整棵树
+     */
+    private static void flushAdds(ContactTree tree, List<Contact> pendingAdds) {
+        if (pendingAdds.size() > BULK_REPLAY_MIN && pendingAdds.size() * 8 >= tree.size()) {
+            tree.bulkLoad(pendingAdds);
+        } else {
+            for (Contact contact : pendingAdds) {
+                tree.insert(contact);
+            }
+        }
+        pendingAdds.clear();
+    }
+
+    /**
+     * 追加一条修改记录
+     */
+    public void append(LogRecord record) throws IOException {
+        log.append(record);
+    }
+
+    /**
+     * 追加批量导入的联系人
+     */
+    public void appendAll(Iterable<Contact> contacts) throws IOException {
+        for (Contact contact : contacts) {
+            log.append(LogRecord.add(contact));
+        }
+    }
+
+    /**
+     * 日志是否已超过压缩阈值（上一次后台压缩尚未完成时不再触发）
+     */
+    public boolean needsCompaction() throws IOException {
+        return (compaction == null || compaction.isDone()) && log.size() > compactThresholdBytes;
+    }
+
+    /**
+     * 开始后台压缩：捕获树的当前内容，把日志切换为下一代号的新文件后立即返回，
+     * 快照在后台线程中写入并fsync，写完后删除旧日志。
+     * 调用方需保证期间没有并发修改；耗时为一次遍历树，不含字符串编码和磁盘写入
+     */
+    public void startCompaction(ContactTree tree) throws IOException {
+        awaitCompaction();
+        if (Files.exists(oldLogFile)) {
+            // 上一次后台压缩失败，旧日志仍在，改为同步压缩当前全部内容
+            compactNow(tree);
+            return;
+        }
+        SnapshotFile.Image image = SnapshotFile.capture(tree);
+        long nextGeneration = log.getGeneration() + 1;
+        log.close();
+        try {
+            Files.move(logFile, oldLogFile, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            log = new WriteAheadLog(logFile, syncIntervalMillis);
+        }
+        log.reset(nextGeneration);
+        compaction = snapshotWriter.submit(() -> {
+            SnapshotFile.write(snapshotFile, nextGeneration, image);
+            Files.delete(oldLogFile);
+            return null;
+        });
+    }
+
+    /**
+     * 把树的当前内容写为新快照并清空日志，返回时快照已落盘
+     * 调用方需保证期间没有并发修改
+     */
+    public void compact(ContactTree tree) throws IOException {
+        awaitCompaction();
+        compactNow(tree);
+    }
+
+    private void compactNow(ContactTree tree) throws IOException {
+        long nextGeneration = log.getGeneration() + 1;
+        SnapshotFile.write(snapshotFile, nextGeneration, tree);
+        log.reset(nextGeneration);
+        Files.deleteIfExists(oldLogFile);
+    }
+
+    /**
+     * 等待进行中的后台压缩结束
+     * 后台压缩失败时旧日志仍保留在磁盘上，数据可以完整恢复，下一次压缩会改为同步进行
+     */
+    private void awaitCompaction() throws IOException {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待快照写入时被中断");
+        } catch (ExecutionException e) {
+            // 旧日志仍在，由调用方检查并改为同步压缩
+        }
+        compaction = null;
+    }
+
+    /**
+     * 等待后台压缩结束，同步剩余日志并关闭
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitCompaction();
+        } finally {
+            snapshotWriter.shutdown();
+            log.close();
+        }
+    }
+}
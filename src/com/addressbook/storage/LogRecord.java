@@ -0,0 +1,141 @@
+package com.addressbook.storage;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.ContactTree;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 日志记录类
+ * 表示一次对通讯录的修改（添加、删除、更新），可编码为字节写入日志并在恢复时重放到AVL树上
+ */
+public final class LogRecord {
+    /**
+     * 记录类型，字段依次为：
+     * ADD: 姓名、电话、邮箱、地址；DELETE: 姓名、电话（为null表示删除所有同名）；
+     * UPDATE: 姓名、原电话、新电话、新邮箱、新地址
+     */
+    public enum Type {
+        ADD(4), DELETE(2), UPDATE(5);
+
+        private final int fieldCount;
+
+        Type(int fieldCount) {
+            this.fieldCount = fieldCount;
+        }
+    }
+
+    private final Type type;
+    private final String[] fields;
+
+    private LogRecord(Type type, String... fields) {
+        this.type = type;
+        this.fields = fields;
+    }
+
+    /**
+     * 添加联系人记录
+     */
+    public static LogRecord add(Contact contact) {
+        return new LogRecord(Type.ADD, contact.getName(), contact.getPhone(), contact.getEmail(), contact.getAddress());
+    }
+
+    /**
+     * 删除联系人记录，phone为null表示删除所有同名联系人
+     */
+    public static LogRecord delete(String name, String phone) {
+        return new LogRecord(Type.DELETE, name, phone);
+    }
+
+    /**
+     * 更新联系人记录
+     */
+    public static LogRecord update(String name, String phone, String newPhone, String newEmail, String newAddress) {
+        return new LogRecord(Type.UPDATE, name, phone, newPhone, newEmail, newAddress);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * 添加记录中的联系人
+     */
+    public Contact toContact() {
+        return new Contact(fields[0], fields[1], fields[2], fields[3]);
+    }
+
+    /**
+     * 将该修改重放到树上
+     *
+     * @throws IllegalArgumentException 如果修改无法应用（如重复添加）
+     */
+    public void applyTo(ContactTree tree) {
+        switch (type) {
+            case ADD:
+                tree.insert(toContact());
+                break;
+            case DELETE:
+                tree.delete(fields[0], fields[1]);
+                break;
+            default:
+                tree.update(fields[0], fields[1], new Contact(fields[0], fields[2], fields[3], fields[4]));
+                break;
+        }
+    }
+
+    /**
+     * 编码为字节：类型序号后依次写入各字段，字段为长度前缀的UTF-8字节，长度-1表示null
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            for (String field : fields) {
+                if (field == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] data = field.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(data.length);
+                    out.write(data);
+                }
+            }
+        } catch (IOException e) {
+            // 内存流不会产生IO异常
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从字节解码
+     *
+     * @throws IOException 如果数据格式不正确
+     */
+    public static LogRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new IOException("未知的日志记录类型：" + ordinal);
+        }
+        Type type = Type.values()[ordinal];
+        String[] fields = new String[type.fieldCount];
+        for (int i = 0; i < fields.length; i++) {
+            int length = in.readInt();
+            if (length > in.available()) {
+                throw new IOException("日志记录字段长度越界：" + length);
+            }
+            if (length >= 0) {
+                byte[] data = new byte[length];
+                in.readFully(data);
+                fields[i] = new String(data, StandardCharsets.UTF_8);
+            }
+        }
+        return new LogRecord(type, fields);
+    }
+}
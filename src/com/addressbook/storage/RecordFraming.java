@@ -0,0 +1,57 @@
+package com.addressbook.storage;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * 记录分帧工具
+ * 每帧格式为：负载长度(int) + 负载CRC32(int) + 负载，用于识别写到一半的尾部记录
+ */
+final class RecordFraming {
+    static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    private RecordFraming() {
+    }
+
+    /**
+     * 将负载封装为一帧
+     */
+    static ByteBuffer frame(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 读取下一帧的负载
+     *
+     * @return 负载；到达文件末尾或遇到不完整、校验失败的帧时返回null
+     */
+    static byte[] readPayload(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int crc = in.readInt();
+            if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return checksum(payload) == crc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
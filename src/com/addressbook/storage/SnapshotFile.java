@@ -0,0 +1,432 @@
+package com.addressbook.storage;
+
+import com.addressbook.model.BSTNode;
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import com.addressbook.tree.ContactTree;
+import com.addressbook.tree.NameCollation;
+import com.addressbook.tree.TraversalOrder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 快照文件读写工具
+ * 当前格式（版本3）为紧凑的二进制布局：
+ * <pre>
+ * 文件头：魔数 | 版本 | 代号(long) | 节点数 | 联系人数
+ * 字符串表 ×4（姓名、电话、邮箱、地址）：条目数 | 各条目结束偏移(int[]) | UTF-8字节
+ * 节点区（前序）：姓名下标 | 子节点标志(byte) | 联系人数 | 每个联系人的电话、邮箱、地址下标
+ * 文件尾：之前全部内容的CRC32
+ * </pre>
+ * 字符串去重存放，下标-1表示null。节点按前序存放并带有子节点标志，加载时可原样重建树形，
+ * 不需要排序、比较或旋转。AVLTree按原树形保存；其他ContactTree实现沿中序把同名联系人分组，
+ * 按完全平衡的形状写出，加载时按姓名顺序批量导入，两种快照可以互相读取。加载通过内存映射完成，主要开销是缺页而不是解析。
+ * 仍可读取版本1（逐条存放分帧添加记录）的旧快照；版本2与版本3布局相同，但节点按姓名的码位顺序排列，
+ * 与现在的拼音顺序（见NameCollation）不符，读取后按新的顺序重新批量导入。
+ * 写入时先写临时文件并fsync，再原子重命名替换旧快照，保证任一时刻磁盘上都有完整快照
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x4142534E; // "ABSN"
+    private static final int LEGACY_VERSION = 1;
+    private static final int CODE_POINT_ORDER_VERSION = 2;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_BYTES = 24;
+    private static final int TRAILER_BYTES = 4;
+    private static final int FIELD_COUNT = 4;      // 姓名、电话、邮箱、地址
+    private static final byte HAS_LEFT = 1;
+    private static final byte HAS_RIGHT = 2;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * 字符串表：写入时为每个不同的字符串分配下标
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes;
+        private final List<byte[]> entries = new ArrayList<>();
+
+        StringTable(int expectedSize) {
+            indexes = new HashMap<>(Math.max(16, expectedSize / 3 * 4));
+        }
+
+        int indexOf(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.putIfAbsent(value, entries.size());
+            if (index == null) {
+                entries.add(value.getBytes(StandardCharsets.UTF_8));
+                return entries.size() - 1;
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(entries.size());
+            int end = 0;
+            for (byte[] entry : entries) {
+                end += entry.length;
+                out.writeInt(end);
+            }
+            for (byte[] entry : entries) {
+                out.write(entry);
+            }
+        }
+    }
+
+    /**
+     * 树在某一时刻的结构和全部字段：按前序记录姓名、子节点标志、联系人数和各联系人的电话、邮箱、地址
+     * 只保存字符串引用（字符串不可变），不引用节点和联系人对象，之后树被修改也不受影响，
+     * 因此可以在写锁内用一次遍历快速捕获，再在后台线程中写出
+     */
+    public static final class Image {
+        private final String[] keys;
+        private final byte[] children;
+        private final int[] groupSizes;
+        private final String[] fields;  // 每个联系人依次为电话、邮箱、地址
+        private int nodes;
+        private int contacts;
+
+        private Image(int nodeCount, int contactCount) {
+            keys = new String[nodeCount];
+            children = new byte[nodeCount];
+            groupSizes = new int[nodeCount];
+            fields = new String[contactCount * 3];
+        }
+
+        private void add(BSTNode node) {
+            keys[nodes] = node.getKey();
+            children[nodes] = (byte) ((node.getLeft() != null ? HAS_LEFT : 0)
+                    | (node.getRight() != null ? HAS_RIGHT : 0));
+            groupSizes[nodes] = node.getContacts().size();
+            for (Contact c : node.getContacts()) {
+                fields[contacts * 3] = c.getPhone();
+                fields[contacts * 3 + 1] = c.getEmail();
+                fields[contacts * 3 + 2] = c.getAddress();
+                contacts++;
+            }
+            nodes++;
+        }
+
+        /**
+         * 按前序加入由第lo到hi-1组同名联系人构成的完全平衡子树，以中间一组为根
+         * names和inorderFields按中序存放每个联系人的姓名和电话、邮箱、地址，groupStarts[g]为第g组的首个联系人
+         */
+        private void addBalanced(String[] names, String[] inorderFields, int[] groupStarts, int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            int start = groupStarts[mid];
+            int end = groupStarts[mid + 1];
+            keys[nodes] = names[start];
+            children[nodes] = (byte) ((lo < mid ? HAS_LEFT : 0) | (mid + 1 < hi ? HAS_RIGHT : 0));
+            groupSizes[nodes] = end - start;
+            System.arraycopy(inorderFields, start * 3, fields, contacts * 3, (end - start) * 3);
+            contacts += end - start;
+            nodes++;
+            if (lo < mid) {
+                addBalanced(names, inorderFields, groupStarts, lo, mid);
+            }
+            if (mid + 1 < hi) {
+                addBalanced(names, inorderFields, groupStarts, mid + 1, hi);
+            }
+        }
+    }
+
+    /**
+     * 捕获树的当前结构和全部字段，耗时为一次遍历，不复制联系人
+     * AVLTree按节点记录原树形；其他实现沿中序迭代，同名联系人归为一组，按完全平衡的形状记录
+     * 捕获期间树不能被修改
+     */
+    public static Image capture(ContactTree tree) {
+        if (tree instanceof AVLTree) {
+            AVLTree avl = (AVLTree) tree;
+            int[] nodeCount = {0};
+            avl.traverseNodes(TraversalOrder.PREORDER, node -> nodeCount[0]++);
+            Image image = new Image(nodeCount[0], avl.size());
+            avl.traverseNodes(TraversalOrder.PREORDER, image::add);
+            return image;
+        }
+        int size = tree.size();
+        String[] names = new String[size];
+        String[] fields = new String[size * 3];
+        int[] groupStarts = new int[size + 1];
+        int groups = 0;
+        int i = 0;
+        for (Contact c : tree) {
+            if (i == 0 || !c.getName().equals(names[i - 1])) {
+                groupStarts[groups++] = i;
+            }
+            names[i] = c.getName();
+            fields[i * 3] = c.getPhone();
+            fields[i * 3 + 1] = c.getEmail();
+            fields[i * 3 + 2] = c.getAddress();
+            i++;
+        }
+        groupStarts[groups] = size;
+        Image image = new Image(groups, size);
+        if (groups > 0) {
+            image.addBalanced(names, fields, groupStarts, 0, groups);
+        }
+        return image;
+    }
+
+    /**
+     * 将树的当前结构和全部联系人写为快照
+     * 写入期间树不能被修改
+     *
+     * @param generation 快照之后需要重放的日志代号
+     */
+    public static void write(Path file, long generation, ContactTree tree) throws IOException {
+        write(file, generation, capture(tree));
+    }
+
+    /**
+     * 将捕获的树写为快照，不访问树本身，可在树继续被修改时于后台线程中执行
+     *
+     * @param generation 快照之后需要重放的日志代号
+     */
+    public static void write(Path file, long generation, Image image) throws IOException {
+        // 第一遍：建立字符串表并记下每个字段的下标，第二遍不必再查表
+        StringTable names = new StringTable(image.nodes);
+        StringTable[] fieldTables = {new StringTable(image.contacts), new StringTable(image.contacts),
+                new StringTable(image.contacts)};
+        int[] nameIndexes = new int[image.nodes];
+        int[] fieldIndexes = new int[image.fields.length];
+        for (int i = 0; i < image.nodes; i++) {
+            nameIndexes[i] = names.indexOf(image.keys[i]);
+        }
+        for (int i = 0; i < fieldIndexes.length; i++) {
+            fieldIndexes[i] = fieldTables[i % 3].indexOf(image.fields[i]);
+        }
+
+        // 第二遍：写出文件头、字符串表和节点区
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            // 校验流放在缓冲之下，按块而不是按字节更新CRC
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(generation);
+            out.writeInt(image.nodes);
+            out.writeInt(image.contacts);
+            names.writeTo(out);
+            for (StringTable table : fieldTables) {
+                table.writeTo(out);
+            }
+            int next = 0;
+            for (int i = 0; i < image.nodes; i++) {
+                int contactCount = image.groupSizes[i];
+                out.writeInt(nameIndexes[i]);
+                out.writeByte(image.children[i]);
+                out.writeInt(contactCount);
+                for (int j = 0; j < contactCount * 3; j++) {
+                    out.writeInt(fieldIndexes[next++]);
+                }
+            }
+            out.flush();
+            new DataOutputStream(Channels.newOutputStream(channel)).writeInt((int) crc.getValue());
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照并替换树的全部内容
+     * AVLTree直接换上重建的树形；其他实现没有整体替换的接口，需传入空树，联系人按姓名顺序批量导入
+     *
+     * @return 快照记录的日志代号
+     * @throws IOException 如果快照不完整或格式不正确
+     * @throws IllegalArgumentException 如果tree不是AVLTree且不为空
+     */
+    public static long load(Path file, ContactTree tree) throws IOException {
+        if (!(tree instanceof AVLTree) && !tree.isEmpty()) {
+            throw new IllegalArgumentException("快照只能加载到空树中");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException("快照文件已损坏");
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("快照文件超过2GB，无法映射");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是有效的快照文件");
+            }
+            int version = buffer.getInt(4);
+            if (version == LEGACY_VERSION) {
+                return loadLegacy(file, tree);
+            }
+            if (version != FORMAT_VERSION && version != CODE_POINT_ORDER_VERSION) {
+                throw new IOException("不支持的快照版本：" + version);
+            }
+            verifyChecksum(buffer);
+            try {
+                return loadMapped(buffer, tree, version == CODE_POINT_ORDER_VERSION);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("快照文件已损坏", e);
+            }
+        }
+    }
+
+    private static void verifyChecksum(MappedByteBuffer buffer) throws IOException {
+        int bodyLength = buffer.limit() - TRAILER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(bodyLength));
+        if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+            throw new IOException("快照文件校验失败");
+        }
+    }
+
+    /**
+     * @param reorder 节点是否按旧的码位顺序存放，是则取出全部联系人后重新批量导入
+     */
+    private static long loadMapped(ByteBuffer buffer, ContactTree tree, boolean reorder) {
+        buffer.position(8);
+        long generation = buffer.getLong();
+        int nodeCount = buffer.getInt();
+        buffer.getInt(); // 联系人数，恢复后由子树计数得出
+        String[][] tables = new String[FIELD_COUNT][];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            tables[i] = readStringTable(buffer);
+        }
+        int[] remaining = {nodeCount};
+        BSTNode root = nodeCount == 0 ? null : readSubtree(buffer, tables, remaining);
+        if (!(tree instanceof AVLTree)) {
+            List<Contact> contacts = new ArrayList<>();
+            collectInorder(root, contacts);
+            tree.bulkLoad(contacts);
+        } else if (reorder) {
+            List<Contact> contacts = new ArrayList<>();
+            collectInorder(root, contacts);
+            ((AVLTree) tree).restore(null);
+            tree.bulkLoad(contacts);
+        } else {
+            ((AVLTree) tree).restore(root);
+        }
+        return generation;
+    }
+
+    private static void collectInorder(BSTNode node, List<Contact> contacts) {
+        if (node != null) {
+            collectInorder(node.getLeft(), contacts);
+            contacts.addAll(node.getContacts());
+            collectInorder(node.getRight(), contacts);
+        }
+    }
+
+    /**
+     * 读取字符串表：先读全部结束偏移，再按偏移从UTF-8字节区解码
+     */
+    private static String[] readStringTable(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        int[] ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            ends[i] = buffer.getInt();
+        }
+        int base = buffer.position();
+        String[] strings = new String[count];
+        byte[] scratch = new byte[256];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int length = ends[i] - start;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(base + start, scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            start = ends[i];
+        }
+        buffer.position(base + start);
+        return strings;
+    }
+
+    /**
+     * 按前序读取一棵子树并原样重建，同时计算高度和子树计数
+     * 递归深度等于树高
+     */
+    private static BSTNode readSubtree(ByteBuffer buffer, String[][] tables, int[] remaining) {
+        if (remaining[0]-- <= 0) {
+            throw new IllegalArgumentException("节点数与节点区不一致");
+        }
+        String name = tables[0][buffer.getInt()];
+        byte flags = buffer.get();
+        int contactCount = buffer.getInt();
+        BSTNode node = null;
+        for (int i = 0; i < contactCount; i++) {
+            Contact contact = new Contact(name, lookup(tables[1], buffer.getInt()),
+                    lookup(tables[2], buffer.getInt()), lookup(tables[3], buffer.getInt()));
+            if (node == null) {
+                node = new BSTNode(name, NameCollation.sortKey(name), contact);
+            } else {
+                node.addContact(contact);
+            }
+        }
+        if (node == null) {
+            throw new IllegalArgumentException("节点没有联系人");
+        }
+        if ((flags & HAS_LEFT) != 0) {
+            node.setLeft(readSubtree(buffer, tables, remaining));
+        }
+        if ((flags & HAS_RIGHT) != 0) {
+            node.setRight(readSubtree(buffer, tables, remaining));
+        }
+        BSTNode left = node.getLeft();
+        BSTNode right = node.getRight();
+        node.setHeight(Math.max(left == null ? 0 : left.getHeight(), right == null ? 0 : right.getHeight()) + 1);
+        node.setSize((left == null ? 0 : left.getSize()) + (right == null ? 0 : right.getSize()) + contactCount);
+        return node;
+    }
+
+    private static String lookup(String[] table, int index) {
+        return index < 0 ? null : table[index];
+    }
+
+    /**
+     * 读取版本1快照：逐条解码分帧的添加记录后批量导入
+     */
+    private static long loadLegacy(Path file, ContactTree tree) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            in.readInt();
+            in.readInt();
+            long generation = in.readLong();
+            int count = in.readInt();
+            List<Contact> contacts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] payload = RecordFraming.readPayload(in);
+                if (payload == null) {
+                    throw new IOException("快照文件已损坏");
+                }
+                contacts.add(LogRecord.decode(payload).toContact());
+            }
+            if (tree instanceof AVLTree) {
+                ((AVLTree) tree).restore(null);
+            }
+            tree.bulkLoad(contacts);
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.addressbook.storage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 预写日志类
+ * 文件头为魔数和代号(generation)，其后是逐条追加的分帧记录。
+ * 每条记录追加时立即写入操作系统（进程崩溃不丢失），fsync则由后台线程按固定间隔批量执行（组提交），
+ * 因此单次修改不必等待磁盘同步，断电时最多丢失最近一个同步间隔内的修改
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int MAGIC = 0x4142574C; // "ABWL"
+    private static final int FILE_HEADER_BYTES = 12;
+
+    private final FileChannel channel;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile IOException syncFailure; // 后台同步失败时记录，下次追加时抛出
+    private long generation;
+
+    /**
+     * 打开日志文件，不存在时创建代号为0的空日志
+     *
+     * @param syncIntervalMillis 后台批量fsync的间隔
+     * @throws IOException 如果文件无法打开或不是有效的日志文件
+     */
+    public WriteAheadLog(Path file, long syncIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < FILE_HEADER_BYTES) {
+                writeHeader(0);
+            } else {
+                readHeader();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushIfDirty, syncIntervalMillis, syncIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("不是有效的日志文件");
+        }
+        generation = header.getLong();
+        channel.position(FILE_HEADER_BYTES);
+    }
+
+    private void writeHeader(long newGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        header.putInt(MAGIC).putLong(newGeneration).flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        channel.force(false);
+        channel.position(FILE_HEADER_BYTES);
+        generation = newGeneration;
+    }
+
+    /**
+     * 获取日志代号，与快照代号一致时日志内容才需要在快照之上重放
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 从头依次读取所有完整记录交给consumer，并截掉末尾写到一半或校验失败的记录
+     * 应在打开后、追加前调用
+     *
+     * @return 读取的记录数
+     */
+    public synchronized int replay(Consumer<LogRecord> consumer) throws IOException {
+        channel.position(FILE_HEADER_BYTES);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        long validEnd = FILE_HEADER_BYTES;
+        int count = 0;
+        byte[] payload;
+        while ((payload = RecordFraming.readPayload(in)) != null) {
+            consumer.accept(LogRecord.decode(payload));
+            validEnd += RecordFraming.HEADER_BYTES + payload.length;
+            count++;
+        }
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        channel.position(validEnd);
+        return count;
+    }
+
+    /**
+     * 追加一条记录，写入操作系统后立即返回，fsync由后台批量完成
+     *
+     * @throws IOException 如果写入失败或此前的后台同步失败
+     */
+    public synchronized void append(LogRecord record) throws IOException {
+        IOException failure = syncFailure;
+        if (failure != null) {
+            throw new IOException("日志同步失败", failure);
+        }
+        ByteBuffer frame = RecordFraming.frame(record.encode());
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * 立即把已追加的记录同步到磁盘
+     */
+    public void sync() throws IOException {
+        dirty.set(false);
+        channel.force(false);
+    }
+
+    private void flushIfDirty() {
+        if (dirty.getAndSet(false)) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                syncFailure = e;
+            }
+        }
+    }
+
+    /**
+     * 清空日志并设置新代号（快照已包含全部记录后调用）
+     */
+    public synchronized void reset(long newGeneration) throws IOException {
+        writeHeader(newGeneration);
+        dirty.set(false);
+    }
+
+    /**
+     * 获取日志文件当前字节数
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * 停止后台同步，同步剩余记录并关闭文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flusher.shutdown();
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
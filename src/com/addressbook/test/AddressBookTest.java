@@ -1,15 +1,44 @@
 package com.addressbook.test;
 
+import com.addressbook.gui.ContactCellRenderer;
+import com.addressbook.gui.ContactTableModel;
+import com.addressbook.io.ContactFormat;
+import com.addressbook.io.ImportResult;
 import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
 import com.addressbook.service.AddressBookService;
+import com.addressbook.service.PhoneSearch;
+import com.addressbook.service.StorageMode;
+import com.addressbook.storage.ContactStorage;
+import com.addressbook.storage.LogRecord;
+import com.addressbook.tree.AVLTree;
+import com.addressbook.tree.ArrayAVLTree;
+import com.addressbook.tree.NameCollation;
+import com.addressbook.tree.OffHeapAVLTree;
+import com.addressbook.tree.TraversalOrder;
+import java.awt.Color;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import javax.swing.JTable;
 
 /**
  * 简单的功能测试类
  * 模拟单元测试验证核心业务逻辑
  */
 public class AddressBookTest {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("开始执行业务逻辑测试...");
 
         AddressBookService service = new AddressBookService();
@@ -29,6 +58,66 @@ public class AddressBookTest {
         // 测试5: 遍历顺序
         testTraversal(service);
 
+        // 测试6: 联系人计数
+        testCount();
+
+        // 测试7: 按位置访问与分页
+        testOrderStatistics();
+
+        // 测试8: 惰性迭代与流
+        testStreams();
+
+        // 测试9: 批量导入
+        testImportAll();
+
+        // 测试10: 日志持久化与恢复
+        testPersistence();
+
+        // 测试11: 二进制快照
+        testSnapshot();
+
+        // 测试12: CSV/vCard导入导出
+        testImportExport();
+
+        // 测试13: 电话索引
+        testPhoneIndex();
+
+        // 测试14: 电话前缀树与增量查询
+        testPhonePrefix();
+
+        // 测试15: 姓名拼音索引
+        testPinyinIndex();
+
+        // 测试16: n-gram子串查找
+        testContainsSearch();
+
+        // 测试17: 模糊查找
+        testFuzzySearch();
+
+        // 测试18: 组合条件查询
+        testQuery();
+
+        // 测试19: 数组实现的AVL树
+        testArrayTree();
+
+        // 测试20: 堆外存储
+        testOffHeap();
+
+        // 测试21: 大量重名
+        testDuplicateNames();
+
+        // 测试22: 姓名排序规则
+        testNameOrder();
+
+        // 测试23: 表格单元格渲染器
+        testCellRenderer();
+
+        // 测试24: 后台压缩
+        testBackgroundCompaction();
+
+        // 测试25: 堆外存储的通讯录服务
+        testOffHeapService();
+
         System.out.println("所有测试执行完毕!");
     }
 
@@ -96,4 +185,938 @@ public class AddressBookTest {
             System.out.println("FAILED");
         }
     }
+
+    private static void testCount() {
+        System.out.print("测试联系人计数... ");
+        AddressBookService countService = new AddressBookService();
+        Random random = new Random(7);
+        boolean passed = true;
+        for (int i = 0; i < 2000 && passed; i++) {
+            String name = "N" + random.nextInt(200);
+            String phone = name + "-" + random.nextInt(5); // 电话全局唯一
+            if (random.nextInt(3) == 0) {
+                countService.deleteContact(name, phone);
+            } else if (countService.findContact(name).stream().noneMatch(c -> c.getPhone().equals(phone))) {
+                countService.addContact(name, phone, "", "");
+            }
+            passed = countService.getContactCount() == countService.getAllContacts().size();
+        }
+        countService.deleteAllByName("N1");
+        passed = passed && countService.getContactCount() == countService.getAllContacts().size();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testOrderStatistics() {
+        System.out.print("测试按位置访问与分页... ");
+        AddressBookService pageService = new AddressBookService();
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            String name = "P" + random.nextInt(120);
+            String phone = String.valueOf(i);
+            pageService.addContact(name, phone, "", "");
+        }
+        List<Contact> all = pageService.getAllContacts();
+        boolean passed = true;
+        for (int i = 0; i < all.size() && passed; i++) {
+            Contact c = all.get(i);
+            passed = pageService.getContactAt(i) == c
+                    && pageService.getRank(c.getName()) == all.indexOf(pageService.findContact(c.getName()).get(0));
+        }
+        for (int offset = 0; offset <= all.size() && passed; offset += 37) {
+            List<Contact> expected = all.subList(offset, Math.min(all.size(), offset + 25));
+            passed = pageService.getContactPage(offset, 25).equals(expected);
+        }
+
+        // 按遍历顺序分页：每一页都与完整遍历结果的对应片段一致（遍历页面按此分块读取）
+        List<List<Contact>> traversals = List.of(pageService.getPreorderContacts(), all,
+                pageService.getPostorderContacts(), pageService.getLevelOrderContacts());
+        TraversalOrder[] orders = {TraversalOrder.PREORDER, TraversalOrder.INORDER, TraversalOrder.POSTORDER,
+                TraversalOrder.LEVEL_ORDER};
+        for (int k = 0; k < orders.length && passed; k++) {
+            List<Contact> traversal = traversals.get(k);
+            for (int offset = 0; offset <= traversal.size() + 5 && passed; offset += 1 + random.nextInt(9)) {
+                int limit = random.nextInt(30);
+                List<Contact> expected = traversal.subList(Math.min(offset, traversal.size()),
+                        Math.min(traversal.size(), offset + limit));
+                passed = pageService.getContactPage(orders[k], offset, limit).equals(expected);
+            }
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testStreams() {
+        System.out.print("测试惰性迭代与流... ");
+        AddressBookService streamService = new AddressBookService();
+        for (int i = 0; i < 3000; i++) {
+            streamService.addContact("S" + (i * 7919 % 1000), String.valueOf(i), "", "");
+        }
+        boolean passed = streamService.streamContacts(TraversalOrder.INORDER).collect(Collectors.toList())
+                .equals(streamService.getAllContacts())
+                && streamService.streamContacts(TraversalOrder.PREORDER).parallel().collect(Collectors.toList())
+                .equals(streamService.getPreorderContacts())
+                && streamService.streamContacts(TraversalOrder.POSTORDER).parallel().collect(Collectors.toList())
+                .equals(streamService.getPostorderContacts())
+                && streamService.streamContacts(TraversalOrder.LEVEL_ORDER).parallel().collect(Collectors.toList())
+                .equals(streamService.getLevelOrderContacts())
+                && streamService.streamContacts(TraversalOrder.INORDER).parallel().count() == 3000;
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testImportAll() {
+        System.out.print("测试批量导入... ");
+        AddressBookService expected = new AddressBookService();
+        AddressBookService bulk = new AddressBookService();
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String name = "I" + (i * 7919 % 300);
+            expected.addContact(name, String.valueOf(i), "", "");
+            if (i < 200) {
+                bulk.addContact(name, String.valueOf(i), "", "");
+            } else {
+                batch.add(new Contact(name, String.valueOf(i), "", ""));
+            }
+        }
+        bulk.importAll(batch);
+        boolean passed = bulk.getAllContacts().toString().equals(expected.getAllContacts().toString())
+                && bulk.getContactCount() == 1000;
+
+        // 重复联系人应整批拒绝且不改变已有数据
+        try {
+            bulk.importAll(List.of(new Contact("新人", "1", "", ""), new Contact("I0", "0", "", "")));
+            passed = false;
+        } catch (IllegalArgumentException e) {
+            passed = passed && bulk.getContactCount() == 1000 && bulk.findContact("新人").isEmpty();
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testPersistence() throws IOException {
+        System.out.print("测试日志持久化与恢复... ");
+        Path directory = Files.createTempDirectory("addressbook-test");
+        AddressBookService persistent = new AddressBookService(directory);
+        for (int i = 0; i < 100; i++) {
+            persistent.addContact("L" + (i % 30), String.valueOf(i), "l@test.com", "");
+        }
+        persistent.deleteContact("L1", "1");
+        persistent.deleteAllByName("L2");
+        persistent.updateContact("L3", "3", "333", "new@test.com", "New Address");
+        String expected = persistent.getAllContacts().toString();
+        persistent.close();
+
+        // 模拟崩溃时写到一半的尾部记录
+        Files.write(directory.resolve("contacts.wal"), new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        AddressBookService recovered = new AddressBookService(directory);
+        boolean passed = recovered.getAllContacts().toString().equals(expected) && recovered.checkIntegrity();
+        recovered.addContact("L99", "199", "", "");
+        recovered.close();
+
+        // 压缩为快照后再恢复
+        AVLTree tree = new AVLTree();
+        try (ContactStorage storage = new ContactStorage(directory)) {
+            storage.recover(tree);
+            storage.compact(tree);
+        }
+        AddressBookService compacted = new AddressBookService(directory);
+        passed = passed && compacted.getContactCount() == tree.size()
+                && compacted.getAllContacts().toString().equals(tree.getAllContacts().toString())
+                && !compacted.findContact("L99").isEmpty();
+        compacted.close();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testBackgroundCompaction() throws IOException {
+        System.out.print("测试后台压缩... ");
+        Path directory = Files.createTempDirectory("addressbook-test");
+        Path crashed = Files.createTempDirectory("addressbook-test");
+        AVLTree tree = new AVLTree();
+        boolean passed;
+        try (ContactStorage storage = new ContactStorage(directory, 10, 1)) {
+            storage.recover(tree);
+            for (int i = 0; i < 300; i++) {
+                Contact contact = new Contact("C" + (i % 50), "P" + i, null, "");
+                tree.insert(contact);
+                storage.append(LogRecord.add(contact));
+                if (i == 199) {
+                    storage.compact(tree);
+                }
+            }
+            // 保留切换日志之后、快照写完之前崩溃时磁盘上的快照和旧日志
+            Files.copy(directory.resolve("contacts.snapshot"), crashed.resolve("contacts.snapshot"));
+            Files.copy(directory.resolve("contacts.wal"), crashed.resolve("contacts.wal.old"));
+            passed = storage.needsCompaction();
+            storage.startCompaction(tree);
+
+            // 后台写快照期间继续修改，包括原地修改已复制进快照版本的联系人
+            tree.update("C0", "P0", new Contact("C0", "P0", "new@test.com", "New Address"));
+            storage.append(LogRecord.update("C0", "P0", "P0", "new@test.com", "New Address"));
+            tree.delete("C1", "P1");
+            storage.append(LogRecord.delete("C1", "P1"));
+            Contact late = new Contact("C99", "P999", null, "");
+            tree.insert(late);
+            storage.append(LogRecord.add(late));
+        }
+        Files.copy(directory.resolve("contacts.wal"), crashed.resolve("contacts.wal"));
+        String expected = tree.getAllContacts().toString();
+        passed = passed && !Files.exists(directory.resolve("contacts.wal.old"));
+
+        AVLTree recovered = new AVLTree();
+        try (ContactStorage storage = new ContactStorage(directory)) {
+            storage.recover(recovered);
+        }
+        passed = passed && recovered.getAllContacts().toString().equals(expected) && recovered.isValid();
+
+        // 崩溃现场：旧快照 + 旧日志 + 新日志，恢复时补完压缩，再次恢复结果不变
+        for (int attempt = 0; attempt < 2 && passed; attempt++) {
+            AVLTree fromCrash = new AVLTree();
+            try (ContactStorage storage = new ContactStorage(crashed)) {
+                storage.recover(fromCrash);
+            }
+            passed = fromCrash.getAllContacts().toString().equals(expected) && fromCrash.isValid()
+                    && !Files.exists(crashed.resolve("contacts.wal.old"));
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testSnapshot() throws IOException {
+        System.out.print("测试二进制快照... ");
+        AddressBookService source = new AddressBookService();
+        for (int i = 0; i < 500; i++) {
+            source.addContact("快照" + (i % 120), String.valueOf(i), i % 3 == 0 ? null : "s@test.com", "地址" + (i % 7));
+        }
+        Path file = Files.createTempFile("addressbook", ".snapshot");
+        source.saveSnapshot(file);
+
+        AddressBookService loaded = new AddressBookService();
+        loaded.addContact("旧数据", "1", "", "");
+        loaded.loadSnapshot(file);
+        boolean passed = loaded.checkIntegrity()
+                && loaded.findContact("旧数据").isEmpty()
+                && loaded.getAllContacts().toString().equals(source.getAllContacts().toString())
+                && loaded.getPreorderContacts().toString().equals(source.getPreorderContacts().toString());
+
+        // 损坏的快照应被拒绝
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        try {
+            new AddressBookService().loadSnapshot(file);
+            passed = false;
+        } catch (IOException e) {
+            // 预期抛出
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testImportExport() throws IOException {
+        System.out.print("测试CSV/vCard导入导出... ");
+        AddressBookService source = new AddressBookService();
+        source.addContact("张三", "13800000001", "zhang@test.com", "北京市, 朝阳区");
+        source.addContact("Li \"Quote\"", "13800000002", "", "第一行\n第二行; 含分号\\");
+        for (int i = 0; i < 3000; i++) {
+            source.addContact("批量" + i, String.valueOf(i), "", "");
+        }
+
+        boolean passed = true;
+        for (ContactFormat format : ContactFormat.values()) {
+            StringWriter out = new StringWriter();
+            passed &= source.exportTo(out, format) == source.getContactCount();
+            AddressBookService target = new AddressBookService();
+            ImportResult result = target.importFrom(new StringReader(out.toString()), format);
+            passed &= result.getImportedCount() == source.getContactCount() && result.getRejectedCount() == 0
+                    && target.getAllContacts().toString().equals(source.getAllContacts().toString());
+        }
+
+        // 缺少必填字段和重复的行被拒绝，其余正常导入
+        String csv = "name,phone,email,address\n王五,1,,\n,2,,\n赵六,,,\n王五,1,,\n\"孙七\",3,\"a,b\",\n";
+        AddressBookService target = new AddressBookService();
+        ImportResult result = target.importFrom(new StringReader(csv), ContactFormat.CSV);
+        passed &= result.getImportedCount() == 2 && result.getRejectedCount() == 3
+                && result.getErrors().get(0).startsWith("第 3 行")
+                && target.findContact("孙七").get(0).getEmail().equals("a,b");
+
+        // 折行和带参数的vCard属性
+        String vcard = "BEGIN:VCARD\r\nVERSION:3.0\r\nN:周;八;;;\r\nitem1.TEL;TYPE=CELL:139\r\n 0000\r\nEND:VCARD\r\n";
+        result = target.importFrom(new StringReader(vcard), ContactFormat.VCARD);
+        passed &= result.getImportedCount() == 1 && target.findContact("周八").get(0).getPhone().equals("1390000");
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testPhoneIndex() {
+        System.out.print("测试电话索引... ");
+        AddressBookService phoneService = new AddressBookService();
+        phoneService.addContact("甲", "100", "", "");
+        phoneService.addContact("甲", "101", "", "");
+        phoneService.addContact("乙", "200", "", "");
+        boolean passed = phoneService.findByPhone("101").getName().equals("甲")
+                && phoneService.findByPhone("999") == null;
+
+        // 电话在不同姓名之间也不能重复
+        passed &= rejects(() -> phoneService.addContact("丙", "100", "", ""))
+                && rejects(() -> phoneService.updateContact("乙", "200", "101", "", ""))
+                && rejects(() -> phoneService.importAll(List.of(new Contact("丁", "300", "", ""),
+                        new Contact("戊", "300", "", ""))))
+                && phoneService.findByPhone("300") == null;
+
+        // 删除和更新电话后索引同步
+        passed &= !phoneService.deleteContact("乙", "100")
+                && phoneService.updateContact("乙", "200", "201", "y@test.com", "")
+                && phoneService.findByPhone("200") == null
+                && phoneService.findByPhone("201").getEmail().equals("y@test.com")
+                && phoneService.deleteAllByName("甲")
+                && phoneService.findByPhone("100") == null
+                && phoneService.findByPhone("101") == null;
+        phoneService.addContact("丙", "100", "", "");
+        passed &= phoneService.findByPhone("100").getName().equals("丙") && phoneService.checkIntegrity();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testPinyinIndex() {
+        System.out.print("测试拼音索引... ");
+        AddressBookService pinyinService = new AddressBookService();
+        pinyinService.addContact("张三", "100", "", "");
+        pinyinService.addContact("张珊", "101", "", "");
+        pinyinService.addContact("章子怡", "102", "", "");
+        pinyinService.addContact("曾小贤", "103", "", "");
+        pinyinService.addContact("欧阳娜娜", "104", "", "");
+        pinyinService.importAll(List.of(new Contact("Tom", "105", "", ""), new Contact("李四", "106", "", "")));
+
+        // 全拼、全拼加首字母、首字母，大小写和空格不影响；多音字姓氏按姓氏读音和常用读音都能找到
+        boolean passed = names(pinyinService.findByPinyin("zhang", 10)).equals(List.of("张三", "张珊", "章子怡"))
+                && names(pinyinService.findByPinyin("Zhang S", 10)).equals(List.of("张三", "张珊"))
+                && names(pinyinService.findByPinyin("zhangsan", 10)).equals(List.of("张三"))
+                && names(pinyinService.findByPinyin("zs", 10)).equals(List.of("张三", "张珊"))
+                && names(pinyinService.findByPinyin("zeng", 10)).equals(List.of("曾小贤"))
+                && names(pinyinService.findByPinyin("cxx", 10)).equals(List.of("曾小贤"))
+                && names(pinyinService.findByPinyin("oyn", 10)).equals(List.of("欧阳娜娜"))
+                && names(pinyinService.findByPinyin("to", 10)).equals(List.of("Tom"))
+                && pinyinService.findByPinyin("x", 10).isEmpty()
+                && pinyinService.findByPinyin("z", 10).size() == 4
+                && pinyinService.findByPinyin("z", 2).size() == 2;
+
+        // 删除和整名删除后索引同步
+        passed &= pinyinService.deleteContact("张三", "100")
+                && names(pinyinService.findByPinyin("zs", 10)).equals(List.of("张珊"))
+                && pinyinService.deleteAllByName("曾小贤")
+                && pinyinService.findByPinyin("zeng", 10).isEmpty()
+                && pinyinService.findByPinyin("z", 10).size() == 2
+                && pinyinService.checkIntegrity();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testContainsSearch() {
+        System.out.print("测试子串查找... ");
+        AddressBookService containsService = new AddressBookService();
+        containsService.addContact("李明", "100", "LiMing@Example.com", "北京市海淀区");
+        boolean passed = names(containsService.searchContains(ContactField.NAME, "明")).equals(List.of("李明"))
+                && names(containsService.searchContains(ContactField.EMAIL, "example")).equals(List.of("李明"))
+                && names(containsService.searchContains(ContactField.ADDRESS, "海淀")).equals(List.of("李明"))
+                && containsService.searchContains(ContactField.EMAIL, "xample.cn").isEmpty()
+                && rejects(() -> containsService.searchContains(ContactField.PHONE, "10"));
+
+        // 随机增删改后与逐个比对的结果一致；字符集很小，制造大量重复片段，删除足够多以触发重建
+        Random random = new Random(23);
+        String alphabet = "李明王小红ab.c@";
+        for (int i = 0; i < 8000 && passed; i++) {
+            String phone = String.valueOf(200 + random.nextInt(600));
+            Contact existing = containsService.findByPhone(phone);
+            if (existing == null) {
+                containsService.addContact(randomText(random, alphabet, 1, 3), phone,
+                        randomText(random, alphabet, 0, 8), randomText(random, alphabet, 0, 6));
+            } else if (random.nextBoolean()) {
+                containsService.deleteContact(existing.getName(), phone);
+            } else {
+                containsService.updateContact(existing.getName(), phone, phone,
+                        randomText(random, alphabet, 0, 8), existing.getAddress());
+            }
+
+            ContactField field = ContactField.values()[new int[] { 0, 2, 3 }[random.nextInt(3)]];
+            String text = randomText(random, alphabet, 1, 4);
+            List<String> expected = containsService.getAllContacts().stream()
+                    .filter(c -> field.valueOf(c) != null && field.valueOf(c).toLowerCase().contains(text))
+                    .map(Contact::getPhone).sorted().collect(Collectors.toList());
+            List<String> actual = containsService.searchContains(field, text).stream()
+                    .map(Contact::getPhone).sorted().collect(Collectors.toList());
+            passed = actual.equals(expected)
+                    && containsService.searchContains(field, text, 3).size() == Math.min(3, expected.size());
+        }
+        passed = passed && containsService.checkIntegrity();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testFuzzySearch() {
+        System.out.print("测试模糊查找... ");
+        AddressBookService fuzzyService = new AddressBookService();
+        fuzzyService.addContact("张伟", "100", "", "");
+        fuzzyService.addContact("张伟", "101", "", "");
+        fuzzyService.addContact("张玮琪", "102", "", "");
+        fuzzyService.addContact("Jonathan", "103", "", "");
+        boolean passed = names(fuzzyService.findFuzzy("张玮", 1)).equals(List.of("张伟", "张伟", "张玮琪"))
+                && names(fuzzyService.findFuzzy("张伟", 1)).equals(List.of("张伟", "张伟"))
+                && names(fuzzyService.findFuzzy("Jonathon", 1)).equals(List.of("Jonathan"))
+                && fuzzyService.findFuzzy("Jonathon", 0).isEmpty()
+                && rejects(() -> fuzzyService.findFuzzy("张伟", -1));
+
+        // 与逐个计算编辑距离的结果比对：姓名集合相同且按距离、姓名排序
+        Random random = new Random(29);
+        String alphabet = "张王伟芳ab";
+        List<String> allNames = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String name = randomText(random, alphabet, 1, 5);
+            fuzzyService.addContact(name, String.valueOf(1000 + i), "", "");
+        }
+        for (Contact c : fuzzyService.getAllContacts()) {
+            allNames.add(c.getName());
+        }
+        for (int i = 0; i < 300 && passed; i++) {
+            String query = randomText(random, alphabet, 1, 6);
+            int maxEdits = random.nextInt(3);
+            List<String> expected = allNames.stream()
+                    .filter(n -> editDistance(n, query) <= maxEdits)
+                    .sorted((a, b) -> editDistance(a, query) != editDistance(b, query)
+                            ? editDistance(a, query) - editDistance(b, query) : NameCollation.compare(a, b))
+                    .collect(Collectors.toList());
+            passed = names(fuzzyService.findFuzzy(query, maxEdits)).equals(expected);
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testQuery() {
+        System.out.print("测试组合条件查询... ");
+        AddressBookService queryService = new AddressBookService();
+        queryService.addContact("张三", "13800000001", "zhangsan@qq.com", "北京市海淀区中关村");
+        queryService.addContact("张伟", "13800000002", "zw@163.com", "北京市朝阳区");
+        queryService.addContact("李四", "13900000003", "lisi@QQ.com", "上海市浦东新区");
+        queryService.addContact("王五", "15000000004", "wangwu@gmail.com", "广州市天河区");
+        ContactQuery zhangInBeijing = ContactQuery.and(ContactQuery.prefix(ContactField.NAME, "张"),
+                ContactQuery.contains(ContactField.ADDRESS, "海淀"));
+        ContactQuery qqOr150 = ContactQuery.or(ContactQuery.emailDomain("qq.com"),
+                ContactQuery.prefix(ContactField.PHONE, "150"));
+        boolean passed = names(queryService.query(zhangInBeijing)).equals(List.of("张三"))
+                && names(queryService.query(qqOr150)).equals(List.of("李四", "王五", "张三"))
+                && names(queryService.query(qqOr150, 1)).equals(List.of("李四"))
+                && queryService.count(ContactQuery.prefix(ContactField.PHONE, "138")) == 2
+                && names(queryService.query(ContactQuery.equalTo(ContactField.PHONE, "13900000003")))
+                        .equals(List.of("李四"))
+                && queryService.query(ContactQuery.and(ContactQuery.equalTo(ContactField.NAME, "张三"),
+                        ContactQuery.emailDomain("163.com"))).isEmpty()
+                && rejects(() -> ContactQuery.contains(ContactField.EMAIL, " "))
+                && rejects(() -> ContactQuery.and());
+
+        // 随机数据上与逐个过滤的结果比对，并检查规划选用了索引
+        Random random = new Random(31);
+        String[] domains = {"qq.com", "163.com", "gmail.com"};
+        for (int i = 0; i < 600; i++) {
+            queryService.addContact(randomText(random, "张王李伟芳明", 1, 3), String.valueOf(13_000_000_000L + i * 7L),
+                    randomText(random, "abc", 2, 4) + "@" + domains[random.nextInt(domains.length)],
+                    randomText(random, "东西南北路街", 2, 6));
+        }
+        for (int i = 0; i < 300 && passed; i++) {
+            ContactQuery query = randomQuery(random, 2);
+            List<Contact> expected = new ArrayList<>();
+            for (Contact c : queryService.getAllContacts()) {
+                if (query.matches(c)) {
+                    expected.add(c);
+                }
+            }
+            List<Contact> actual = queryService.query(query);
+            passed = actual.size() == expected.size() && names(actual).equals(names(expected))
+                    && actual.containsAll(expected) && queryService.count(query) == expected.size();
+        }
+        passed = passed
+                && queryService.explain(ContactQuery.and(ContactQuery.contains(ContactField.ADDRESS, "东"),
+                        ContactQuery.equalTo(ContactField.PHONE, "13000000007"))).startsWith("索引：电话")
+                && queryService.explain(ContactQuery.contains(ContactField.PHONE, "0")).startsWith("遍历")
+                && queryService.checkIntegrity();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testArrayTree() {
+        System.out.print("测试数组实现的AVL树... ");
+        AVLTree reference = new AVLTree();
+        ArrayAVLTree tree = new ArrayAVLTree();
+        Random random = new Random(37);
+        boolean passed = true;
+        for (int i = 0; i < 5000 && passed; i++) {
+            String name = "A" + random.nextInt(400);
+            String phone = name + "-" + random.nextInt(4);
+            int op = random.nextInt(10);
+            if (op < 3) {
+                passed = reference.delete(name, phone) == tree.delete(name, phone);
+            } else if (op == 3) {
+                passed = reference.delete(name, null) == tree.delete(name, null);
+            } else if (op == 4 && reference.searchByPhone(phone) != null) {
+                String newPhone = phone + "x";
+                if (reference.searchByPhone(newPhone) == null) {
+                    passed = reference.update(name, phone, new Contact(name, newPhone, "u@test.com", ""))
+                            && tree.update(name, phone, new Contact(name, newPhone, "u@test.com", ""));
+                }
+            } else if (reference.searchByPhone(phone) == null) {
+                reference.insert(new Contact(name, phone, "", ""));
+                tree.insert(new Contact(name, phone, "", ""));
+            }
+            if (i % 500 == 0) {
+                passed = passed && tree.isValid();
+            }
+        }
+        // 旋转与删除规则相同，各种遍历顺序都应一致
+        passed = passed && tree.isValid() && tree.size() == reference.size()
+                && tree.getAllContacts().toString().equals(reference.getAllContacts().toString())
+                && tree.getPreorderContacts().toString().equals(reference.getPreorderContacts().toString())
+                && tree.getPostorderContacts().toString().equals(reference.getPostorderContacts().toString())
+                && tree.getLevelOrderContacts().toString().equals(reference.getLevelOrderContacts().toString())
+                && tree.searchByPrefix("A1").toString().equals(reference.searchByPrefix("A1").toString())
+                && tree.search("A7").toString().equals(reference.search("A7").toString())
+                && tree.getPage(37, 50).toString().equals(reference.getPage(37, 50).toString())
+                && tree.rank("A2") == reference.rank("A2");
+        List<Contact> iterated = new ArrayList<>();
+        tree.forEach(iterated::add);
+        passed = passed && iterated.equals(tree.getAllContacts());
+        for (int i = 0; i < tree.size() && passed; i += 7) {
+            passed = tree.select(i).toString().equals(reference.select(i).toString());
+        }
+        passed = passed && rejects(() -> tree.insert(new Contact("新人", iterated.get(0).getPhone(), "", "")));
+
+        // 删空后再插入会复用空闲槽位
+        for (Contact c : iterated) {
+            tree.delete(c.getName(), c.getPhone());
+        }
+        passed = passed && tree.isEmpty() && tree.isValid();
+        for (Contact c : iterated) {
+            tree.insert(c);
+        }
+        passed = passed && tree.isValid() && tree.getAllContacts().equals(iterated);
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testOffHeap() {
+        System.out.print("测试堆外存储... ");
+        AVLTree reference = new AVLTree();
+        OffHeapAVLTree tree = new OffHeapAVLTree();
+        Random random = new Random(41);
+        String padding = "路".repeat(400); // 每条记录约1.2KB，反复修改和删除会触发记录区压缩
+        boolean passed = true;
+        for (int i = 0; i < 20000 && passed; i++) {
+            String name = "堆" + random.nextInt(300);
+            String phone = name + "-" + random.nextInt(4);
+            int op = random.nextInt(10);
+            if (op < 3) {
+                passed = reference.delete(name, phone) == tree.delete(name, phone);
+            } else if (op == 3) {
+                passed = reference.delete(name, null) == tree.delete(name, null);
+            } else if (op < 6 && reference.searchByPhone(phone) != null) {
+                String newPhone = random.nextBoolean() ? phone : phone + "x";
+                if (newPhone.equals(phone) || reference.searchByPhone(newPhone) == null) {
+                    passed = reference.update(name, phone, new Contact(name, newPhone, null, padding + i))
+                            && tree.update(name, phone, new Contact(name, newPhone, null, padding + i));
+                }
+            } else if (reference.searchByPhone(phone) == null) {
+                String email = random.nextBoolean() ? null : name + "@mail.com";
+                reference.insert(new Contact(name, phone, email, padding));
+                tree.insert(new Contact(name, phone, email, padding));
+            }
+        }
+        Contact sample = reference.getAllContacts().get(0);
+        passed = passed && tree.isValid() && tree.size() == reference.size()
+                && tree.getAllContacts().toString().equals(reference.getAllContacts().toString())
+                && tree.getLevelOrderContacts().toString().equals(reference.getLevelOrderContacts().toString())
+                && tree.searchByPhone(sample.getPhone()).toString().equals(sample.toString())
+                && tree.searchByPhone(sample.getPhone()) != tree.searchByPhone(sample.getPhone())
+                && tree.offHeapBytes() < 8 << 20
+                && rejects(() -> tree.insert(new Contact("长", "1", "x".repeat(70000), null)))
+                && tree.isValid();
+
+        // 整批导入、修改和删除；批内电话与已有联系人重复时整批不导入
+        OffHeapAVLTree loaded = new OffHeapAVLTree();
+        loaded.insert(new Contact("张三", "13800000001", "zhangsan@qq.com", "北京市海淀区"));
+        loaded.bulkLoad(List.of(new Contact("李四", "13900000002", "lisi@163.com", "上海市浦东新区"),
+                new Contact("王五", "13800000003", null, "北京市朝阳区")));
+        passed = passed && loaded.size() == 3
+                && names(loaded.getAllContacts()).equals(List.of("李四", "王五", "张三"))
+                && loaded.update("王五", "13800000003", new Contact("王五", "13800000004", "ww@qq.com", "北京市朝阳区"))
+                && loaded.searchByPhone("13800000004").getEmail().equals("ww@qq.com")
+                && loaded.searchByPhone("13800000003") == null
+                && loaded.delete("张三", "13800000001")
+                && names(loaded.getAllContacts()).equals(List.of("李四", "王五"))
+                && rejects(() -> loaded.bulkLoad(List.of(new Contact("赵六", "13900000002", null, null))))
+                && loaded.size() == 2
+                && loaded.isValid();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testOffHeapService() throws IOException {
+        System.out.print("测试堆外存储的通讯录服务... ");
+        // 同样的操作序列分别作用于堆内和堆外服务，逐项比对公开方法的结果
+        AddressBookService heap = new AddressBookService();
+        AddressBookService offHeap = new AddressBookService(StorageMode.OFF_HEAP);
+        String[] surnames = {"张", "李", "王", "长", "Zhang", "Li"};
+        Random random = new Random(53);
+        for (int i = 0; i < 3000; i++) {
+            String name = surnames[random.nextInt(surnames.length)] + random.nextInt(40);
+            int number = random.nextInt(100000);
+            String phone = "1" + (3 + random.nextInt(3)) + (number % 2 == 0 ? "-" : "") + number; // 数字相同的号码写法也相同
+            int op = random.nextInt(10);
+            if (op == 0) {
+                heap.deleteContact(name, phone);
+                offHeap.deleteContact(name, phone);
+            } else if (op == 1 && heap.findByPhone(phone) != null) {
+                String owner = heap.findByPhone(phone).getName();
+                heap.updateContact(owner, phone, phone, owner + "@qq.com", "北京市" + i);
+                offHeap.updateContact(owner, phone, phone, owner + "@qq.com", "北京市" + i);
+            } else if (heap.findByPhone(phone) == null) {
+                String email = random.nextBoolean() ? null : name.toLowerCase() + "@mail.com";
+                String address = random.nextBoolean() ? "上海市" + random.nextInt(20) : "Beijing Road " + i;
+                heap.addContact(name, phone, email, address);
+                offHeap.addContact(name, phone, email, address);
+            }
+        }
+        String sample = heap.getContactAt(heap.getContactCount() / 2).getPhone();
+        ContactQuery query = ContactQuery.and(ContactQuery.prefix(ContactField.NAME, "张"),
+                ContactQuery.or(ContactQuery.emailDomain("mail.com"), ContactQuery.contains(ContactField.ADDRESS, "上海")));
+        boolean passed = offHeap.getStorageMode() == StorageMode.OFF_HEAP && offHeap.checkIntegrity()
+                && offHeap.getContactCount() == heap.getContactCount()
+                && offHeap.getAllContacts().toString().equals(heap.getAllContacts().toString())
+                && offHeap.getPreorderContacts().toString().equals(heap.getPreorderContacts().toString())
+                && offHeap.getPostorderContacts().toString().equals(heap.getPostorderContacts().toString())
+                && offHeap.getLevelOrderContacts().toString().equals(heap.getLevelOrderContacts().toString())
+                && offHeap.findContact("张7").toString().equals(heap.findContact("张7").toString())
+                && offHeap.findByPrefix("Zhang1").toString().equals(heap.findByPrefix("Zhang1").toString())
+                && offHeap.findByPhone(sample).toString().equals(heap.findByPhone(sample).toString())
+                && offHeap.findByPhonePrefix("14", 30).toString().equals(heap.findByPhonePrefix("14", 30).toString())
+                && offHeap.findByPhonePrefix("1-5", 10000).toString().equals(heap.findByPhonePrefix("15", 10000).toString())
+                && sorted(offHeap.findByPinyin("zh", 10000)).equals(sorted(heap.findByPinyin("zh", 10000)))
+                && sorted(offHeap.findByPinyin("chang", 10000)).equals(sorted(heap.findByPinyin("chang", 10000)))
+                && offHeap.findByPinyin("w", 5).size() == 5
+                && offHeap.findFuzzy("张17", 1).toString().equals(heap.findFuzzy("张17", 1).toString())
+                && offHeap.findFuzzy("Zhang3", 2).toString().equals(heap.findFuzzy("Zhang3", 2).toString())
+                && sorted(offHeap.searchContains(ContactField.ADDRESS, "road 1"))
+                        .equals(sorted(heap.searchContains(ContactField.ADDRESS, "road 1")))
+                && offHeap.searchContains(ContactField.EMAIL, "MAIL", 7).size() == 7
+                && rejects(() -> offHeap.searchContains(ContactField.PHONE, "13", 10))
+                && offHeap.query(query).toString().equals(heap.query(query).toString())
+                && offHeap.query(query, 3).toString().equals(heap.query(query, 3).toString())
+                && offHeap.count(query) == heap.count(query)
+                && offHeap.forEachMatch(query, contact -> { }) == heap.count(query)
+                && offHeap.explain(query).contains("遍历")
+                && offHeap.getRank("王") == heap.getRank("王")
+                && offHeap.getContactAt(100).toString().equals(heap.getContactAt(100).toString())
+                && offHeap.getContactPage(50, 20).toString().equals(heap.getContactPage(50, 20).toString());
+        for (TraversalOrder order : TraversalOrder.values()) {
+            for (int offset : new int[] {0, 1, 777, offHeap.getContactCount() - 3, offHeap.getContactCount() + 5}) {
+                passed = passed && offHeap.getContactPage(order, offset, 40).toString()
+                        .equals(heap.getContactPage(order, offset, 40).toString());
+            }
+            passed = passed && offHeap.streamContacts(order).collect(Collectors.toList()).toString()
+                    .equals(heap.streamContacts(order).collect(Collectors.toList()).toString());
+        }
+
+        // 拨号盘增量查询：没有电话前缀树，按已输入的数字遍历
+        PhoneSearch heapSearch = heap.startPhoneSearch();
+        PhoneSearch offHeapSearch = offHeap.startPhoneSearch();
+        for (String typed : new String[] {"1", "3", "-", "4", "\b", "\b", "5", "9"}) {
+            if (typed.equals("\b")) {
+                heapSearch.backspace();
+                offHeapSearch.backspace();
+            } else {
+                heapSearch.type(typed);
+                offHeapSearch.type(typed);
+            }
+            passed = passed && offHeapSearch.getPrefix().equals(heapSearch.getPrefix())
+                    && offHeapSearch.count() == heapSearch.count()
+                    && offHeapSearch.results(15).toString().equals(heapSearch.results(15).toString());
+        }
+        passed = passed && offHeapSearch.clear().count() == heapSearch.clear().count();
+
+        // 导出、整批导入和流式导入
+        StringWriter heapCsv = new StringWriter();
+        StringWriter offHeapCsv = new StringWriter();
+        heap.exportTo(heapCsv, ContactFormat.CSV);
+        offHeap.exportTo(offHeapCsv, ContactFormat.CSV);
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            batch.add(new Contact("导入" + (i % 60), "200" + i, null, "广州市"));
+        }
+        heap.importAll(batch);
+        offHeap.importAll(batch);
+        ImportResult imported = offHeap.importFrom(new StringReader("name,phone,email,address\n流式,300,,\n流式,2000,,\n"),
+                ContactFormat.CSV);
+        heap.importFrom(new StringReader("name,phone,email,address\n流式,300,,\n流式,2000,,\n"), ContactFormat.CSV);
+        passed = passed && offHeapCsv.toString().equals(heapCsv.toString())
+                && imported.getImportedCount() == 1 && imported.getRejectedCount() == 1
+                && offHeap.getAllContacts().toString().equals(heap.getAllContacts().toString())
+                && offHeap.deleteAllByName("导入7") && offHeap.findContact("导入7").isEmpty()
+                && offHeap.checkIntegrity();
+
+        // 持久化：日志恢复、快照加载后的压缩，以及同一数据目录在两种存储方式之间互换
+        Path directory = Files.createTempDirectory("addressbook-test");
+        Path file = directory.resolve("manual.snapshot");
+        try (AddressBookService persistent = new AddressBookService(directory, StorageMode.OFF_HEAP)) {
+            persistent.importAll(offHeap.getAllContacts());
+            persistent.updateContact("流式", "300", "301", "s@qq.com", "深圳市");
+            persistent.deleteContact(persistent.findByPhone(sample).getName(), sample);
+        }
+        String expected;
+        try (AddressBookService reopened = new AddressBookService(directory, StorageMode.OFF_HEAP)) {
+            expected = reopened.getAllContacts().toString();
+            passed = passed && reopened.getContactCount() == offHeap.getContactCount() - 1
+                    && reopened.findByPhone("301").getAddress().equals("深圳市")
+                    && reopened.findByPhone(sample) == null && reopened.checkIntegrity();
+            reopened.saveSnapshot(file);
+            reopened.addContact("快照之后", "400", null, null);
+            reopened.loadSnapshot(file);
+            passed = passed && reopened.getAllContacts().toString().equals(expected)
+                    && reopened.findByPhone("400") == null && reopened.checkIntegrity();
+        }
+        try (AddressBookService asHeap = new AddressBookService(directory)) {
+            passed = passed && asHeap.getAllContacts().toString().equals(expected) && asHeap.checkIntegrity();
+            asHeap.addContact("堆内加入", "500", null, null);
+        }
+        try (AddressBookService again = new AddressBookService(directory, StorageMode.OFF_HEAP)) {
+            passed = passed && again.getContactCount() == offHeap.getContactCount()
+                    && again.findByPhone("500").getName().equals("堆内加入") && again.checkIntegrity();
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static List<String> sorted(List<Contact> contacts) {
+        List<String> strings = contacts.stream().map(Contact::toString).collect(Collectors.toList());
+        Collections.sort(strings);
+        return strings;
+    }
+
+    private static void testDuplicateNames() {
+        System.out.print("测试大量重名... ");
+        // 少数几个姓名下各有上百个联系人，同名桶在紧凑和散列两种模式间反复切换；与数组树逐步比对
+        AVLTree reference = new AVLTree();
+        ArrayAVLTree expected = new ArrayAVLTree();
+        Random random = new Random(41);
+        boolean passed = true;
+        for (int i = 0; i < 30000 && passed; i++) {
+            String name = "重" + random.nextInt(3);
+            String phone = name + "-" + random.nextInt(i < 15000 ? 300 : 12);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                passed = reference.delete(name, phone) == expected.delete(name, phone);
+            } else if (op == 4 && random.nextInt(50) == 0) {
+                passed = reference.delete(name, null) == expected.delete(name, null);
+            } else if (op == 5 && reference.searchByPhone(phone) != null) {
+                String newPhone = phone + "x" + i;
+                passed = reference.update(name, phone, new Contact(name, newPhone, null, null))
+                        && expected.update(name, phone, new Contact(name, newPhone, null, null))
+                        && reference.searchByPhone(newPhone) != null && reference.searchByPhone(phone) == null;
+            } else if (reference.searchByPhone(phone) == null) {
+                reference.insert(new Contact(name, phone, null, null));
+                expected.insert(new Contact(name, phone, null, null));
+            }
+            if (i % 1000 == 0) {
+                int offset = reference.size() / 3;
+                passed = passed && reference.getAllContacts().toString().equals(expected.getAllContacts().toString())
+                        && reference.getPage(offset, 50).toString().equals(expected.getPage(offset, 50).toString())
+                        && (reference.isEmpty()
+                                || reference.select(offset).toString().equals(expected.select(offset).toString()));
+            }
+        }
+        passed = passed && reference.isValid() && reference.size() == expected.size()
+                && reference.getAllContacts().toString().equals(expected.getAllContacts().toString())
+                && reference.search("重1").toString().equals(expected.search("重1").toString());
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testNameOrder() throws IOException {
+        System.out.print("测试姓名排序规则... ");
+        // 符号和数字在前，字母按字母表（同一字母大写在前），汉字按拼音
+        AddressBookService orderService = new AddressBookService();
+        List<String> expected = List.of("007", "Alice", "amy", "Bobby", "bob", "阿三", "李明", "李四", "王五", "张三", "张三丰");
+        List<String> shuffled = new ArrayList<>(expected);
+        Collections.shuffle(shuffled, new Random(43));
+        for (int i = 0; i < shuffled.size(); i++) {
+            orderService.addContact(shuffled.get(i), String.valueOf(100 + i), "", "");
+        }
+        String syllables = "阿八擦大饿发嘎哈机卡拉妈拿哦趴七然撒他挖西压杂";
+        AVLTree tree = new AVLTree();
+        ArrayAVLTree arrayTree = new ArrayAVLTree();
+        for (int i = syllables.length() - 1; i >= 0; i--) {
+            tree.insert(new Contact(String.valueOf(syllables.charAt(i)), "p" + i, null, null));
+            arrayTree.insert(new Contact(String.valueOf(syllables.charAt(i)), "p" + i, null, null));
+        }
+        boolean passed = names(orderService.getAllContacts()).equals(expected)
+                && names(orderService.findByPrefix("张")).equals(List.of("张三", "张三丰"))
+                && names(orderService.findByPrefix("b")).equals(List.of("bob"))
+                && names(orderService.findByPrefix("B")).equals(List.of("Bobby"))
+                && String.join("", names(tree.getAllContacts())).equals(syllables)
+                && tree.rank("哈") == syllables.indexOf('哈') && arrayTree.rank("哈") == tree.rank("哈")
+                && arrayTree.getAllContacts().toString().equals(tree.getAllContacts().toString())
+                && tree.isValid() && arrayTree.isValid();
+
+        // 随机姓名：中序结果按排序规则有序，前缀查询与逐个过滤一致
+        Random random = new Random(47);
+        for (int i = 0; i < 2000; i++) {
+            orderService.addContact(randomText(random, "张章李王汪aAbB1_", 1, 4), "r" + i, "", "");
+        }
+        List<String> all = names(orderService.getAllContacts());
+        for (int i = 1; i < all.size() && passed; i++) {
+            passed = NameCollation.compare(all.get(i - 1), all.get(i)) <= 0
+                    && NameCollation.sortKey(all.get(i - 1)).compareTo(NameCollation.sortKey(all.get(i)))
+                            == NameCollation.compare(all.get(i - 1), all.get(i));
+        }
+        for (String prefix : List.of("张", "章李", "a", "A", "1", "王_")) {
+            passed = passed && names(orderService.findByPrefix(prefix))
+                    .equals(all.stream().filter(n -> n.startsWith(prefix)).collect(Collectors.toList()));
+        }
+
+        // 码位顺序的版本2快照读取后按拼音顺序重建
+        Path file = Files.createTempFile("addressbook", ".snapshot");
+        orderService.saveSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.putInt(4, 2);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        buffer.putInt(bytes.length - 4, (int) crc.getValue());
+        Files.write(file, bytes);
+        AddressBookService migrated = new AddressBookService();
+        migrated.loadSnapshot(file);
+        passed = passed && migrated.checkIntegrity()
+                && migrated.getAllContacts().toString().equals(orderService.getAllContacts().toString());
+        Files.delete(file);
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void testCellRenderer() {
+        System.out.print("测试表格单元格渲染器... ");
+        System.setProperty("java.awt.headless", "true");
+        ContactTableModel model = new ContactTableModel();
+        model.setContacts(List.of(new Contact("张三", "13800000001", "zs@qq.com", "北京市"),
+                new Contact("李四", "13900000002", "ls@qq.com", "上海市")));
+        JTable table = new JTable(model);
+        ContactCellRenderer renderer = new ContactCellRenderer(ContactCellRenderer.Style.NAME,
+                ContactCellRenderer.Style.PHONE, ContactCellRenderer.Style.EMAIL, ContactCellRenderer.Style.ADDRESS);
+        // 姓名列沿用表格前景色，即使之前渲染过带颜色的地址列
+        Color first = renderer.getTableCellRendererComponent(table, "张三", false, false, 0, 0).getForeground();
+        Color address = renderer.getTableCellRendererComponent(table, "北京市", false, false, 0, 3).getForeground();
+        Color second = renderer.getTableCellRendererComponent(table, "李四", false, false, 1, 0).getForeground();
+        Color selected = renderer.getTableCellRendererComponent(table, "李四", true, false, 1, 0).getForeground();
+        Color after = renderer.getTableCellRendererComponent(table, "张三", false, false, 0, 0).getForeground();
+        boolean passed = first.equals(table.getForeground()) && !address.equals(table.getForeground())
+                && second.equals(table.getForeground()) && selected.equals(table.getSelectionForeground())
+                && after.equals(table.getForeground());
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+
+    private static ContactQuery randomQuery(Random random, int depth) {
+        if (depth > 0 && random.nextInt(3) > 0) {
+            ContactQuery[] children = new ContactQuery[2 + random.nextInt(2)];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = randomQuery(random, depth - 1);
+            }
+            return random.nextBoolean() ? ContactQuery.and(children) : ContactQuery.or(children);
+        }
+        switch (random.nextInt(8)) {
+            case 0:
+                return ContactQuery.equalTo(ContactField.NAME, randomText(random, "张王李伟芳明", 1, 2));
+            case 1:
+                return ContactQuery.prefix(ContactField.NAME, randomText(random, "张王李伟芳明", 1, 2));
+            case 2:
+                return ContactQuery.contains(ContactField.NAME, randomText(random, "张王李伟芳明", 1, 2));
+            case 3:
+                return ContactQuery.prefix(ContactField.PHONE, "1300000" + random.nextInt(100));
+            case 4:
+                return ContactQuery.contains(ContactField.PHONE, String.valueOf(random.nextInt(1000)));
+            case 5:
+                return ContactQuery.emailDomain(random.nextBoolean() ? "qq.com" : "GMAIL.com");
+            case 6:
+                return ContactQuery.prefix(ContactField.EMAIL, randomText(random, "abC", 1, 3));
+            default:
+                return ContactQuery.contains(ContactField.ADDRESS, randomText(random, "东西南北路街", 1, 3));
+        }
+    }
+
+    private static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomText(Random random, String alphabet, int minLength, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    private static List<String> names(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getName).collect(Collectors.toList());
+    }
+
+    private static boolean rejects(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static void testPhonePrefix() {
+        System.out.print("测试电话前缀查询... ");
+        AddressBookService phoneService = new AddressBookService();
+        Random random = new Random(17);
+        PhoneSearch search = phoneService.startPhoneSearch().type("13");
+        boolean passed = true;
+        for (int i = 0; i < 3000 && passed; i++) {
+            // 号码长短不一、带分隔符，制造前缀相互包含和数字相同的情况
+            String phone = "13" + Integer.toString(random.nextInt(400), 7) + (random.nextBoolean() ? "-" : "")
+                    + random.nextInt(30);
+            String name = "T" + random.nextInt(50);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                Contact c = phoneService.findByPhone(phone);
+                if (c != null) {
+                    phoneService.deleteContact(c.getName(), phone);
+                }
+            } else if (op == 1) {
+                Contact c = phoneService.findByPhone(phone);
+                String newPhone = phone + random.nextInt(10);
+                if (c != null && phoneService.findByPhone(newPhone) == null) {
+                    phoneService.updateContact(c.getName(), phone, newPhone, "", "");
+                }
+            } else if (phoneService.findByPhone(phone) == null) {
+                phoneService.addContact(name, phone, "", "");
+            }
+
+            if (i % 50 == 0) {
+                search.clear().type(String.valueOf(13 + random.nextInt(2)));
+            } else if (random.nextInt(4) == 0) {
+                search.backspace();
+            } else {
+                search.type(String.valueOf(random.nextInt(7)));
+            }
+            String prefix = search.getPrefix();
+            List<String> expected = phoneService.getAllContacts().stream()
+                    .map(c -> c.getPhone().replace("-", ""))
+                    .filter(digits -> digits.startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+            int limit = random.nextInt(5) == 0 ? Integer.MAX_VALUE : 8;
+            List<String> actual = search.results(limit).stream()
+                    .map(c -> c.getPhone().replace("-", ""))
+                    .collect(Collectors.toList());
+            passed = search.count() == expected.size()
+                    && actual.equals(expected.subList(0, Math.min(limit, expected.size())));
+        }
+        passed = passed && phoneService.checkIntegrity()
+                && phoneService.findByPhonePrefix("13", Integer.MAX_VALUE).size() == phoneService.getContactCount();
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
 }
@@ -0,0 +1,150 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import com.addressbook.tree.ArrayAVLTree;
+import com.addressbook.tree.ContactTree;
+import com.addressbook.tree.NGramIndex;
+import com.addressbook.tree.PhoneTrie;
+import com.addressbook.tree.PinyinIndex;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 数组实现的AVL树与节点对象实现的对比测试
+ * 内存：在同一批联系人上依次单独构建各结构，GC后按堆占用差值折算每个联系人的字节数（不含联系人对象本身）；
+ * AVLTree再扣除单独构建的电话前缀树、拼音索引和子串索引，得到树结构加电话索引（HashMap）的开销，
+ * 与ArrayAVLTree（树结构加按条目编号存放的电话哈希表）对比。
+ * 延迟：用MicroBenchmark测量精确查找、前缀查找、按序号定位、插入删除往返和全部联系人获取。
+ * 用法：java -Xmx4g ArrayTreeBenchmark [规模，默认1000000]
+ */
+public class ArrayTreeBenchmark {
+    private static final int BATCH = 256;
+    private static final MicroBenchmark BENCH = new MicroBenchmark(2, 5, 300);
+    private static final MicroBenchmark.Blackhole SINK = new MicroBenchmark.Blackhole();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("开始执行数组AVL树对比测试，规模 " + size + " ...");
+        Random random = new Random(22);
+        List<Contact> contacts = ContactGenerator.generate(size, random);
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = contacts.get(i).getName();
+        }
+
+        // 内存：各结构依次单独构建，只在测量时持有
+        double indexBytes = measure(size, () -> {
+            PhoneTrie phoneTrie = new PhoneTrie();
+            PinyinIndex pinyinIndex = new PinyinIndex();
+            NGramIndex ngramIndex = new NGramIndex();
+            for (Contact c : contacts) {
+                phoneTrie.insert(c);
+                pinyinIndex.insert(c);
+                ngramIndex.insert(c);
+            }
+            return new Object[] {phoneTrie, pinyinIndex, ngramIndex};
+        });
+        double hashBytes = measure(size, () -> {
+            Map<String, Contact> phoneIndex = new HashMap<>();
+            for (Contact c : contacts) {
+                phoneIndex.put(c.getPhone(), c);
+            }
+            return phoneIndex;
+        });
+        AVLTree avl = new AVLTree();
+        ArrayAVLTree array = new ArrayAVLTree();
+        double avlBytes = measure(size, () -> {
+            contacts.forEach(avl::insert);
+            return avl;
+        });
+        double arrayBytes = measure(size, () -> {
+            contacts.forEach(array::insert);
+            return array;
+        });
+
+        System.out.printf("%-28s %8s %8s%n", "B/联系人", "合计", "树结构+电话索引");
+        System.out.printf("%-28s %8.1f %8.1f%n", "AVLTree（含二级索引）", avlBytes, avlBytes - indexBytes);
+        System.out.printf("%-28s %8.1f %8.1f%n", "ArrayAVLTree", arrayBytes, arrayBytes);
+        System.out.printf("%-28s %8.1f%n", "  其中HashMap电话索引", hashBytes);
+        System.out.printf("%-28s %8.1f%n", "  拼音/电话前缀/子串索引", indexBytes);
+
+        // 延迟
+        System.out.printf("%-16s %12s %12s%n", "操作", "AVLTree", "ArrayAVLTree");
+        compare("search", avl, array, (tree, r) -> tree.search(names[r.nextInt(size)]).size());
+        compare("searchByPrefix", avl, array,
+                (tree, r) -> tree.searchByPrefix(names[r.nextInt(size)].substring(0, 2)).size());
+        compare("select", avl, array, (tree, r) -> tree.select(r.nextInt(size)).getName().length());
+        compare("insert+delete", avl, array, (tree, r) -> {
+            Contact c = new Contact(names[r.nextInt(size)], "B" + r.nextInt(), null, null);
+            tree.insert(c);
+            return tree.delete(c.getName(), c.getPhone()) ? 1 : 0;
+        });
+        double avlAll = BENCH.run(blackhole -> {
+            blackhole.consume(avl.getAllContacts());
+            return 1;
+        }).getMeanNanos();
+        double arrayAll = BENCH.run(blackhole -> {
+            blackhole.consume(array.getAllContacts());
+            return 1;
+        }).getMeanNanos();
+        System.out.printf("%-16s %9.2f ms %9.2f ms%n", "getAllContacts", avlAll / 1e6, arrayAll / 1e6);
+
+        boolean consistent = array.isValid() && array.size() == avl.size()
+                && array.getAllContacts().equals(avl.getAllContacts());
+        System.out.println(consistent ? "结果一致" : "FAILED: 两种实现的结果不一致");
+    }
+
+    /**
+     * 对某棵树执行一次操作
+     */
+    private interface Operation {
+        int apply(ContactTree tree, Random random);
+    }
+
+    /**
+     * 在两棵树上以相同的随机序列测量同一操作，打印每次操作的平均耗时
+     */
+    private static void compare(String label, ContactTree avl, ContactTree array, Operation operation) {
+        double[] nanos = new double[2];
+        ContactTree[] trees = {avl, array};
+        for (int t = 0; t < trees.length; t++) {
+            ContactTree tree = trees[t];
+            Random random = new Random(99);
+            nanos[t] = BENCH.run(blackhole -> {
+                for (int i = 0; i < BATCH; i++) {
+                    blackhole.consume(operation.apply(tree, random));
+                }
+                return BATCH;
+            }).getMeanNanos();
+        }
+        System.out.printf("%-16s %9.2f us %9.2f us%n", label, nanos[0] / 1000, nanos[1] / 1000);
+    }
+
+    /**
+     * 构建一个结构并测量其每个联系人占用的堆字节数
+     * 测量期间持有build返回的对象，之后由调用方决定是否继续持有
+     */
+    private static double measure(int size, Supplier<Object> build) {
+        long before = usedHeap();
+        Object built = build.get();
+        long after = usedHeap();
+        double bytes = (double) (after - before) / size;
+        SINK.consume(built);
+        return bytes;
+    }
+
+    /**
+     * 多次GC后的堆占用
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,51 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 批量导入性能对比
+ * 对比逐个addContact与importAll在不同数据规模下的耗时，并校验两者结果一致。
+ * 逐个插入在大规模下耗时过长，超过MAX_ONE_BY_ONE时只测批量导入；500万规模建议以 -Xmx4g 运行
+ */
+public class BulkLoadBenchmark {
+    private static final int MAX_ONE_BY_ONE = 1_000_000;
+
+    public static void main(String[] args) {
+        System.out.println("开始执行批量导入性能对比...");
+        int[] sizes = {100_000, 1_000_000, 5_000_000};
+        for (int size : sizes) {
+            runBenchmark(size);
+        }
+        System.out.println("性能对比执行完毕!");
+    }
+
+    private static void runBenchmark(int size) {
+        List<Contact> contacts = ContactGenerator.generate(size, new Random(42));
+
+        long start = System.nanoTime();
+        AddressBookService bulk = new AddressBookService();
+        bulk.importAll(contacts);
+        long bulkMillis = (System.nanoTime() - start) / 1_000_000;
+
+        if (size > MAX_ONE_BY_ONE) {
+            System.out.printf("规模 %-8d 批量导入 %6d ms%n", size, bulkMillis);
+            return;
+        }
+
+        start = System.nanoTime();
+        AddressBookService oneByOne = new AddressBookService();
+        for (Contact c : contacts) {
+            oneByOne.addContact(c.getName(), c.getPhone(), c.getEmail(), c.getAddress());
+        }
+        long insertMillis = (System.nanoTime() - start) / 1_000_000;
+
+        boolean consistent = oneByOne.getContactCount() == bulk.getContactCount()
+                && oneByOne.getContactPage(size / 2, 100).toString().equals(bulk.getContactPage(size / 2, 100).toString());
+        System.out.printf("规模 %-8d 逐个插入 %6d ms  批量导入 %6d ms  加速 %.1fx  结果%s%n",
+                size, insertMillis, bulkMillis, (double) insertMillis / Math.max(1, bulkMillis),
+                consistent ? "一致" : "不一致");
+    }
+}
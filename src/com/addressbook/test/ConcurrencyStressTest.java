@@ -0,0 +1,112 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发压力测试
+ * 多个写线程随机增删、多个读线程并发查询同一个AddressBookService，
+ * 每轮结束后校验AVL树结构不变量以及联系人总数与写线程的成功操作数一致
+ */
+public class ConcurrencyStressTest {
+    private static final int ROUNDS = 5;
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int NAME_RANGE = 500;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("开始执行并发压力测试...");
+        boolean allPassed = true;
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean passed = runRound(round);
+            System.out.println("第 " + round + " 轮... " + (passed ? "PASSED" : "FAILED"));
+            allPassed &= passed;
+        }
+        System.out.println(allPassed ? "并发压力测试全部通过!" : "并发压力测试存在失败!");
+    }
+
+    private static boolean runRound(int round) throws Exception {
+        AddressBookService service = new AddressBookService();
+        AtomicInteger expectedCount = new AtomicInteger();
+        AtomicInteger readerErrors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < WRITERS; i++) {
+            Random random = new Random(round * 100L + i);
+            String phonePrefix = "W" + i + "-"; // 各写线程电话不重叠，保证计数可预测
+            futures.add(executor.submit(() -> runWriter(service, random, phonePrefix, expectedCount)));
+        }
+        for (int i = 0; i < READERS; i++) {
+            Random random = new Random(round * 1000L + i);
+            futures.add(executor.submit(() -> runReader(service, random, readerErrors)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        return readerErrors.get() == 0
+                && service.checkIntegrity()
+                && service.getContactCount() == expectedCount.get()
+                && service.getAllContacts().size() == expectedCount.get();
+    }
+
+    private static void runWriter(AddressBookService service, Random random, String phonePrefix,
+            AtomicInteger expectedCount) {
+        for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+            String name = "C" + random.nextInt(NAME_RANGE);
+            String phone = phonePrefix + name + "-" + random.nextInt(10); // 电话全局唯一，带上姓名
+            if (random.nextInt(3) == 0) {
+                if (service.deleteContact(name, phone)) {
+                    expectedCount.decrementAndGet();
+                }
+            } else {
+                try {
+                    service.addContact(name, phone, "", "");
+                    expectedCount.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // 重复联系人，属于预期情况
+                }
+            }
+        }
+    }
+
+    private static void runReader(AddressBookService service, Random random, AtomicInteger readerErrors) {
+        for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+            String name = "C" + random.nextInt(NAME_RANGE);
+            try {
+                for (Contact c : service.findContact(name)) {
+                    if (!c.getName().equals(name)) {
+                        readerErrors.incrementAndGet();
+                    }
+                }
+                for (Contact c : service.findByPrefix("C" + random.nextInt(10))) {
+                    if (c == null) {
+                        readerErrors.incrementAndGet();
+                    }
+                }
+                if (op % 500 == 0) {
+                    List<Contact> page = service.getContactPage(random.nextInt(100), 20);
+                    for (int i = 1; i < page.size(); i++) {
+                        if (page.get(i - 1).getName().compareTo(page.get(i).getName()) > 0) {
+                            readerErrors.incrementAndGet();
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                readerErrors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 测试数据生成器
+ * 为性能测试批量生成随机中文姓名的联系人，电话按序号保证唯一
+ */
+public class ContactGenerator {
+    private static final String SURNAMES = "张王李赵刘陈杨黄周吴徐孙胡朱高林何郭马罗";
+    private static final String GIVEN_CHARS = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰萍";
+
+    private ContactGenerator() {
+    }
+
+    /**
+     * 生成随机中文姓名（单姓加一到两个名字）
+     */
+    public static String randomChineseName(Random random) {
+        StringBuilder name = new StringBuilder();
+        name.append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+        int givenLength = 1 + random.nextInt(2);
+        for (int j = 0; j < givenLength; j++) {
+            name.append(GIVEN_CHARS.charAt(random.nextInt(GIVEN_CHARS.length())));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 生成指定数量的联系人
+     */
+    public static List<Contact> generate(int size, Random random) {
+        List<Contact> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contacts.add(new Contact(randomChineseName(random), String.valueOf(13_000_000_000L + i), "", ""));
+        }
+        return contacts;
+    }
+}
@@ -0,0 +1,130 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 按姓名分布和重名程度生成联系人，供HotPathBenchmark和JMH基准测试使用
+ * 中文姓名按常见姓氏频率取姓、名为一到两个常用字；英文姓名为名加姓，均按常见程度（Zipf分布）加权。
+ * 电话按序号递增保证唯一，同一实例生成的联系人之间不会冲突；非线程安全
+ */
+public final class ContactSampler {
+    /**
+     * 姓名分布
+     */
+    public enum Names {
+        CHINESE, // 按常见姓氏频率取姓，名为一到两个常用字
+        LATIN    // 英文名加姓，均按常见程度加权
+    }
+
+    /**
+     * 重名程度
+     */
+    public enum Skew {
+        NATURAL, // 按姓名分布自然产生的重名
+        HEAVY    // 从规模1/1000的姓名池中按Zipf分布抽取，少数姓名占很大比例
+    }
+
+    private static final String SURNAMES =
+            "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗郑梁谢宋唐许韩冯邓曹彭曾肖田董袁潘于蒋蔡余杜叶程苏魏吕丁任沈姚卢";
+    private static final String GIVEN_CHARS =
+            "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰萍鹏辉建国志红文斌宇浩凯俊峰亮晨雪琳婷欣怡佳子涵轩博睿泽";
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Margaret", "Steven", "Sandra"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson"
+    };
+
+    private final Names names;
+    private final Skew skew;
+    private final Random random;
+    private final double[] surnameWeights = zipfCumulative(SURNAMES.length(), 1.0);
+    private final double[] givenWeights = zipfCumulative(GIVEN_CHARS.length(), 0.8);
+    private final double[] firstWeights = zipfCumulative(FIRST_NAMES.length, 0.9);
+    private final double[] lastWeights = zipfCumulative(LAST_NAMES.length, 0.9);
+    private String[] pool;         // HEAVY时的姓名池
+    private double[] poolWeights;
+    private long nextPhone = 13_000_000_000L;
+
+    /**
+     * @param size 通讯录规模，HEAVY时姓名池的大小为它的1/1000
+     */
+    public ContactSampler(Names names, Skew skew, int size, long seed) {
+        if (names == null || skew == null || size < 0) {
+            throw new IllegalArgumentException("姓名分布、重名程度和规模参数无效");
+        }
+        this.names = names;
+        this.skew = skew;
+        this.random = new Random(seed);
+        if (skew == Skew.HEAVY) {
+            pool = new String[Math.max(10, size / 1000)];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = naturalName();
+            }
+            poolWeights = zipfCumulative(pool.length, 1.2);
+        }
+    }
+
+    public Names getNames() {
+        return names;
+    }
+
+    public Skew getSkew() {
+        return skew;
+    }
+
+    /**
+     * 生成下一个联系人，电话与之前生成的都不同
+     */
+    public Contact next() {
+        String name = skew == Skew.HEAVY ? pool[sample(poolWeights)] : naturalName();
+        return new Contact(name, String.valueOf(nextPhone++), "", "");
+    }
+
+    /**
+     * 共享的随机数源，供调用方抽取已有联系人等，保证同一种子下结果可重复
+     */
+    public Random random() {
+        return random;
+    }
+
+    private String naturalName() {
+        if (names == Names.LATIN) {
+            return FIRST_NAMES[sample(firstWeights)] + " " + LAST_NAMES[sample(lastWeights)];
+        }
+        StringBuilder name = new StringBuilder(3).append(SURNAMES.charAt(sample(surnameWeights)));
+        int givenLength = 1 + random.nextInt(2);
+        for (int i = 0; i < givenLength; i++) {
+            name.append(GIVEN_CHARS.charAt(sample(givenWeights)));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 按累积权重抽取下标
+     */
+    private int sample(double[] cumulative) {
+        double r = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, r);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Zipf分布的累积权重：第k个（从1开始）的权重为1 / k^exponent
+     */
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int k = 1; k <= n; k++) {
+            total += 1 / Math.pow(k, exponent);
+            cumulative[k - 1] = total;
+        }
+        return cumulative;
+    }
+}
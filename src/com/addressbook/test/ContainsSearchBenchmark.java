@@ -0,0 +1,77 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.tree.AVLTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 子串查找性能对比
+ * 100万个联系人（含邮箱和地址）批量导入后，对比n-gram索引与遍历全部联系人做包含查询的耗时，
+ * 分别测量取前20个（搜索框场景）和取全部结果两种情况
+ */
+public class ContainsSearchBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int RESULT_LIMIT = 20;
+    private static final int ROUNDS = 2_000;
+    private static final String[] DOMAINS = {"qq.com", "163.com", "gmail.com", "outlook.com", "sina.com"};
+    private static final String[] DISTRICTS = {"海淀区", "朝阳区", "浦东新区", "天河区", "南山区", "武侯区"};
+    private static final Object[][] QUERIES = {
+        {ContactField.NAME, "明"}, {ContactField.NAME, "伟"}, {ContactField.NAME, "丽娟"},
+        {ContactField.EMAIL, "user12345"}, {ContactField.EMAIL, "gmail"}, {ContactField.EMAIL, "8@163"},
+        {ContactField.ADDRESS, "海淀"}, {ContactField.ADDRESS, "中山路12"}, {ContactField.ADDRESS, "路"}
+    };
+
+    public static void main(String[] args) {
+        System.out.println("开始执行子串查找性能对比...");
+        Random random = new Random(11);
+        List<Contact> contacts = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            contacts.add(new Contact(ContactGenerator.randomChineseName(random), String.valueOf(13_000_000_000L + i),
+                    "user" + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)],
+                    DISTRICTS[random.nextInt(DISTRICTS.length)] + (char) ('一' + random.nextInt(200)) + "山路"
+                            + random.nextInt(500) + "号"));
+        }
+        AVLTree tree = new AVLTree();
+        long start = System.nanoTime();
+        tree.bulkLoad(contacts);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("批量导入 %d 个联系人（含全部索引）耗时 %d ms，堆占用 %.0f MB%n", SIZE, loadMillis,
+                (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0);
+
+        boolean consistent = true;
+        for (Object[] query : QUERIES) {
+            ContactField field = (ContactField) query[0];
+            String text = (String) query[1];
+
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                tree.searchContains(field, text, RESULT_LIMIT);
+            }
+            double limitedMicros = (System.nanoTime() - start) / 1000.0 / ROUNDS;
+
+            start = System.nanoTime();
+            int indexed = tree.searchContains(field, text, Integer.MAX_VALUE).size();
+            double allMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            start = System.nanoTime();
+            int scanned = 0;
+            for (Contact c : tree) {
+                String value = field.valueOf(c);
+                if (value != null && value.toLowerCase().contains(text)) {
+                    scanned++;
+                }
+            }
+            double scanMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            consistent &= indexed == scanned;
+            System.out.printf("%-7s %-10s 命中 %7d  索引取前%d %8.1f us  索引取全部 %7.2f ms  遍历 %7.2f ms%n",
+                    field, text, indexed, RESULT_LIMIT, limitedMicros, allMillis, scanMillis);
+        }
+        System.out.println(consistent && tree.isValid() ? "结果一致" : "FAILED: 查找结果不一致");
+    }
+}
@@ -0,0 +1,74 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 模糊查找性能测试
+ * 分别构建100万个中文姓名（常见姓氏加3000个常用字组成的名字，几乎各不相同）和
+ * 100万个英文姓名（音节拼接）的通讯录，对随机改动过一处的已有姓名做模糊查找，测量平均耗时
+ */
+public class FuzzySearchBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int QUERIES = 2_000;
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗郑梁谢宋唐许韩冯邓曹彭曾肖田董袁潘于蒋蔡余杜叶程苏魏吕丁任沈姚卢";
+    private static final String[] SYLLABLES = {
+        "an", "be", "ca", "da", "el", "fi", "ga", "ha", "is", "jo", "ka", "li", "ma", "na", "ol",
+        "pe", "ra", "sa", "th", "ur", "vi", "wi", "xa", "yo", "ze", "ro", "ne", "mi", "lu", "ke"
+    };
+
+    public static void main(String[] args) {
+        System.out.println("开始执行模糊查找性能测试...");
+        Random random = new Random(13);
+        List<String> chinese = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            StringBuilder name = new StringBuilder().append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+            int givenLength = 1 + random.nextInt(2);
+            for (int j = 0; j < givenLength; j++) {
+                name.append((char) ('一' + random.nextInt(3000)));
+            }
+            chinese.add(name.toString());
+        }
+        List<String> latin = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 3 + random.nextInt(3);
+            for (int j = 0; j < syllables; j++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            latin.add(name.toString());
+        }
+
+        measure("中文姓名", chinese, 1, "一丁丂七丄", random);
+        measure("英文姓名", latin, 1, "abcdefghijklmnopqrstuvwxyz", random);
+        measure("英文姓名", latin, 2, "abcdefghijklmnopqrstuvwxyz", random);
+        System.out.println("模糊查找性能测试执行完毕!");
+    }
+
+    private static void measure(String label, List<String> names, int maxEdits, String typos, Random random) {
+        AVLTree tree = new AVLTree();
+        List<Contact> contacts = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            contacts.add(new Contact(names.get(i), String.valueOf(13_000_000_000L + i), null, null));
+        }
+        tree.bulkLoad(contacts);
+
+        long found = 0;
+        long maxNanos = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            // 在随机位置替换一个字符，模拟一处错字
+            char[] query = names.get(random.nextInt(names.size())).toCharArray();
+            query[random.nextInt(query.length)] = typos.charAt(random.nextInt(typos.length()));
+            long queryStart = System.nanoTime();
+            found += tree.searchFuzzy(new String(query), maxEdits).size();
+            maxNanos = Math.max(maxNanos, System.nanoTime() - queryStart);
+        }
+        double averageMicros = (System.nanoTime() - start) / 1000.0 / QUERIES;
+        System.out.printf("%s %d 个  编辑距离<=%d  平均 %.1f us/次  最慢 %.2f ms  平均命中 %.1f 个%n",
+                label, names.size(), maxEdits, averageMicros, maxNanos / 1_000_000.0, (double) found / QUERIES);
+    }
+}
@@ -0,0 +1,269 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import com.addressbook.test.ContactSampler.Names;
+import com.addressbook.test.ContactSampler.Skew;
+import com.addressbook.tree.AVLTree;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 核心操作基准测试
+ * 覆盖AVLTree的insert、delete、search、searchByPrefix、getAllContacts、三种遍历获取方法，
+ * 以及AddressBookService.getContactCount；按通讯录规模、姓名分布（中文/英文）和重名程度组合参数，
+ * 每组参数单独构建数据（见ContactSampler），测量框架见MicroBenchmark。
+ * 用法（参数均可省略）：
+ * java -Xmx4g -cp bin com.addressbook.test.HotPathBenchmark --sizes 1000,10000,100000,1000000
+ *     --names chinese,latin --skew natural,heavy --only search --warmup 2 --iterations 5 --time 500
+ *     --csv results.csv
+ * --only按名称包含关系筛选测试项；--csv把结果追加到CSV文件，便于对比优化前后的数据。
+ * 规模10000000需要约10GB以上的堆
+ */
+public class HotPathBenchmark {
+    private static final int BATCH = 256; // 每批的查找、插入或删除次数
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+        List<Names> nameSets = Arrays.asList(Names.values());
+        List<Skew> skews = Arrays.asList(Skew.values());
+        String only = "";
+        int warmup = 2;
+        int iterations = 5;
+        long time = 500;
+        Path csv = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(value.split(",")).mapToInt(s -> (int) Double.parseDouble(s)).toArray();
+                    break;
+                case "--names":
+                    nameSets = new ArrayList<>();
+                    for (String s : value.split(",")) {
+                        nameSets.add(Names.valueOf(s.toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--skew":
+                    skews = new ArrayList<>();
+                    for (String s : value.split(",")) {
+                        skews.add(Skew.valueOf(s.toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--only":
+                    only = value;
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "--time":
+                    time = Long.parseLong(value);
+                    break;
+                case "--csv":
+                    csv = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+
+        System.out.println("开始执行核心操作基准测试...");
+        System.out.printf("%-18s %-8s %-8s %9s %5s %12s %12s%n",
+                "测试项", "姓名", "重名", "规模", "轮次", "平均耗时", "标准差");
+        MicroBenchmark harness = new MicroBenchmark(warmup, iterations, time);
+        for (Names names : nameSets) {
+            for (Skew skew : skews) {
+                for (int size : sizes) {
+                    new HotPathBenchmark(names, skew, size, harness, only, csv).runAll();
+                }
+            }
+        }
+        System.out.println("核心操作基准测试执行完毕!");
+    }
+
+    private final Names names;
+    private final Skew skew;
+    private final int size;
+    private final MicroBenchmark harness;
+    private final String only;
+    private final Path csv;
+    private final ContactSampler sampler;
+    private final Random random;
+
+    private HotPathBenchmark(Names names, Skew skew, int size, MicroBenchmark harness, String only, Path csv) {
+        this.names = names;
+        this.skew = skew;
+        this.size = size;
+        this.harness = harness;
+        this.only = only;
+        this.csv = csv;
+        this.sampler = new ContactSampler(names, skew, size, 2024);
+        this.random = sampler.random();
+    }
+
+    /**
+     * 依次运行各测试项；树和服务分开构建，同一时刻只占用一份数据的内存
+     */
+    private void runAll() throws IOException {
+        List<Contact> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contacts.add(newContact());
+        }
+        runTree(contacts);
+
+        if (selected("getContactCount")) {
+            AddressBookService service = new AddressBookService();
+            service.importAll(contacts);
+            measure("getContactCount", blackhole -> {
+                for (int i = 0; i < BATCH; i++) {
+                    blackhole.consume(service.getContactCount());
+                }
+                return BATCH;
+            });
+        }
+    }
+
+    /**
+     * AVLTree上的各测试项
+     */
+    private void runTree(List<Contact> contacts) throws IOException {
+        String[] existing = new String[contacts.size()];
+        for (int i = 0; i < existing.length; i++) {
+            existing[i] = contacts.get(i).getName();
+        }
+
+        AVLTree tree = new AVLTree();
+        tree.bulkLoad(contacts);
+        measure("insert", new MicroBenchmark.Workload() {
+            private final List<Contact> batch = new ArrayList<>(BATCH);
+
+            @Override
+            public void setup() {
+                batch.clear();
+                for (int i = 0; i < BATCH; i++) {
+                    batch.add(newContact());
+                }
+            }
+
+            @Override
+            public int run(MicroBenchmark.Blackhole blackhole) {
+                for (Contact c : batch) {
+                    tree.insert(c);
+                }
+                return batch.size();
+            }
+
+            @Override
+            public void teardown() {
+                for (Contact c : batch) {
+                    tree.delete(c.getName(), c.getPhone());
+                }
+            }
+        });
+        measure("delete", new MicroBenchmark.Workload() {
+            private final List<Contact> batch = new ArrayList<>(BATCH);
+
+            @Override
+            public void setup() {
+                batch.clear();
+                for (int i = 0; i < BATCH; i++) {
+                    Contact c = newContact();
+                    tree.insert(c);
+                    batch.add(c);
+                }
+            }
+
+            @Override
+            public int run(MicroBenchmark.Blackhole blackhole) {
+                for (Contact c : batch) {
+                    blackhole.consume(tree.delete(c.getName(), c.getPhone()) ? 1 : 0);
+                }
+                return batch.size();
+            }
+        });
+        measure("search", blackhole -> {
+            for (int i = 0; i < BATCH; i++) {
+                blackhole.consume(tree.search(existing[random.nextInt(existing.length)]));
+            }
+            return BATCH;
+        });
+        int prefixLength = names == Names.CHINESE ? 2 : 3;
+        measure("searchByPrefix", blackhole -> {
+            for (int i = 0; i < BATCH; i++) {
+                String name = existing[random.nextInt(existing.length)];
+                blackhole.consume(tree.searchByPrefix(name.substring(0, Math.min(prefixLength, name.length()))));
+            }
+            return BATCH;
+        });
+        measure("getAllContacts", blackhole -> {
+            blackhole.consume(tree.getAllContacts());
+            return 1;
+        });
+        measure("getPreorder", blackhole -> {
+            blackhole.consume(tree.getPreorderContacts());
+            return 1;
+        });
+        measure("getPostorder", blackhole -> {
+            blackhole.consume(tree.getPostorderContacts());
+            return 1;
+        });
+        measure("getLevelOrder", blackhole -> {
+            blackhole.consume(tree.getLevelOrderContacts());
+            return 1;
+        });
+    }
+
+    private boolean selected(String benchmark) {
+        return benchmark.toLowerCase(Locale.ROOT).contains(only.toLowerCase(Locale.ROOT));
+    }
+
+    private void measure(String benchmark, MicroBenchmark.Workload workload) throws IOException {
+        if (!selected(benchmark)) {
+            return;
+        }
+        MicroBenchmark.Result result = harness.run(workload);
+        System.out.printf("%-18s %-8s %-8s %9d %5d %12s %12s%n", benchmark, names, skew, size,
+                result.getIterations(), format(result.getMeanNanos()), format(result.getStdDevNanos()));
+        if (csv != null) {
+            boolean header = !Files.exists(csv);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (header) {
+                    out.println("benchmark,names,skew,size,iterations,mean_ns,stddev_ns");
+                }
+                out.printf(Locale.ROOT, "%s,%s,%s,%d,%d,%.1f,%.1f%n", benchmark, names, skew, size,
+                        result.getIterations(), result.getMeanNanos(), result.getStdDevNanos());
+            }
+        }
+    }
+
+    /**
+     * 按量级选择单位
+     */
+    private static String format(double nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000);
+        }
+        if (nanos >= 1_000) {
+            return String.format(Locale.ROOT, "%.2f us", nanos / 1_000);
+        }
+        return String.format(Locale.ROOT, "%.1f ns", nanos);
+    }
+
+    private Contact newContact() {
+        return sampler.next();
+    }
+}
@@ -0,0 +1,91 @@
+package com.addressbook.test;
+
+import com.addressbook.io.ContactFormat;
+import com.addressbook.io.ContactImporter;
+import com.addressbook.io.ImportResult;
+import com.addressbook.service.AddressBookService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 流式导入导出性能测试
+ * 1. 只解析和校验、丢弃结果，在不同文件规模下采样堆占用，验证流水线本身的内存不随文件增大
+ * 2. 导入到通讯录并再导出，测量端到端吞吐
+ */
+public class ImportExportBenchmark {
+    private static final int[] PIPELINE_SIZES = {1_000_000, 4_000_000};
+    private static final int SERVICE_SIZE = 1_000_000;
+    private static final int SAMPLE_INTERVAL = 500; // 每隔多少批采样一次堆占用
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("开始执行流式导入导出性能测试...");
+        for (int size : PIPELINE_SIZES) {
+            measurePipelineMemory(size);
+        }
+        measureServiceRoundTrip();
+        System.out.println("流式导入导出性能测试执行完毕!");
+    }
+
+    private static void measurePipelineMemory(int size) throws IOException {
+        Path csv = writeCsv(size);
+        long[] peak = {0};
+        int[] batches = {0};
+        long start = System.nanoTime();
+        ImportResult result;
+        try (Reader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            result = ContactImporter.importFrom(in, ContactFormat.CSV, batch -> {
+                if (++batches[0] % SAMPLE_INTERVAL == 0) {
+                    System.gc();
+                    Runtime runtime = Runtime.getRuntime();
+                    peak[0] = Math.max(peak[0], runtime.totalMemory() - runtime.freeMemory());
+                }
+                return List.of();
+            });
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("仅解析校验 %8d 行  文件 %6.1f MB  耗时 %6d ms  堆占用峰值 %5.1f MB%s%n",
+                size, Files.size(csv) / 1024.0 / 1024.0, millis, peak[0] / 1024.0 / 1024.0,
+                result.getImportedCount() == size ? "" : "  FAILED: 行数不一致");
+        Files.delete(csv);
+    }
+
+    private static void measureServiceRoundTrip() throws IOException {
+        Path csv = writeCsv(SERVICE_SIZE);
+        Path exported = Files.createTempFile("addressbook-export", ".csv");
+        AddressBookService service = new AddressBookService();
+
+        long start = System.nanoTime();
+        ImportResult result = service.importFrom(csv, ContactFormat.CSV);
+        long importMillis = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        long exportedCount = service.exportTo(exported, ContactFormat.CSV);
+        long exportMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("通讯录 %d 行  导入 %d ms  导出 %d ms%s%n", SERVICE_SIZE, importMillis, exportMillis,
+                result.getImportedCount() == SERVICE_SIZE && exportedCount == SERVICE_SIZE ? "" : "  FAILED: 行数不一致");
+        Files.delete(csv);
+        Files.delete(exported);
+    }
+
+    /**
+     * 边生成边写出测试文件，不在内存中保留联系人
+     */
+    private static Path writeCsv(int size) throws IOException {
+        Path file = Files.createTempFile("addressbook-import", ".csv");
+        Random random = new Random(size);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("name,phone,email,address\n");
+            for (int i = 0; i < size; i++) {
+                out.write(ContactGenerator.randomChineseName(random) + "," + (13_000_000_000L + i)
+                        + ",user" + i + "@email.com,\"城市" + random.nextInt(300) + "区, 某街道\"\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,145 @@
+package com.addressbook.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 微基准测试框架（参照JMH的做法，不依赖构建工具）
+ * 每个测量轮次反复执行一批操作直到累计计时达到设定时长，批次前后的准备与清理不计时；
+ * 先跑若干预热轮次让JIT编译完成，再跑测量轮次，报告每次操作的平均耗时及轮次间的标准差。
+ * 结果交给Blackhole消费，防止JIT把没有使用的计算当作死代码消除
+ */
+public final class MicroBenchmark {
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+
+    /**
+     * @param warmupIterations      预热轮次
+     * @param measurementIterations 测量轮次
+     * @param iterationMillis       每轮累计计时的时长
+     */
+    public MicroBenchmark(int warmupIterations, int measurementIterations, long iterationMillis) {
+        if (warmupIterations < 0 || measurementIterations < 1 || iterationMillis < 1) {
+            throw new IllegalArgumentException("轮次和时长参数无效");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+    }
+
+    /**
+     * 被测的一批操作
+     */
+    public interface Workload {
+        /**
+         * 每批之前的准备，不计时
+         */
+        default void setup() {
+        }
+
+        /**
+         * 执行一批操作（计时）
+         *
+         * @return 本批执行的操作次数
+         */
+        int run(Blackhole blackhole);
+
+        /**
+         * 每批之后的清理（如撤销插入），不计时
+         */
+        default void teardown() {
+        }
+    }
+
+    /**
+     * 结果消费者：把结果折叠进一个volatile字段，使JIT无法证明结果未被使用
+     */
+    public static final class Blackhole {
+        private volatile int sink;
+
+        public void consume(Object value) {
+            sink += System.identityHashCode(value);
+        }
+
+        public void consume(int value) {
+            sink += value;
+        }
+    }
+
+    /**
+     * 测量结果
+     */
+    public static final class Result {
+        private final double meanNanos;
+        private final double stdDevNanos;
+        private final int iterations;
+
+        Result(double meanNanos, double stdDevNanos, int iterations) {
+            this.meanNanos = meanNanos;
+            this.stdDevNanos = stdDevNanos;
+            this.iterations = iterations;
+        }
+
+        /**
+         * 每次操作的平均耗时（纳秒）
+         */
+        public double getMeanNanos() {
+            return meanNanos;
+        }
+
+        /**
+         * 各测量轮次平均耗时的标准差（纳秒）
+         */
+        public double getStdDevNanos() {
+            return stdDevNanos;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+    }
+
+    /**
+     * 运行一项基准测试
+     */
+    public Result run(Workload workload) {
+        Blackhole blackhole = new Blackhole();
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(workload, blackhole);
+        }
+        List<Double> samples = new ArrayList<>(measurementIterations);
+        for (int i = 0; i < measurementIterations; i++) {
+            samples.add(iteration(workload, blackhole));
+        }
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= samples.size();
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        double stdDev = samples.size() > 1 ? Math.sqrt(variance / (samples.size() - 1)) : 0;
+        return new Result(mean, stdDev, samples.size());
+    }
+
+    /**
+     * 执行一个轮次
+     *
+     * @return 本轮每次操作的平均耗时（纳秒）
+     */
+    private double iteration(Workload workload, Blackhole blackhole) {
+        long timed = 0;
+        long operations = 0;
+        while (timed < iterationNanos) {
+            workload.setup();
+            long start = System.nanoTime();
+            operations += workload.run(blackhole);
+            timed += System.nanoTime() - start;
+            workload.teardown();
+        }
+        return (double) timed / Math.max(1, operations);
+    }
+}
@@ -0,0 +1,113 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import com.addressbook.service.StorageMode;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 堆内与堆外存储的GC对比测试
+ * 对每种存储方式：导入联系人后测量GC后的堆占用和一次完整GC（System.gc()）的停顿，
+ * 再执行一段混合读写负载（来电查找、修改地址、新增后删除），统计期间的GC次数、累计和平均停顿。
+ * 用法：java -Xmx3g OffHeapBenchmark [规模，默认2000000] [on|off，默认两种都测]
+ * 两种方式都测时依次在同一JVM中运行，需要更干净的数据时可分别在独立JVM中运行
+ */
+public class OffHeapBenchmark {
+    private static final int SAMPLE = 10_000;   // 负载中使用的已有联系人数
+    private static final int OPERATIONS = 2_000_000;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        String only = args.length > 1 ? args[1] : "";
+        System.out.println("开始执行堆外存储GC对比测试，规模 " + size + " ...");
+        System.out.printf("%-10s %10s %12s %8s %12s %12s %12s%n",
+                "存储方式", "堆占用MB", "完整GC ms", "GC次数", "GC累计ms", "平均停顿ms", "负载 ns/op");
+        if (!only.equals("off")) {
+            run(StorageMode.ON_HEAP, size);
+        }
+        if (!only.equals("on")) {
+            run(StorageMode.OFF_HEAP, size);
+        }
+    }
+
+    private static void run(StorageMode mode, int size) {
+        AddressBookService service = new AddressBookService(mode);
+        String[] names = new String[SAMPLE];
+        String[] phones = new String[SAMPLE];
+        {
+            List<Contact> contacts = ContactGenerator.generate(size, new Random(23));
+            for (int i = 0; i < SAMPLE; i++) {
+                Contact c = contacts.get(i * (size / SAMPLE));
+                names[i] = c.getName();
+                phones[i] = c.getPhone();
+            }
+            service.importAll(contacts);
+        }
+
+        // 堆外模式下导入用的联系人对象此时已是垃圾，完整GC后只剩树本身
+        usedHeap();
+        long start = System.nanoTime();
+        long heap = usedHeap();
+        double fullGcMillis = (System.nanoTime() - start) / 1e6 / 3;
+
+        Random random = new Random(7);
+        long[] gcBefore = gcTotals();
+        int checksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int k = random.nextInt(SAMPLE);
+            switch (i % 4) {
+                case 0:
+                case 1:
+                    Contact found = service.findByPhone(phones[k]);
+                    checksum += found == null ? 0 : found.getName().length();
+                    break;
+                case 2:
+                    service.updateContact(names[k], phones[k], phones[k], null, "地址" + i);
+                    break;
+                default:
+                    String phone = "T" + i;
+                    service.addContact(names[k], phone, null, "临时");
+                    service.deleteContact(names[k], phone);
+                    break;
+            }
+        }
+        double nanosPerOp = (double) (System.nanoTime() - start) / OPERATIONS;
+        long[] gcAfter = gcTotals();
+        long collections = gcAfter[0] - gcBefore[0];
+        long gcMillis = gcAfter[1] - gcBefore[1];
+
+        System.out.printf("%-10s %10.0f %12.1f %8d %12d %12.2f %12.0f%n", mode, heap / 1024.0 / 1024.0, fullGcMillis,
+                collections, gcMillis, collections == 0 ? 0.0 : (double) gcMillis / collections, nanosPerOp);
+        if (checksum == 0 || !service.checkIntegrity() || service.getContactCount() != size) {
+            System.out.println("FAILED: 负载后的通讯录不一致");
+        }
+    }
+
+    /**
+     * 全部收集器的累计GC次数和耗时（毫秒）
+     */
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    /**
+     * 多次GC后的堆占用
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
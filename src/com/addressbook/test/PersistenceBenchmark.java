@@ -0,0 +1,74 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import com.addressbook.storage.ContactStorage;
+import com.addressbook.tree.AVLTree;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 持久化性能测试
+ * 测量开启预写日志后单次修改的平均耗时，以及100万联系人从日志和从快照恢复的耗时
+ */
+public class PersistenceBenchmark {
+    private static final int EDIT_COUNT = 100_000;
+    private static final int RECOVERY_SIZE = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("开始执行持久化性能测试...");
+        measureEditLatency();
+        measureRecovery();
+        System.out.println("持久化性能测试执行完毕!");
+    }
+
+    private static void measureEditLatency() throws IOException {
+        List<Contact> contacts = ContactGenerator.generate(EDIT_COUNT, new Random(1));
+
+        AddressBookService memory = new AddressBookService();
+        long memoryNanos = timeAdds(memory, contacts);
+
+        Path directory = Files.createTempDirectory("addressbook-bench");
+        try (AddressBookService persistent = new AddressBookService(directory)) {
+            long persistentNanos = timeAdds(persistent, contacts);
+            System.out.printf("单次添加平均耗时：纯内存 %.2f us  开启日志 %.2f us%n",
+                    memoryNanos / 1000.0 / EDIT_COUNT, persistentNanos / 1000.0 / EDIT_COUNT);
+        }
+    }
+
+    private static long timeAdds(AddressBookService service, List<Contact> contacts) {
+        long start = System.nanoTime();
+        for (Contact c : contacts) {
+            service.addContact(c.getName(), c.getPhone(), c.getEmail(), c.getAddress());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void measureRecovery() throws IOException {
+        Path directory = Files.createTempDirectory("addressbook-bench");
+        try (AddressBookService service = new AddressBookService(directory)) {
+            service.importAll(ContactGenerator.generate(RECOVERY_SIZE, new Random(2)));
+        }
+        System.out.printf("从日志恢复 %d 个联系人：%d ms%n", RECOVERY_SIZE, timeRecovery(directory));
+
+        AVLTree tree = new AVLTree();
+        try (ContactStorage storage = new ContactStorage(directory)) {
+            storage.recover(tree);
+            storage.compact(tree);
+        }
+        System.out.printf("从快照恢复 %d 个联系人：%d ms%n", RECOVERY_SIZE, timeRecovery(directory));
+    }
+
+    private static long timeRecovery(Path directory) throws IOException {
+        long start = System.nanoTime();
+        try (AddressBookService recovered = new AddressBookService(directory)) {
+            if (recovered.getContactCount() != RECOVERY_SIZE) {
+                System.out.println("FAILED: 恢复后联系人数不一致");
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,58 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 电话查找性能对比
+ * 对比电话索引与遍历全部联系人查找电话的耗时，并测量按姓名和电话更新联系人的耗时
+ */
+public class PhoneLookupBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int INDEX_LOOKUPS = 1_000_000;
+    private static final int SCAN_LOOKUPS = 20;
+    private static final int UPDATES = 200_000;
+
+    public static void main(String[] args) {
+        System.out.println("开始执行电话查找性能对比...");
+        List<Contact> contacts = ContactGenerator.generate(SIZE, new Random(5));
+        AVLTree tree = new AVLTree();
+        tree.bulkLoad(contacts);
+        Random random = new Random(6);
+
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < INDEX_LOOKUPS; i++) {
+            if (tree.searchByPhone(contacts.get(random.nextInt(SIZE)).getPhone()) != null) {
+                found++;
+            }
+        }
+        double indexNanos = (double) (System.nanoTime() - start) / INDEX_LOOKUPS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCAN_LOOKUPS; i++) {
+            String phone = contacts.get(random.nextInt(SIZE)).getPhone();
+            for (Contact c : tree) {
+                if (c.getPhone().equals(phone)) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        double scanNanos = (double) (System.nanoTime() - start) / SCAN_LOOKUPS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Contact c = contacts.get(random.nextInt(SIZE));
+            tree.update(c.getName(), c.getPhone(), new Contact(c.getName(), c.getPhone(), "u" + i + "@test.com", ""));
+        }
+        double updateNanos = (double) (System.nanoTime() - start) / UPDATES;
+
+        System.out.printf("规模 %d  电话索引 %.2f us/次  遍历查找 %.1f us/次  加速 %.0fx%n",
+                SIZE, indexNanos / 1000, scanNanos / 1000, scanNanos / indexNanos);
+        System.out.printf("按姓名和电话更新 %.2f us/次%n", updateNanos / 1000);
+        System.out.println(found == INDEX_LOOKUPS + SCAN_LOOKUPS && tree.isValid() ? "结果一致" : "FAILED: 查找结果不一致");
+    }
+}
@@ -0,0 +1,52 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.PhoneTrie;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 电话前缀树性能测试
+ * 向前缀树插入1000万个随机手机号，模拟在拨号盘上逐位输入号码，
+ * 测量每次按键（前进一位并取前20个候选）的平均耗时
+ */
+public class PhoneTrieBenchmark {
+    private static final int SIZE = 10_000_000;
+    private static final int SESSIONS = 100_000;
+    private static final int RESULT_LIMIT = 20;
+    private static final String[] PREFIXES = {"138", "139", "150", "186", "177"};
+
+    public static void main(String[] args) {
+        System.out.println("开始执行电话前缀树性能测试...");
+        Random random = new Random(8);
+        String[] phones = new String[SIZE];
+        PhoneTrie trie = new PhoneTrie();
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            phones[i] = PREFIXES[random.nextInt(PREFIXES.length)]
+                    + String.valueOf(100_000_000 + random.nextInt(100_000_000)).substring(1);
+            trie.insert(new Contact("C", phones[i], null, null));
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("插入 %d 个号码耗时 %d ms，堆占用 %.0f MB%n", SIZE, buildMillis,
+                (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0);
+
+        long keystrokes = 0;
+        long candidates = 0;
+        start = System.nanoTime();
+        for (int s = 0; s < SESSIONS; s++) {
+            String phone = phones[random.nextInt(SIZE)];
+            PhoneTrie.Cursor cursor = trie.cursor();
+            for (int i = 0; i < phone.length(); i++) {
+                List<Contact> results = cursor.type(phone.charAt(i)).results(RESULT_LIMIT);
+                candidates += results.size() + cursor.count();
+                keystrokes++;
+            }
+        }
+        double nanosPerKey = (double) (System.nanoTime() - start) / keystrokes;
+        System.out.printf("每次按键（前进一位并取前 %d 个候选）平均 %.2f us%n", RESULT_LIMIT, nanosPerKey / 1000);
+        System.out.println(candidates > 0 && trie.size() == SIZE ? "结果一致" : "FAILED: 号码数不一致");
+    }
+}
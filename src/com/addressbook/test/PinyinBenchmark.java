@@ -0,0 +1,56 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 拼音索引性能测试
+ * 批量导入100万个联系人（同时建立拼音索引），测量拼音前缀查询（取前20个）
+ * 以及逐个增删联系人时同步维护索引的平均耗时
+ */
+public class PinyinBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int QUERIES = 200_000;
+    private static final int UPDATES = 100_000;
+    private static final int RESULT_LIMIT = 20;
+    private static final String[] QUERY_SAMPLES = {
+        "z", "zh", "zhang", "zhangw", "zhangwei", "zw", "zwm", "l", "li", "liuy", "ly", "wangf", "wf",
+        "chen", "chenj", "cj", "huang", "hy", "gx", "guo", "luoj", "maq", "hef", "zhouy", "xuyan"
+    };
+
+    public static void main(String[] args) {
+        System.out.println("开始执行拼音索引性能测试...");
+        List<Contact> contacts = ContactGenerator.generate(SIZE, new Random(9));
+        AVLTree tree = new AVLTree();
+        long start = System.nanoTime();
+        tree.bulkLoad(contacts);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("批量导入 %d 个联系人（含拼音索引）耗时 %d ms，堆占用 %.0f MB%n", SIZE, loadMillis,
+                (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0);
+
+        Random random = new Random(10);
+        long found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            found += tree.searchByPinyin(QUERY_SAMPLES[random.nextInt(QUERY_SAMPLES.length)], RESULT_LIMIT).size();
+        }
+        double queryNanos = (double) (System.nanoTime() - start) / QUERIES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Contact c = contacts.get(random.nextInt(SIZE));
+            if (tree.delete(c.getName(), c.getPhone())) {
+                tree.insert(c);
+            }
+        }
+        double updateNanos = (double) (System.nanoTime() - start) / UPDATES;
+
+        System.out.printf("拼音前缀查询（取前 %d 个）平均 %.2f us/次%n", RESULT_LIMIT, queryNanos / 1000);
+        System.out.printf("删除并重新插入（同步维护全部索引）平均 %.2f us/次%n", updateNanos / 1000);
+        System.out.println(found > 0 && tree.size() == SIZE && tree.isValid() ? "结果一致" : "FAILED: 索引不一致");
+    }
+}
@@ -0,0 +1,88 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.tree.AVLTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 前缀查询性能对比
+ * 对比剪枝前缀查询与全量扫描在不同数据规模下的耗时，并校验两者结果一致
+ */
+public class PrefixSearchBenchmark {
+    private static final String[] PREFIXES = {"张", "李明", "王伟芳"};
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        System.out.println("开始执行前缀查询性能对比...");
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        for (int size : sizes) {
+            runBenchmark(size);
+        }
+        System.out.println("性能对比执行完毕!");
+    }
+
+    /**
+     * 构建指定规模的通讯录并对比两种查询方式
+     */
+    private static void runBenchmark(int size) {
+        AVLTree tree = buildTree(size, new Random(42));
+
+        for (String prefix : PREFIXES) {
+            // 预热，同时校验结果一致
+            List<Contact> pruned = tree.searchByPrefix(prefix);
+            List<Contact> scanned = fullScan(tree, prefix);
+            if (!pruned.equals(scanned)) {
+                System.out.println("FAILED: 规模 " + size + " 前缀 " + prefix + " 结果不一致");
+                return;
+            }
+
+            long prunedNanos = timePruned(tree, prefix);
+            long scanNanos = timeFullScan(tree, prefix);
+            System.out.printf("规模 %-8d 前缀 %-4s 命中 %-7d 剪枝 %10.1f us  全量扫描 %10.1f us  加速 %.1fx%n",
+                    size, prefix, pruned.size(),
+                    prunedNanos / 1000.0, scanNanos / 1000.0, (double) scanNanos / Math.max(1, prunedNanos));
+        }
+    }
+
+    private static long timePruned(AVLTree tree, String prefix) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            tree.searchByPrefix(prefix);
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+
+    private static long timeFullScan(AVLTree tree, String prefix) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            fullScan(tree, prefix);
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+
+    /**
+     * 全量扫描：遍历全部联系人逐个做前缀匹配（优化前的行为）
+     */
+    private static List<Contact> fullScan(AVLTree tree, String prefix) {
+        List<Contact> results = new ArrayList<>();
+        for (Contact c : tree.getAllContacts()) {
+            if (c.getName().startsWith(prefix)) {
+                results.add(c);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 随机生成中文姓名构建通讯录
+     */
+    private static AVLTree buildTree(int size, Random random) {
+        AVLTree tree = new AVLTree();
+        for (Contact contact : ContactGenerator.generate(size, random)) {
+            tree.insert(contact);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,73 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import com.addressbook.tree.AVLTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 组合条件查询性能对比
+ * 100万个联系人批量导入后，对比查询规划（选索引取候选再过滤）与报表任务原来的做法
+ * （getAllContacts取出全部联系人后逐个过滤）统计匹配数的耗时
+ */
+public class QueryBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int ROUNDS = 50;
+    private static final int BASELINE_ROUNDS = 5;
+    private static final String[] DOMAINS = {"qq.com", "163.com", "gmail.com", "outlook.com", "sina.com"};
+    private static final String[] DISTRICTS = {"海淀区", "朝阳区", "浦东新区", "天河区", "南山区", "武侯区"};
+
+    public static void main(String[] args) {
+        System.out.println("开始执行组合条件查询性能对比...");
+        Random random = new Random(17);
+        List<Contact> contacts = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            contacts.add(new Contact(ContactGenerator.randomChineseName(random), String.valueOf(13_000_000_000L + i),
+                    "user" + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)],
+                    DISTRICTS[random.nextInt(DISTRICTS.length)] + (char) ('一' + random.nextInt(200)) + "山路"
+                            + random.nextInt(500) + "号"));
+        }
+        AVLTree tree = new AVLTree();
+        tree.bulkLoad(contacts);
+
+        ContactQuery[] queries = {
+            ContactQuery.and(ContactQuery.equalTo(ContactField.NAME, "王伟"), ContactQuery.emailDomain("gmail.com")),
+            ContactQuery.and(ContactQuery.prefix(ContactField.PHONE, "1300012"),
+                    ContactQuery.contains(ContactField.ADDRESS, "海淀")),
+            ContactQuery.and(ContactQuery.contains(ContactField.ADDRESS, "一山路12"),
+                    ContactQuery.prefix(ContactField.NAME, "张")),
+            ContactQuery.or(ContactQuery.equalTo(ContactField.PHONE, "13000123456"),
+                    ContactQuery.prefix(ContactField.EMAIL, "user99999")),
+            ContactQuery.and(ContactQuery.emailDomain("qq.com"), ContactQuery.contains(ContactField.PHONE, "777")),
+        };
+        boolean consistent = true;
+        for (ContactQuery query : queries) {
+            long start = System.nanoTime();
+            int count = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                count = tree.forEachMatch(query, contact -> { });
+            }
+            double plannedMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+            start = System.nanoTime();
+            int expected = 0;
+            for (int i = 0; i < BASELINE_ROUNDS; i++) {
+                expected = 0;
+                for (Contact c : tree.getAllContacts()) {
+                    if (query.matches(c)) {
+                        expected++;
+                    }
+                }
+            }
+            double baselineMillis = (System.nanoTime() - start) / 1_000_000.0 / BASELINE_ROUNDS;
+
+            consistent &= count == expected;
+            System.out.printf("%s%n  %s%n  命中 %d  规划执行 %.3f ms  全量复制后过滤 %.1f ms%n",
+                    query, tree.explain(query), count, plannedMillis, baselineMillis);
+        }
+        System.out.println(consistent ? "结果一致" : "FAILED: 查询结果不一致");
+    }
+}
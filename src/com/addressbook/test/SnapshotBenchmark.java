@@ -0,0 +1,131 @@
+package com.addressbook.test;
+
+import com.addressbook.model.Contact;
+import com.addressbook.service.AddressBookService;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 快照格式性能对比
+ * 对比二进制快照与CSV、JSON（每行一个对象）文本格式的保存耗时、加载耗时和文件大小。
+ * 文本格式的加载同样使用批量导入，差异主要来自解析开销
+ */
+public class SnapshotBenchmark {
+    private static final int SIZE = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("开始执行快照格式性能对比...");
+        AddressBookService service = new AddressBookService();
+        List<Contact> contacts = new ArrayList<>(SIZE);
+        Random random = new Random(3);
+        for (Contact c : ContactGenerator.generate(SIZE, random)) {
+            contacts.add(new Contact(c.getName(), c.getPhone(), "user" + random.nextInt(SIZE) + "@email.com",
+                    "城市" + random.nextInt(300) + "区"));
+        }
+        service.importAll(contacts);
+
+        Path binary = Files.createTempFile("addressbook", ".snapshot");
+        Path csv = Files.createTempFile("addressbook", ".csv");
+        Path json = Files.createTempFile("addressbook", ".jsonl");
+
+        long binarySave = time(() -> service.saveSnapshot(binary));
+        long csvSave = time(() -> writeText(service, csv, false));
+        long jsonSave = time(() -> writeText(service, json, true));
+
+        AddressBookService[] loaded = new AddressBookService[3];
+        long binaryLoad = time(() -> {
+            loaded[0] = new AddressBookService();
+            loaded[0].loadSnapshot(binary);
+        });
+        long csvLoad = time(() -> {
+            loaded[1] = new AddressBookService();
+            loaded[1].importAll(readText(csv, false));
+        });
+        long jsonLoad = time(() -> {
+            loaded[2] = new AddressBookService();
+            loaded[2].importAll(readText(json, true));
+        });
+
+        boolean consistent = true;
+        for (AddressBookService book : loaded) {
+            consistent &= book.getContactCount() == SIZE;
+        }
+        System.out.printf("二进制快照 保存 %5d ms  加载 %5d ms  大小 %6.1f MB%n", binarySave, binaryLoad, megabytes(binary));
+        System.out.printf("CSV        保存 %5d ms  加载 %5d ms  大小 %6.1f MB%n", csvSave, csvLoad, megabytes(csv));
+        System.out.printf("JSON       保存 %5d ms  加载 %5d ms  大小 %6.1f MB%n", jsonSave, jsonLoad, megabytes(json));
+        System.out.println(consistent ? "结果一致" : "FAILED: 加载后联系人数不一致");
+        Files.delete(binary);
+        Files.delete(csv);
+        Files.delete(json);
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * 执行两次，第一次用于预热，返回第二次的耗时（毫秒）
+     */
+    private static long time(IoAction action) throws IOException {
+        action.run();
+        long start = System.nanoTime();
+        action.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static double megabytes(Path file) throws IOException {
+        return Files.size(file) / 1024.0 / 1024.0;
+    }
+
+    /**
+     * 写出文本格式，测试数据不含逗号和引号，无需转义
+     */
+    private static void writeText(AddressBookService service, Path file, boolean json) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Contact c : service.getAllContacts()) {
+                if (json) {
+                    writer.write("{\"name\":\"" + c.getName() + "\",\"phone\":\"" + c.getPhone() + "\",\"email\":\""
+                            + c.getEmail() + "\",\"address\":\"" + c.getAddress() + "\"}");
+                } else {
+                    writer.write(c.getName() + "," + c.getPhone() + "," + c.getEmail() + "," + c.getAddress());
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static List<Contact> readText(Path file, boolean json) throws IOException {
+        List<Contact> contacts = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = json ? parseJsonLine(line) : line.split(",", -1);
+                contacts.add(new Contact(fields[0], fields[1], fields[2], fields[3]));
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * 解析形如 {"k":"v",...} 的单行对象，按出现顺序返回各字段值
+     */
+    private static String[] parseJsonLine(String line) {
+        String[] values = new String[4];
+        int index = 0;
+        int pos = 0;
+        while (index < values.length) {
+            int colon = line.indexOf("\":\"", pos);
+            int end = line.indexOf('"', colon + 3);
+            values[index++] = line.substring(colon + 3, end);
+            pos = end + 1;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,108 @@
+package com.addressbook.test;
+
+import com.addressbook.gui.ContactCellRenderer;
+import com.addressbook.gui.ContactTableModel;
+import com.addressbook.model.Contact;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 表格单元格渲染性能对比（无界面模式）
+ * 模拟把10万行联系人从头滚动到尾：逐个单元格取值、渲染并绘制到离屏图像，
+ * 对比原来的HTML单元格（每次拼接HTML再由Swing解析）与按列样式渲染纯文本的耗时和内存分配
+ */
+public class TableRenderBenchmark {
+    private static final int ROWS = 100_000;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("开始执行表格渲染性能对比...");
+        List<Contact> contacts = ContactGenerator.generate(ROWS, new Random(5));
+        ContactTableModel model = new ContactTableModel();
+        model.setContacts(contacts);
+        JTable table = new JTable(model);
+        table.setFont(new Font("微软雅黑", Font.PLAIN, 14));
+        table.setRowHeight(55);
+        table.setSize(800, 55 * 12);
+
+        TableCellRenderer html = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                    boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(table, toHtml(value, column), isSelected,
+                        hasFocus, row, column);
+                JComponent jc = (JComponent) c;
+                jc.setBorder(BorderFactory.createCompoundBorder(
+                        BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(240, 240, 240)),
+                        new EmptyBorder(0, 15, 0, 15)));
+                return c;
+            }
+        };
+        TableCellRenderer plain = new ContactCellRenderer(ContactCellRenderer.Style.NAME,
+                ContactCellRenderer.Style.PHONE, ContactCellRenderer.Style.EMAIL, ContactCellRenderer.Style.ADDRESS);
+
+        // 先各跑一遍预热
+        scroll(table, html, ROWS / 10);
+        scroll(table, plain, ROWS / 10);
+        measure("HTML单元格", table, html);
+        measure("纯文本渲染器", table, plain);
+        System.out.println("表格渲染性能对比执行完毕!");
+    }
+
+    /**
+     * 原表格模型生成的HTML
+     */
+    private static String toHtml(Object value, int column) {
+        switch (column) {
+            case 0:
+                return "<html><body style='padding:5px;'><b>" + value + "</b></body></html>";
+            case 1:
+                return "<html><body style='padding:5px;'><span style='color:#34495e;'>📞 " + value + "</span></body></html>";
+            case 2:
+                return "<html><body style='padding:5px;'><span style='color:#7f8c8d;'>✉ " + value + "</span></body></html>";
+            default:
+                return "<html><body style='padding:5px;line-height:1.5;'><span style='color:#95a5a6;'>🏠 " + value
+                        + "</span></body></html>";
+        }
+    }
+
+    private static void measure(String label, JTable table, TableCellRenderer renderer) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        scroll(table, renderer, ROWS);
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%s  %d 行 x %d 列  耗时 %d ms  平均每行 %.1f us  分配 %.0f MB（每行 %.0f 字节）%n",
+                label, ROWS, table.getColumnCount(), nanos / 1_000_000, nanos / 1000.0 / ROWS,
+                allocated / 1024.0 / 1024.0, (double) allocated / ROWS);
+    }
+
+    /**
+     * 依次绘制前rows行的每个单元格，与JTable绘制可视区域时的调用方式相同
+     */
+    private static void scroll(JTable table, TableCellRenderer renderer, int rows) {
+        int width = 200;
+        int height = table.getRowHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < table.getColumnCount(); column++) {
+                Object value = table.getValueAt(row, column);
+                Component c = renderer.getTableCellRendererComponent(table, value, false, false, row, column);
+                c.setBounds(0, 0, width, height);
+                c.paint(g);
+            }
+        }
+        g.dispose();
+    }
+}
@@ -2,15 +2,39 @@ package com.addressbook.tree;
 
 import com.addressbook.model.BSTNode;
 import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AVL平衡二叉搜索树实现类
  * 支持联系人的增删改查、遍历、前缀模糊查询等功能
+ * 自身可作为按姓名升序的联系人序列进行迭代。姓名顺序由NameCollation定义（汉字按拼音），
+ * 每个节点保存插入时算好的排序键，树中的比较都是排序键之间的比较。
+ * 另维护电话到联系人的哈希索引、电话数字前缀树、姓名拼音索引和n-gram子串索引，随增删改同步更新，
+ * 电话号码在整棵树内唯一；因此不应通过setter直接修改树中联系人的电话、邮箱或地址，而应调用update
  */
-public class AVLTree {
+public class AVLTree implements ContactTree {
     private BSTNode root; // 树的根节点
+    private final Map<String, Contact> phoneIndex = new HashMap<>(); // 电话 -> 联系人
+    private PhoneTrie phoneTrie = new PhoneTrie(); // 电话数字前缀树
+    private PinyinIndex pinyinIndex = new PinyinIndex(); // 姓名拼音索引
+    private NGramIndex ngramIndex = new NGramIndex(); // 姓名、邮箱、地址的子串索引
 
     /**
      * 构造函数
@@ -27,11 +51,20 @@ public class AVLTree {
     }
 
     /**
-     * 更新节点高度
+     * 获取子树联系人总数
      */
-    private void updateHeight(BSTNode node) {
+    private int getSize(BSTNode node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * 更新节点高度及子树联系人总数
+     * 子节点信息必须已是最新，因此需自底向上调用
+     */
+    private void updateNode(BSTNode node) {
         if (node != null) {
             node.setHeight(Math.max(getHeight(node.getLeft()), getHeight(node.getRight())) + 1);
+            node.setSize(getSize(node.getLeft()) + getSize(node.getRight()) + node.getContacts().size());
         }
     }
 
@@ -53,9 +86,9 @@ public class AVLTree {
         x.setRight(y);
         y.setLeft(T2);
 
-        // 更新高度
-        updateHeight(y);
-        updateHeight(x);
+        // 更新高度和子树联系人数
+        updateNode(y);
+        updateNode(x);
 
         return x;
     }
@@ -71,73 +104,93 @@ public class AVLTree {
         y.setLeft(x);
         x.setRight(T2);
 
-        // 更新高度
-        updateHeight(x);
-        updateHeight(y);
+        // 更新高度和子树联系人数
+        updateNode(x);
+        updateNode(y);
 
         return y;
     }
 
     /**
      * 插入联系人（公共方法）
+     *
+     * @throws IllegalArgumentException 如果姓名为空或电话已被使用
      */
     public void insert(Contact contact) {
         if (contact == null || contact.getName() == null || contact.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("联系人或姓名不能为空");
         }
-        root = insertNode(root, contact);
+        String phone = contact.getPhone();
+        if (phone != null) {
+            Contact existing = phoneIndex.get(phone);
+            if (existing != null) {
+                throw duplicatePhone(existing, contact);
+            }
+        }
+        root = insertNode(root, contact, NameCollation.sortKey(contact.getName()));
+        if (phone != null) {
+            phoneIndex.put(phone, contact);
+            phoneTrie.insert(contact);
+        }
+        pinyinIndex.insert(contact);
+        ngramIndex.insert(contact);
+    }
+
+    /**
+     * 电话重复的异常：同名时沿用“联系人已存在”的提示
+     */
+    static IllegalArgumentException duplicatePhone(Contact existing, Contact contact) {
+        if (existing.getName().equals(contact.getName())) {
+            return new IllegalArgumentException("联系人已存在：" + contact.getName() + " (" + contact.getPhone() + ")");
+        }
+        return new IllegalArgumentException("电话已被联系人 " + existing.getName() + " 使用：" + contact.getPhone());
     }
 
     /**
      * 插入节点（私有递归方法）
      */
-    private BSTNode insertNode(BSTNode node, Contact contact) {
+    private BSTNode insertNode(BSTNode node, Contact contact, String sortKey) {
         // 标准BST插入
         if (node == null) {
-            return new BSTNode(contact.getName(), contact);
+            return new BSTNode(contact.getName(), sortKey, contact);
         }
 
-        int cmp = contact.getName().compareTo(node.getKey());
+        int cmp = sortKey.compareTo(node.getSortKey());
         if (cmp < 0) {
-            node.setLeft(insertNode(node.getLeft(), contact));
+            node.setLeft(insertNode(node.getLeft(), contact, sortKey));
         } else if (cmp > 0) {
-            node.setRight(insertNode(node.getRight(), contact));
+            node.setRight(insertNode(node.getRight(), contact, sortKey));
         } else {
-            // 姓名相同，检查是否已存在相同电话的联系人
-            for (Contact c : node.getContacts()) {
-                if (c.getPhone().equals(contact.getPhone())) {
-                    throw new IllegalArgumentException("联系人已存在：" + contact.getName() + " (" + contact.getPhone() + ")");
-                }
-            }
-            // 没有重复，添加到同名链表中
+            // 姓名相同，电话已由索引查重，直接添加到同名联系人桶中
             node.addContact(contact);
+            updateNode(node);
             return node;
         }
 
-        // 更新高度
-        updateHeight(node);
+        // 更新高度和子树联系人数
+        updateNode(node);
 
         // 获取平衡因子
         int balance = getBalanceFactor(node);
 
         // 左左情况
-        if (balance > 1 && contact.getName().compareTo(node.getLeft().getKey()) < 0) {
+        if (balance > 1 && sortKey.compareTo(node.getLeft().getSortKey()) < 0) {
             return rightRotate(node);
         }
 
         // 右右情况
-        if (balance < -1 && contact.getName().compareTo(node.getRight().getKey()) > 0) {
+        if (balance < -1 && sortKey.compareTo(node.getRight().getSortKey()) > 0) {
             return leftRotate(node);
         }
 
         // 左右情况
-        if (balance > 1 && contact.getName().compareTo(node.getLeft().getKey()) > 0) {
+        if (balance > 1 && sortKey.compareTo(node.getLeft().getSortKey()) > 0) {
             node.setLeft(leftRotate(node.getLeft()));
             return rightRotate(node);
         }
 
         // 右左情况
-        if (balance < -1 && contact.getName().compareTo(node.getRight().getKey()) < 0) {
+        if (balance < -1 && sortKey.compareTo(node.getRight().getSortKey()) < 0) {
             node.setRight(rightRotate(node.getRight()));
             return leftRotate(node);
         }
@@ -145,6 +198,109 @@ public class AVLTree {
         return node;
     }
 
+    /**
+     * 批量导入联系人
+     * 将新联系人排序后与树中已有联系人（本身有序）归并，同名联系人归入同一节点，
+     * 再自底向上构建完全平衡的树，排序之外的部分为线性时间，无需逐个插入和旋转。
+     * 电话与树中或本批中其他联系人重复时抛出异常且树保持不变
+     */
+    public void bulkLoad(Collection<Contact> contacts) {
+        if (contacts == null) {
+            throw new IllegalArgumentException("联系人集合不能为空");
+        }
+        List<Contact> batch = new ArrayList<>(contacts);
+        for (Contact contact : batch) {
+            if (contact == null || contact.getName() == null || contact.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("联系人或姓名不能为空");
+            }
+        }
+        // 先按输入顺序查重，再修改树，保证失败时树不变
+        Map<String, Contact> added = new HashMap<>();
+        for (Contact contact : batch) {
+            String phone = contact.getPhone();
+            if (phone != null) {
+                Contact existing = phoneIndex.get(phone);
+                if (existing == null) {
+                    existing = added.putIfAbsent(phone, contact);
+                }
+                if (existing != null) {
+                    throw duplicatePhone(existing, contact);
+                }
+            }
+        }
+        // 每个联系人只算一次排序键，稳定排序，同名联系人保持输入顺序
+        List<Keyed> incoming = new ArrayList<>(batch.size());
+        for (Contact contact : batch) {
+            incoming.add(new Keyed(NameCollation.sortKey(contact.getName()), contact));
+        }
+        incoming.sort(Comparator.comparing(keyed -> keyed.sortKey));
+
+        List<BSTNode> nodes = mergeIntoNodes(incoming);
+        root = buildBalanced(nodes, 0, nodes.size() - 1);
+        phoneIndex.putAll(added);
+        for (Contact contact : added.values()) {
+            phoneTrie.insert(contact);
+        }
+        for (Keyed keyed : incoming) {
+            pinyinIndex.insert(keyed.contact);
+            ngramIndex.insert(keyed.contact);
+        }
+    }
+
+    /**
+     * 带排序键的联系人
+     */
+    private static final class Keyed {
+        final String sortKey;
+        final Contact contact;
+
+        Keyed(String sortKey, Contact contact) {
+            this.sortKey = sortKey;
+            this.contact = contact;
+        }
+    }
+
+    /**
+     * 把树中已有节点（中序有序）与按排序键有序的新联系人归并，新联系人归入同名的已有节点或按姓名分组为新节点
+     */
+    private List<BSTNode> mergeIntoNodes(List<Keyed> incoming) {
+        List<BSTNode> existing = new ArrayList<>();
+        new NodeIterator(root, TraversalOrder.INORDER).forEachRemaining(existing::add);
+        List<BSTNode> nodes = new ArrayList<>(existing.size() + incoming.size());
+        int i = 0;
+        int j = 0;
+        while (i < existing.size() || j < incoming.size()) {
+            if (j >= incoming.size() || (i < existing.size()
+                    && existing.get(i).getSortKey().compareTo(incoming.get(j).sortKey) <= 0)) {
+                nodes.add(existing.get(i++));
+                continue;
+            }
+            Keyed next = incoming.get(j++);
+            BSTNode last = nodes.isEmpty() ? null : nodes.get(nodes.size() - 1);
+            if (last != null && last.getSortKey().equals(next.sortKey)) {
+                last.addContact(next.contact);
+            } else {
+                nodes.add(new BSTNode(next.contact.getName(), next.sortKey, next.contact));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 以有序节点数组[lo, hi]的中点为根递归构建平衡树，递归深度为O(log n)
+     */
+    private BSTNode buildBalanced(List<BSTNode> nodes, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        BSTNode node = nodes.get(mid);
+        node.setLeft(buildBalanced(nodes, lo, mid - 1));
+        node.setRight(buildBalanced(nodes, mid + 1, hi));
+        updateNode(node);
+        return node;
+    }
+
     /**
      * 查找最小节点
      */
@@ -157,48 +313,77 @@ public class AVLTree {
 
     /**
      * 删除联系人（公共方法）
+     * 指定电话时先查电话索引，联系人不存在时无需下探树
+     *
+     * @param phone 为null时删除所有同名联系人
      */
     public boolean delete(String name, String phone) {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("姓名不能为空");
         }
+        Contact target = null;
+        if (phone != null) {
+            target = phoneIndex.get(phone);
+            if (target == null || !target.getName().equals(name)) {
+                return false;
+            }
+        } else {
+            BSTNode node = searchNode(root, NameCollation.sortKey(name));
+            if (node == null) {
+                return false;
+            }
+            for (Contact c : node.getContacts()) {
+                unindex(c);
+                pinyinIndex.delete(c);
+                ngramIndex.delete(c);
+            }
+        }
         int[] result = { 0 };
-        root = deleteNode(root, name, phone, result);
+        root = deleteNode(root, NameCollation.sortKey(name), target, result);
+        if (target != null) {
+            phoneIndex.remove(phone);
+            phoneTrie.delete(target);
+            pinyinIndex.delete(target);
+            ngramIndex.delete(target);
+        }
         return result[0] > 0;
     }
 
+    /**
+     * 从电话索引中移除联系人（仅当索引项正指向该联系人）
+     */
+    private void unindex(Contact contact) {
+        if (contact.getPhone() != null && phoneIndex.remove(contact.getPhone(), contact)) {
+            phoneTrie.delete(contact);
+        }
+    }
+
     /**
      * 删除节点（私有递归方法）
+     *
+     * @param target 要删除的联系人，为null时删除所有同名联系人
      */
-    private BSTNode deleteNode(BSTNode node, String name, String phone, int[] result) {
+    private BSTNode deleteNode(BSTNode node, String sortKey, Contact target, int[] result) {
         if (node == null) {
             return null;
         }
 
-        int cmp = name.compareTo(node.getKey());
+        int cmp = sortKey.compareTo(node.getSortKey());
         if (cmp < 0) {
-            node.setLeft(deleteNode(node.getLeft(), name, phone, result));
+            node.setLeft(deleteNode(node.getLeft(), sortKey, target, result));
         } else if (cmp > 0) {
-            node.setRight(deleteNode(node.getRight(), name, phone, result));
+            node.setRight(deleteNode(node.getRight(), sortKey, target, result));
         } else {
             // 找到姓名匹配的节点
-            if (phone != null) {
-                // 删除特定电话号码的联系人
-                Contact toRemove = null;
-                for (Contact c : node.getContacts()) {
-                    if (c.getPhone().equals(phone)) {
-                        toRemove = c;
-                        break;
-                    }
-                }
-                if (toRemove != null) {
-                    node.removeContact(toRemove);
+            if (target != null) {
+                // 删除索引找到的联系人
+                if (node.removeContact(target)) {
                     result[0]++;
                 }
             } else {
                 // 删除所有同名联系人
                 result[0] = node.getContacts().size();
-                node.getContacts().clear();
+                node.clearContacts();
             }
 
             // 如果节点没有联系人了，需要删除该节点
@@ -212,17 +397,17 @@ public class AVLTree {
 
                 // 有两个子节点的情况
                 BSTNode minNode = findMin(node.getRight());
-                node.setKey(minNode.getKey());
-                node.getContacts().clear();
-                node.getContacts().addAll(minNode.getContacts());
-                node.setRight(deleteNode(node.getRight(), minNode.getKey(), null, new int[] { 0 }));
+                node.setKey(minNode.getKey(), minNode.getSortKey());
+                node.takeContactsFrom(minNode);
+                node.setRight(deleteNode(node.getRight(), minNode.getSortKey(), null, new int[] { 0 }));
             } else {
+                updateNode(node);
                 return node;
             }
         }
 
-        // 更新高度
-        updateHeight(node);
+        // 更新高度和子树联系人数
+        updateNode(node);
 
         // 获取平衡因子
         int balance = getBalanceFactor(node);
@@ -259,23 +444,23 @@ public class AVLTree {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("姓名不能为空");
         }
-        BSTNode node = searchNode(root, name);
+        BSTNode node = searchNode(root, NameCollation.sortKey(name));
         return node == null ? new ArrayList<>() : node.getAllContacts();
     }
 
     /**
      * 查找节点（私有递归方法）
      */
-    private BSTNode searchNode(BSTNode node, String name) {
+    private BSTNode searchNode(BSTNode node, String sortKey) {
         if (node == null) {
             return null;
         }
 
-        int cmp = name.compareTo(node.getKey());
+        int cmp = sortKey.compareTo(node.getSortKey());
         if (cmp < 0) {
-            return searchNode(node.getLeft(), name);
+            return searchNode(node.getLeft(), sortKey);
         } else if (cmp > 0) {
-            return searchNode(node.getRight(), name);
+            return searchNode(node.getRight(), sortKey);
         } else {
             return node;
         }
@@ -289,38 +474,141 @@ public class AVLTree {
             throw new IllegalArgumentException("前缀不能为空");
         }
         List<Contact> results = new ArrayList<>();
-        searchByPrefixHelper(root, prefix, results);
+        searchByPrefixHelper(root, NameCollation.sortKey(prefix), results);
         return results;
     }
 
     /**
      * 前缀模糊查询辅助方法
+     * 利用BST有序性剪枝：所有以prefix开头的键构成一段连续区间（排序键逐字符映射，保持前缀关系），
+     * 键小于prefix时左子树必然不匹配，键大于prefix且不以其开头时右子树必然不匹配，
+     * 因此只下探可能与区间重叠的子树，复杂度为O(log n + k)。
+     * 使用显式栈做剪枝中序遍历，栈中只保存命中前缀的祖先节点
      */
     private void searchByPrefixHelper(BSTNode node, String prefix, List<Contact> results) {
-        if (node == null) {
-            return;
+        Deque<BSTNode> stack = new ArrayDeque<>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                String key = node.getSortKey();
+                if (key.startsWith(prefix)) {
+                    // 当前键落在区间内，左右子树都可能有匹配项
+                    stack.push(node);
+                    node = node.getLeft();
+                } else if (key.compareTo(prefix) < 0) {
+                    // 当前键位于区间左侧，只需查找右子树
+                    node = node.getRight();
+                } else {
+                    // 当前键位于区间右侧，只需查找左子树
+                    node = node.getLeft();
+                }
+            }
+            if (stack.isEmpty()) {
+                break;
+            }
+            node = stack.pop();
+            results.addAll(node.getContacts());
+            node = node.getRight();
         }
+    }
 
-        // 中序遍历查找所有匹配前缀的节点
-        searchByPrefixHelper(node.getLeft(), prefix, results);
+    /**
+     * 模糊查找：姓名与name的编辑距离（插入、删除、替换各计1）不超过maxEdits的联系人，
+     * 按距离升序返回，距离相同时按姓名升序
+     * 沿有序的键逐个模拟Levenshtein自动机：为当前键的每个前缀维护一行动态规划，
+     * 相邻键共享前缀部分的行直接复用；某个前缀的行最小值已达到maxEdits时，下一个字符只能取name中的少数几个，
+     * 不满足时直接跳到下一个可行前缀开头的键（O(log n)），因此只访问可能匹配的前缀。
+     * 排序键与姓名逐字符一一对应，编辑距离不变，因此整个过程直接在排序键上进行
+     */
+    public List<Contact> searchFuzzy(String name, int maxEdits) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("编辑距离不能为负数");
+        }
+        name = NameCollation.sortKey(name);
+        int m = name.length();
+        List<List<BSTNode>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxEdits; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        int[][] rows = new int[8][]; // rows[j]为当前键前j个字符与name各前缀的编辑距离
+        int[] mins = new int[8];     // mins[j]为rows[j]的最小值
+        rows[0] = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            rows[0][i] = i;
+        }
+        String previous = "";
+        int computed = 0; // rows[0..computed]对previous有效
+        BSTNode node = root == null ? null : findMin(root);
+        while (node != null) {
+            String key = node.getSortKey();
+            int j = Math.min(computed, commonPrefixLength(previous, key));
+            int pruned = -1;
+            for (; j < key.length(); j++) {
+                char c = key.charAt(j);
+                if (mins[j] == maxEdits && !canContinue(rows[j], c, name, maxEdits)) {
+                    pruned = j;
+                    break;
+                }
+                if (j + 1 == rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                    mins = Arrays.copyOf(mins, rows.length);
+                }
+                if (rows[j + 1] == null) {
+                    rows[j + 1] = new int[m + 1];
+                }
+                mins[j + 1] = nextRow(rows[j], rows[j + 1], c, name);
+            }
+            previous = key;
+            if (pruned >= 0) {
+                // 前缀的行最小值已等于maxEdits，下一个字符必须与name中某个仍在范围内的字符相同，
+                // 直接跳到以“前缀+大于当前字符的最小可行字符”开头的第一个键
+                computed = pruned;
+                char next = nextAllowedChar(rows[pruned], key.charAt(pruned), name, maxEdits);
+                node = ceilingNode(key.substring(0, pruned) + next);
+            } else {
+                computed = key.length();
+                int distance = rows[key.length()][m];
+                if (distance <= maxEdits) {
+                    byDistance.get(distance).add(node);
+                }
+                node = ceilingNode(key + '\0');
+            }
+        }
 
-        if (node.getKey().startsWith(prefix)) {
-            results.addAll(node.getAllContacts());
+        List<Contact> results = new ArrayList<>();
+        for (List<BSTNode> nodes : byDistance) {
+            for (BSTNode n : nodes) {
+                results.addAll(n.getContacts());
+            }
         }
+        return results;
+    }
 
-        searchByPrefixHelper(node.getRight(), prefix, results);
+    /**
+     * 由上一行计算键追加字符c后的一行编辑距离
+     *
+     * @return 新行的最小值
+     */
+    private static int nextRow(int[] previous, int[] row, char c, String name) {
+        row[0] = previous[0] + 1;
+        int min = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int cost = name.charAt(i - 1) == c ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            min = Math.min(min, row[i]);
+        }
+        return min;
     }
 
     /**
-     * 更新联系人信息
+     * 行最小值等于maxEdits时，追加字符c后距离仍不超过maxEdits的唯一途径是与name第i个字符匹配
+     * 且row[i - 1]不超过maxEdits
      */
-    public boolean update(String name, String phone, Contact newContact) {
-        List<Contact> contacts = search(name);
-        for (Contact c : contacts) {
-            if (c.getPhone().equals(phone)) {
-                c.setPhone(newContact.getPhone());
-                c.setEmail(newContact.getEmail());
-                c.setAddress(newContact.getAddress());
+    private static boolean canContinue(int[] row, char c, String name, int maxEdits) {
+        for (int i = 1; i < row.length; i++) {
+            if (row[i - 1] <= maxEdits && name.charAt(i - 1) == c) {
                 return true;
             }
         }
@@ -328,108 +616,498 @@ public class AVLTree {
     }
 
     /**
-     * 中序遍历（升序输出）
+     * 大于c且满足canContinue的最小字符，不存在时返回Character.MAX_VALUE（跳过整个前缀）
      */
-    public void inorderTraversal() {
-        System.out.println("\n=== 中序遍历（升序） ===");
-        inorderHelper(root);
+    private static char nextAllowedChar(int[] row, char c, String name, int maxEdits) {
+        char next = Character.MAX_VALUE;
+        for (int i = 1; i < row.length; i++) {
+            char candidate = name.charAt(i - 1);
+            if (row[i - 1] <= maxEdits && candidate > c && candidate < next) {
+                next = candidate;
+            }
+        }
+        return next;
     }
 
-    private void inorderHelper(BSTNode node) {
-        if (node != null) {
-            inorderHelper(node.getLeft());
-            for (Contact c : node.getAllContacts()) {
-                System.out.println(c);
+    private static int commonPrefixLength(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 查找排序键不小于sortKey的最小节点
+     */
+    private BSTNode ceilingNode(String sortKey) {
+        BSTNode node = root;
+        BSTNode ceiling = null;
+        while (node != null) {
+            int cmp = sortKey.compareTo(node.getSortKey());
+            if (cmp == 0) {
+                return node;
+            } else if (cmp < 0) {
+                ceiling = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
             }
-            inorderHelper(node.getRight());
         }
+        return ceiling;
     }
 
     /**
-     * 前序遍历
+     * 更新联系人信息
+     * 通过电话索引直接定位联系人，不遍历同名联系人
+     *
+     * @throws IllegalArgumentException 如果新电话已被其他联系人使用
      */
-    public void preorderTraversal() {
-        System.out.println("\n=== 前序遍历 ===");
-        preorderHelper(root);
+    public boolean update(String name, String phone, Contact newContact) {
+        Contact c = phone == null ? null : phoneIndex.get(phone);
+        if (c == null || !c.getName().equals(name)) {
+            return false;
+        }
+        String newPhone = newContact.getPhone();
+        if (!phone.equals(newPhone)) {
+            Contact existing = newPhone == null ? null : phoneIndex.get(newPhone);
+            if (existing != null) {
+                throw duplicatePhone(existing, new Contact(name, newPhone, null, null));
+            }
+            phoneIndex.remove(phone);
+            phoneTrie.delete(c);
+            searchNode(root, NameCollation.sortKey(name)).getBucket().changePhone(c, newPhone);
+            if (newPhone != null) {
+                phoneIndex.put(newPhone, c);
+                phoneTrie.insert(c);
+            }
+        }
+        if (!Objects.equals(c.getEmail(), newContact.getEmail())
+                || !Objects.equals(c.getAddress(), newContact.getAddress())) {
+            c.setEmail(newContact.getEmail());
+            c.setAddress(newContact.getAddress());
+            ngramIndex.reindex(c);
+        }
+        return true;
     }
 
-    private void preorderHelper(BSTNode node) {
-        if (node != null) {
-            for (Contact c : node.getAllContacts()) {
-                System.out.println(c);
+    /**
+     * 按电话精确查找联系人（哈希索引，O(1)）
+     *
+     * @return 联系人，不存在时返回null
+     */
+    public Contact searchByPhone(String phone) {
+        if (phone == null || phone.trim().isEmpty()) {
+            throw new IllegalArgumentException("电话不能为空");
+        }
+        return phoneIndex.get(phone);
+    }
+
+    /**
+     * 按电话数字前缀查找联系人（拨号盘查询），按号码数字顺序返回至多limit个
+     * 电话中的非数字字符不参与匹配
+     */
+    public List<Contact> searchByPhonePrefix(String digits, int limit) {
+        if (digits == null || digits.trim().isEmpty()) {
+            throw new IllegalArgumentException("电话前缀不能为空");
+        }
+        return phoneTrie.searchByPrefix(digits, limit);
+    }
+
+    /**
+     * 创建电话前缀的增量查询游标，每输入一位只从上一位的位置前进
+     * 游标绑定当前的前缀树，树被restore替换内容后应重新创建
+     */
+    public PhoneTrie.Cursor phoneCursor() {
+        return phoneTrie.cursor();
+    }
+
+    /**
+     * 按姓名拼音前缀查找联系人，全拼和首字母均可匹配（如"zhangs"、"zs"），按拼音顺序返回至多limit个
+     */
+    public List<Contact> searchByPinyin(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new IllegalArgumentException("拼音前缀不能为空");
+        }
+        return pinyinIndex.searchByPrefix(prefix, limit);
+    }
+
+    /**
+     * 查找字段值包含text（不区分大小写）的联系人，支持姓名、邮箱和地址，按加入先后顺序返回至多limit个
+     */
+    public List<Contact> searchContains(ContactField field, String text, int limit) {
+        if (field == null || text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("查找字段和内容不能为空");
+        }
+        return ngramIndex.searchContains(field, text, limit);
+    }
+
+    /**
+     * 按组合条件查询联系人，按姓名顺序返回至多limit个
+     * 由查询规划选择估计候选最少的索引，其余条件在候选上过滤；没有合适的索引时沿中序遍历逐个过滤
+     */
+    public List<Contact> query(ContactQuery query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("结果数量不能为负数");
+        }
+        List<Contact> results = new ArrayList<>();
+        planner(query).execute(query, limit, results::add);
+        return results;
+    }
+
+    /**
+     * 按姓名顺序把满足条件的联系人逐个交给action，不生成结果列表
+     *
+     * @return 满足条件的联系人数
+     */
+    public int forEachMatch(ContactQuery query, Consumer<Contact> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("处理函数不能为空");
+        }
+        return planner(query).execute(query, Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * 说明查询将如何执行：选用的索引及估计的候选数，或需要遍历
+     */
+    public String explain(ContactQuery query) {
+        return planner(query).explain(query);
+    }
+
+    private QueryPlanner planner(ContactQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("查询条件不能为空");
+        }
+        return new QueryPlanner(this, phoneIndex, phoneTrie, ngramIndex);
+    }
+
+    /**
+     * 按指定顺序遍历所有联系人
+     * 使用显式栈迭代实现，直接把节点中的联系人交给visitor，不复制同名联系人
+     */
+    public void traverse(TraversalOrder order, Consumer<Contact> visitor) {
+        if (order == null || visitor == null) {
+            throw new IllegalArgumentException("遍历顺序和访问器不能为空");
+        }
+        NodeIterator nodes = new NodeIterator(root, order);
+        while (nodes.hasNext()) {
+            for (Contact c : nodes.next().getContacts()) {
+                visitor.accept(c);
             }
-            preorderHelper(node.getLeft());
-            preorderHelper(node.getRight());
         }
     }
 
     /**
-     * 后序遍历
+     * 按指定顺序遍历树节点，供快照等需要树形结构的序列化使用
+     * 调用方只能读取节点，不得修改
      */
-    public void postorderTraversal() {
-        System.out.println("\n=== 后序遍历 ===");
-        postorderHelper(root);
+    public void traverseNodes(TraversalOrder order, Consumer<BSTNode> visitor) {
+        if (order == null || visitor == null) {
+            throw new IllegalArgumentException("遍历顺序和访问器不能为空");
+        }
+        NodeIterator nodes = new NodeIterator(root, order);
+        while (nodes.hasNext()) {
+            visitor.accept(nodes.next());
+        }
     }
 
-    private void postorderHelper(BSTNode node) {
-        if (node != null) {
-            postorderHelper(node.getLeft());
-            postorderHelper(node.getRight());
-            for (Contact c : node.getAllContacts()) {
-                System.out.println(c);
+    /**
+     * 用已构建好的节点结构替换当前全部内容（快照加载用），无需逐个插入和旋转
+     * 调用方负责设置各节点的高度和子树计数
+     *
+     * @throws IllegalArgumentException 如果结构不满足AVL树不变量
+     */
+    public void restore(BSTNode newRoot) {
+        if (checkSubtree(newRoot, null, null) < 0) {
+            throw new IllegalArgumentException("节点结构不满足AVL树不变量");
+        }
+        Map<String, Contact> index = new HashMap<>(getSize(newRoot) / 3 * 4 + 16);
+        PinyinIndex pinyin = new PinyinIndex();
+        NGramIndex ngram = new NGramIndex();
+        NodeIterator nodes = new NodeIterator(newRoot, TraversalOrder.INORDER);
+        while (nodes.hasNext()) {
+            for (Contact c : nodes.next().getContacts()) {
+                if (c.getPhone() != null && index.putIfAbsent(c.getPhone(), c) != null) {
+                    throw new IllegalArgumentException("电话号码重复：" + c.getPhone());
+                }
+                pinyin.insert(c);
+                ngram.insert(c);
             }
         }
+        PhoneTrie trie = new PhoneTrie();
+        for (Contact c : index.values()) {
+            trie.insert(c);
+        }
+        root = newRoot;
+        phoneIndex.clear();
+        phoneIndex.putAll(index);
+        phoneTrie = trie;
+        pinyinIndex = pinyin;
+        ngramIndex = ngram;
+    }
+
+    /**
+     * 中序遍历（升序输出）
+     */
+    public void inorderTraversal() {
+        System.out.println("\n=== 中序遍历（升序） ===");
+        traverse(TraversalOrder.INORDER, System.out::println);
+    }
+
+    /**
+     * 前序遍历
+     */
+    public void preorderTraversal() {
+        System.out.println("\n=== 前序遍历 ===");
+        traverse(TraversalOrder.PREORDER, System.out::println);
+    }
+
+    /**
+     * 后序遍历
+     */
+    public void postorderTraversal() {
+        System.out.println("\n=== 后序遍历 ===");
+        traverse(TraversalOrder.POSTORDER, System.out::println);
     }
 
     /**
      * 获取前序遍历联系人列表
      */
     public List<Contact> getPreorderContacts() {
-        List<Contact> contacts = new ArrayList<>();
-        getPreorderContactsHelper(root, contacts);
+        return collect(TraversalOrder.PREORDER);
+    }
+
+    /**
+     * 获取后序遍历联系人列表
+     */
+    public List<Contact> getPostorderContacts() {
+        return collect(TraversalOrder.POSTORDER);
+    }
+
+    /**
+     * 获取层序遍历联系人列表
+     */
+    public List<Contact> getLevelOrderContacts() {
+        return collect(TraversalOrder.LEVEL_ORDER);
+    }
+
+    /**
+     * 获取树中所有联系人
+     */
+    public List<Contact> getAllContacts() {
+        return collect(TraversalOrder.INORDER);
+    }
+
+    /**
+     * 按指定顺序把所有联系人收集到预分配容量的列表中
+     */
+    private List<Contact> collect(TraversalOrder order) {
+        List<Contact> contacts = new ArrayList<>(size());
+        traverse(order, contacts::add);
         return contacts;
     }
 
-    private void getPreorderContactsHelper(BSTNode node, List<Contact> contacts) {
-        if (node != null) {
-            contacts.addAll(node.getAllContacts());
-            getPreorderContactsHelper(node.getLeft(), contacts);
-            getPreorderContactsHelper(node.getRight(), contacts);
+    /**
+     * 按姓名升序惰性迭代所有联系人
+     */
+    @Override
+    public Iterator<Contact> iterator() {
+        return new ContactIterator(new NodeIterator(root, TraversalOrder.INORDER));
+    }
+
+    /**
+     * 获取指定遍历顺序的惰性联系人视图，每次迭代时才沿树推进
+     */
+    public Iterable<Contact> iterable(TraversalOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("遍历顺序不能为空");
         }
+        return () -> new ContactIterator(new NodeIterator(root, order));
     }
 
     /**
-     * 获取后序遍历联系人列表
+     * 按姓名升序的可拆分迭代器
      */
-    public List<Contact> getPostorderContacts() {
-        List<Contact> contacts = new ArrayList<>();
-        getPostorderContactsHelper(root, contacts);
-        return contacts;
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return spliterator(TraversalOrder.INORDER);
     }
 
-    private void getPostorderContactsHelper(BSTNode node, List<Contact> contacts) {
-        if (node != null) {
-            getPostorderContactsHelper(node.getLeft(), contacts);
-            getPostorderContactsHelper(node.getRight(), contacts);
-            contacts.addAll(node.getAllContacts());
+    /**
+     * 指定遍历顺序的可拆分迭代器
+     * 前序、中序、后序按子树拆分以支持并行处理；层序无法按子树划分，只能顺序处理
+     */
+    public Spliterator<Contact> spliterator(TraversalOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("遍历顺序不能为空");
+        }
+        if (order == TraversalOrder.LEVEL_ORDER) {
+            return Spliterators.spliterator(new ContactIterator(new NodeIterator(root, order)), size(),
+                    Spliterator.ORDERED | Spliterator.NONNULL);
         }
+        return new ContactSpliterator(root, order);
     }
 
     /**
-     * 获取树中所有联系人
+     * 按姓名升序的联系人流
      */
-    public List<Contact> getAllContacts() {
-        List<Contact> allContacts = new ArrayList<>();
-        getAllContactsHelper(root, allContacts);
-        return allContacts;
+    public Stream<Contact> stream() {
+        return stream(TraversalOrder.INORDER);
     }
 
-    private void getAllContactsHelper(BSTNode node, List<Contact> allContacts) {
-        if (node != null) {
-            getAllContactsHelper(node.getLeft(), allContacts);
-            allContacts.addAll(node.getAllContacts());
-            getAllContactsHelper(node.getRight(), allContacts);
+    /**
+     * 指定遍历顺序的联系人流
+     */
+    public Stream<Contact> stream(TraversalOrder order) {
+        return StreamSupport.stream(spliterator(order), false);
+    }
+
+    /**
+     * 按姓名升序的并行联系人流，按子树拆分到多个线程
+     */
+    public Stream<Contact> parallelStream() {
+        return StreamSupport.stream(spliterator(TraversalOrder.INORDER), true);
+    }
+
+    /**
+     * 获取联系人总数（O(1)，直接读取根节点的子树计数）
+     */
+    public int size() {
+        return getSize(root);
+    }
+
+    /**
+     * 按姓名顺序获取第index个联系人（从0开始）
+     * 借助子树计数逐层定位，复杂度为O(log n)
+     */
+    public Contact select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IllegalArgumentException("索引越界：" + index);
+        }
+        BSTNode node = root;
+        while (node != null) {
+            int leftSize = getSize(node.getLeft());
+            int bucketSize = node.getContacts().size();
+            if (index < leftSize) {
+                node = node.getLeft();
+            } else if (index < leftSize + bucketSize) {
+                return node.getContacts().get(index - leftSize);
+            } else {
+                index -= leftSize + bucketSize;
+                node = node.getRight();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取姓名排在name之前的联系人数量
+     * 即name对应联系人在中序序列中的起始位置，name不存在时为其应插入的位置
+     */
+    public int rank(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        String sortKey = NameCollation.sortKey(name);
+        int rank = 0;
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = sortKey.compareTo(node.getSortKey());
+            if (cmp < 0) {
+                node = node.getLeft();
+            } else if (cmp > 0) {
+                rank += getSize(node.getLeft()) + node.getContacts().size();
+                node = node.getRight();
+            } else {
+                return rank + getSize(node.getLeft());
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 分页获取联系人（按姓名顺序）
+     * 先借助子树计数定位到offset处，再沿中序继续取limit个，复杂度为O(log n + limit)
+     */
+    public List<Contact> getPage(int offset, int limit) {
+        return getPage(TraversalOrder.INORDER, offset, limit);
+    }
+
+    /**
+     * 按指定遍历顺序分页获取联系人
+     * 前序、中序、后序借助子树计数定位起点，复杂度为O(log n + limit)；层序需逐个跳过前面的节点，为O(offset + limit)
+     */
+    public List<Contact> getPage(TraversalOrder order, int offset, int limit) {
+        if (order == null) {
+            throw new IllegalArgumentException("遍历顺序不能为空");
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("分页参数不能为负数");
+        }
+        List<Contact> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        if (limit == 0) {
+            return page;
+        }
+        NodeIterator nodes = new NodeIterator(root, order, offset);
+        int skip = nodes.getStartSkip();
+        while (nodes.hasNext() && page.size() < limit) {
+            Iterator<Contact> it = nodes.next().getBucket().iterator(skip);
+            while (it.hasNext() && page.size() < limit) {
+                page.add(it.next());
+            }
+            skip = 0;
+        }
+        return page;
+    }
+
+    /**
+     * 校验AVL树结构不变量：键严格有序、高度正确、平衡因子在[-1, 1]内、子树计数正确、节点非空，以及各索引与树内容一致
+     * 递归深度等于树高，主要供测试使用
+     */
+    public boolean isValid() {
+        return checkSubtree(root, null, null) >= 0 && isPhoneIndexConsistent()
+                && pinyinIndex.size() == getSize(root) && ngramIndex.size() == getSize(root);
+    }
+
+    /**
+     * 校验电话索引恰好包含树中全部有电话的联系人
+     */
+    private boolean isPhoneIndexConsistent() {
+        int indexed = 0;
+        for (Contact c : this) {
+            if (c.getPhone() != null) {
+                if (phoneIndex.get(c.getPhone()) != c) {
+                    return false;
+                }
+                indexed++;
+            }
+        }
+        return indexed == phoneIndex.size() && phoneTrie.size() == indexed;
+    }
+
+    /**
+     * 校验以node为根、排序键位于(lower, upper)开区间内的子树
+     *
+     * @return 子树高度，不满足不变量时返回-1
+     */
+    private int checkSubtree(BSTNode node, String lower, String upper) {
+        if (node == null) {
+            return 0;
+        }
+        String key = node.getSortKey();
+        if ((lower != null && key.compareTo(lower) <= 0) || (upper != null && key.compareTo(upper) >= 0)
+                || !node.hasContacts() || !key.equals(NameCollation.sortKey(node.getKey()))) {
+            return -1;
+        }
+        int leftHeight = checkSubtree(node.getLeft(), lower, key);
+        int rightHeight = checkSubtree(node.getRight(), key, upper);
+        if (leftHeight < 0 || rightHeight < 0 || Math.abs(leftHeight - rightHeight) > 1) {
+            return -1;
         }
+        int height = Math.max(leftHeight, rightHeight) + 1;
+        int size = getSize(node.getLeft()) + getSize(node.getRight()) + node.getContacts().size();
+        return node.getHeight() == height && node.getSize() == size ? height : -1;
     }
 
     /**
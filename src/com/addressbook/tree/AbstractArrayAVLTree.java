@@ -0,0 +1,1043 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 数组存储的AVL树的公共部分
+ * 与AVLTree的旋转和删除规则相同（同样的操作序列得到同样形状的树），但不创建节点对象：
+ * 节点编号就是数组下标，键及其排序键（见NameCollation）、左右孩子、高度、子树联系人数和同名链表的头尾分别存放在平行数组中；
+ * 同名联系人用条目编号表示，由next数组串成单链表，条目的内容由子类存放（堆内对象数组或堆外记录）。
+ * 删除释放的节点和条目槽位挂入各自的空闲链表（分别复用left和next数组作链接），插入时优先复用，
+ * 数组只在空闲链表为空时按两倍扩容。电话索引是按条目编号存放的开放寻址哈希表。
+ * 只维护电话索引，不维护拼音、子串等二级索引；插入和删除用预分配的路径栈迭代实现，非线程安全
+ */
+abstract class AbstractArrayAVLTree implements ContactTree {
+    static final int NIL = -1;
+    static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_HEIGHT = 64; // AVL树高度不超过1.44*log2(n+2)，int范围内的规模远小于64
+
+    // 节点数组，下标为节点编号
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private String[] sortKeys = new String[INITIAL_CAPACITY]; // 插入时算好的排序键，树中按它比较
+    private int[] left = new int[INITIAL_CAPACITY];   // 空闲节点通过left串成空闲链表
+    private int[] right = new int[INITIAL_CAPACITY];
+    private int[] height = new int[INITIAL_CAPACITY];
+    private int[] size = new int[INITIAL_CAPACITY];   // 子树中的联系人数
+    private int[] count = new int[INITIAL_CAPACITY];  // 本节点同名联系人数
+    private int[] head = new int[INITIAL_CAPACITY];   // 同名链表的首条目
+    private int[] tail = new int[INITIAL_CAPACITY];   // 同名链表的尾条目
+    private int nodeLimit;                            // 已分配过的节点编号上界
+    private int freeNode = NIL;
+
+    // 条目链接数组，下标为条目编号
+    private int[] next = new int[INITIAL_CAPACITY];   // 同名链表中的下一条目，空闲条目也通过next串成空闲链表
+    private int entryLimit;                           // 已分配过的条目编号上界
+    private int freeEntry = NIL;
+
+    private int root = NIL;
+    private final PhoneTable phones = new PhoneTable(this::phoneAt); // 电话 -> 条目
+    private final int[] path = new int[MAX_HEIGHT];                 // 插入和删除时记录根到修改点的路径
+
+    /**
+     * 把联系人存入条目槽位，槽位中已有内容时替换之（容量已由growEntries保证）
+     */
+    abstract void storeEntry(int entry, Contact contact);
+
+    /**
+     * 释放条目槽位中存放的内容
+     */
+    abstract void clearEntry(int entry);
+
+    /**
+     * 取条目中的联系人
+     */
+    abstract Contact contactAt(int entry);
+
+    /**
+     * 取条目中联系人的电话，可能为null
+     */
+    abstract String phoneAt(int entry);
+
+    /**
+     * 条目槽位中是否存放着联系人（空闲槽位返回false）
+     */
+    abstract boolean hasEntry(int entry);
+
+    /**
+     * 条目数组扩容到capacity
+     */
+    abstract void growEntries(int capacity);
+
+    /**
+     * 已分配过的条目编号上界，编号小于它的槽位或在用或在空闲链表中
+     */
+    int entryLimit() {
+        return entryLimit;
+    }
+
+    /**
+     * 插入联系人
+     *
+     * @throws IllegalArgumentException 如果姓名为空或电话已被使用
+     */
+    @Override
+    public void insert(Contact contact) {
+        if (contact == null || contact.getName() == null || contact.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("联系人或姓名不能为空");
+        }
+        String phone = contact.getPhone();
+        if (phone != null) {
+            int existing = phones.find(phone);
+            if (existing != NIL) {
+                throw AVLTree.duplicatePhone(contactAt(existing), contact);
+            }
+        }
+
+        String name = contact.getName();
+        String sortKey = NameCollation.sortKey(name);
+        int entry = allocateEntry(contact);
+        int depth = 0;
+        int node = root;
+        while (node != NIL) {
+            path[depth++] = node;
+            int cmp = sortKey.compareTo(sortKeys[node]);
+            if (cmp == 0) {
+                // 姓名相同，追加到同名链表尾部，路径上的子树计数各加一即可，树形不变
+                next[tail[node]] = entry;
+                tail[node] = entry;
+                count[node]++;
+                for (int i = 0; i < depth; i++) {
+                    size[path[i]]++;
+                }
+                indexPhone(entry, phone);
+                return;
+            }
+            node = cmp < 0 ? left[node] : right[node];
+        }
+
+        int created = allocateNode(name, sortKey, entry);
+        link(depth, NIL, created);
+        rebalancePath(depth);
+        indexPhone(entry, phone);
+    }
+
+    /**
+     * 批量导入联系人
+     * 先整体校验（姓名非空、电话与树中和本批中其他联系人都不重复），全部通过后再逐个插入，
+     * 校验失败时抛出异常且树保持不变
+     */
+    public void bulkLoad(Collection<Contact> contacts) {
+        Map<String, Contact> batchPhones = new HashMap<>();
+        for (Contact contact : contacts) {
+            if (contact == null || contact.getName() == null || contact.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("联系人或姓名不能为空");
+            }
+            String phone = contact.getPhone();
+            if (phone != null) {
+                int existing = phones.find(phone);
+                if (existing != NIL) {
+                    throw AVLTree.duplicatePhone(contactAt(existing), contact);
+                }
+                Contact previous = batchPhones.putIfAbsent(phone, contact);
+                if (previous != null) {
+                    throw AVLTree.duplicatePhone(previous, contact);
+                }
+            }
+        }
+        for (Contact contact : contacts) {
+            insert(contact);
+        }
+    }
+
+    /**
+     * 删除联系人
+     * 指定电话时先查电话索引，联系人不存在时无需下探树
+     *
+     * @param phone 为null时删除所有同名联系人
+     */
+    @Override
+    public boolean delete(String name, String phone) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        int target = NIL;
+        if (phone != null) {
+            target = phones.find(phone);
+            if (target == NIL) {
+                return false;
+            }
+        }
+
+        String sortKey = NameCollation.sortKey(name);
+        int depth = 0;
+        int node = root;
+        while (node != NIL) {
+            path[depth++] = node;
+            int cmp = sortKey.compareTo(sortKeys[node]);
+            if (cmp == 0) {
+                break;
+            }
+            node = cmp < 0 ? left[node] : right[node];
+        }
+        if (node == NIL) {
+            return false;
+        }
+
+        int removed;
+        if (target != NIL) {
+            // 在同名链表中摘除目标条目，不在链表中说明该电话属于其他姓名的联系人
+            int previous = NIL;
+            int entry = head[node];
+            while (entry != NIL && entry != target) {
+                previous = entry;
+                entry = next[entry];
+            }
+            if (entry == NIL) {
+                return false;
+            }
+            if (previous == NIL) {
+                head[node] = next[entry];
+            } else {
+                next[previous] = next[entry];
+            }
+            if (tail[node] == entry) {
+                tail[node] = previous;
+            }
+            phones.remove(entry);
+            releaseEntry(entry);
+            removed = 1;
+        } else {
+            // 释放整条同名链表
+            for (int entry = head[node]; entry != NIL; ) {
+                int following = next[entry];
+                if (phoneAt(entry) != null) {
+                    phones.remove(entry);
+                }
+                releaseEntry(entry);
+                entry = following;
+            }
+            head[node] = NIL;
+            tail[node] = NIL;
+            removed = count[node];
+        }
+        count[node] -= removed;
+
+        if (count[node] > 0) {
+            for (int i = 0; i < depth; i++) {
+                size[path[i]] -= removed;
+            }
+            return true;
+        }
+
+        if (left[node] != NIL && right[node] != NIL) {
+            // 有两个子节点：把右子树最小节点的键和同名链表移到本节点，转而删除那个最小节点
+            int min = right[node];
+            path[depth++] = min;
+            while (left[min] != NIL) {
+                min = left[min];
+                path[depth++] = min;
+            }
+            keys[node] = keys[min];
+            sortKeys[node] = sortKeys[min];
+            head[node] = head[min];
+            tail[node] = tail[min];
+            count[node] = count[min];
+            node = min;
+        }
+        int child = left[node] != NIL ? left[node] : right[node];
+        depth--;
+        link(depth, node, child);
+        releaseNode(node);
+        rebalancePath(depth);
+        return true;
+    }
+
+    /**
+     * 把child挂到path[depth - 1]原先指向oldChild的位置；depth为0时child成为根
+     * oldChild为NIL表示新建节点，按键的大小决定挂在左边还是右边
+     */
+    private void link(int depth, int oldChild, int child) {
+        if (depth == 0) {
+            root = child;
+            return;
+        }
+        int parent = path[depth - 1];
+        boolean isLeft = oldChild != NIL
+                ? left[parent] == oldChild
+                : sortKeys[child].compareTo(sortKeys[parent]) < 0;
+        if (isLeft) {
+            left[parent] = child;
+        } else {
+            right[parent] = child;
+        }
+    }
+
+    /**
+     * 自下而上更新路径上前depth个节点的高度和子树计数，失衡时旋转
+     */
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int balanced = rebalance(node);
+            if (balanced != node) {
+                link(i, node, balanced);
+            }
+        }
+    }
+
+    /**
+     * 更新节点并在失衡时旋转
+     *
+     * @return 旋转后子树的根
+     */
+    private int rebalance(int node) {
+        updateNode(node);
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+        if (balance > 1) {
+            if (balanceOf(left[node]) < 0) {
+                // 左右情况
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (balanceOf(right[node]) > 0) {
+                // 右左情况
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        right[x] = y;
+        updateNode(y);
+        updateNode(x);
+        return x;
+    }
+
+    private int rotateLeft(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        left[y] = x;
+        updateNode(x);
+        updateNode(y);
+        return y;
+    }
+
+    private void updateNode(int node) {
+        height[node] = Math.max(heightOf(left[node]), heightOf(right[node])) + 1;
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + count[node];
+    }
+
+    private int heightOf(int node) {
+        return node == NIL ? 0 : height[node];
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : size[node];
+    }
+
+    private int balanceOf(int node) {
+        return node == NIL ? 0 : heightOf(left[node]) - heightOf(right[node]);
+    }
+
+    /**
+     * 分配节点槽位，优先复用空闲链表
+     */
+    private int allocateNode(String key, String sortKey, int entry) {
+        int node;
+        if (freeNode != NIL) {
+            node = freeNode;
+            freeNode = left[node];
+        } else {
+            if (nodeLimit == keys.length) {
+                growNodes();
+            }
+            node = nodeLimit++;
+        }
+        keys[node] = key;
+        sortKeys[node] = sortKey;
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        size[node] = 1;
+        count[node] = 1;
+        head[node] = entry;
+        tail[node] = entry;
+        return node;
+    }
+
+    /**
+     * 释放节点槽位，挂入空闲链表
+     */
+    private void releaseNode(int node) {
+        keys[node] = null;
+        sortKeys[node] = null;
+        right[node] = NIL;
+        head[node] = NIL;
+        tail[node] = NIL;
+        left[node] = freeNode;
+        freeNode = node;
+    }
+
+    private void growNodes() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        sortKeys = Arrays.copyOf(sortKeys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        height = Arrays.copyOf(height, capacity);
+        size = Arrays.copyOf(size, capacity);
+        count = Arrays.copyOf(count, capacity);
+        head = Arrays.copyOf(head, capacity);
+        tail = Arrays.copyOf(tail, capacity);
+    }
+
+    /**
+     * 分配条目槽位，优先复用空闲链表
+     */
+    private int allocateEntry(Contact contact) {
+        int entry;
+        if (freeEntry != NIL) {
+            entry = freeEntry;
+        } else {
+            if (entryLimit == next.length) {
+                next = Arrays.copyOf(next, entryLimit * 2);
+                growEntries(entryLimit * 2);
+            }
+            entry = entryLimit;
+        }
+        // 存放失败（如字段过长）时槽位尚未取用，树保持不变
+        storeEntry(entry, contact);
+        if (entry == freeEntry) {
+            freeEntry = next[entry];
+        } else {
+            entryLimit++;
+        }
+        next[entry] = NIL;
+        return entry;
+    }
+
+    /**
+     * 释放条目槽位，挂入空闲链表并释放其中的内容
+     */
+    private void releaseEntry(int entry) {
+        clearEntry(entry);
+        next[entry] = freeEntry;
+        freeEntry = entry;
+    }
+
+    private void indexPhone(int entry, String phone) {
+        if (phone != null) {
+            phones.add(entry);
+        }
+    }
+
+    /**
+     * 查找姓名对应的节点
+     *
+     * @return 节点编号，不存在时返回NIL
+     */
+    private int findNode(String name) {
+        String sortKey = NameCollation.sortKey(name);
+        int node = root;
+        while (node != NIL) {
+            int cmp = sortKey.compareTo(sortKeys[node]);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? left[node] : right[node];
+        }
+        return NIL;
+    }
+
+    /**
+     * 把节点的同名联系人按插入顺序追加到results
+     */
+    private void addBucket(int node, List<Contact> results) {
+        for (int entry = head[node]; entry != NIL; entry = next[entry]) {
+            results.add(contactAt(entry));
+        }
+    }
+
+    /**
+     * 精确查找联系人（按姓名）
+     */
+    @Override
+    public List<Contact> search(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        int node = findNode(name);
+        if (node == NIL) {
+            return new ArrayList<>();
+        }
+        List<Contact> results = new ArrayList<>(count[node]);
+        addBucket(node, results);
+        return results;
+    }
+
+    /**
+     * 前缀模糊查询
+     * 与AVLTree相同的剪枝中序遍历，只下探键区间可能与前缀重叠的子树
+     */
+    @Override
+    public List<Contact> searchByPrefix(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new IllegalArgumentException("前缀不能为空");
+        }
+        String sortPrefix = NameCollation.sortKey(prefix);
+        List<Contact> results = new ArrayList<>();
+        int[] stack = new int[MAX_HEIGHT];
+        int top = 0;
+        int node = root;
+        while (node != NIL || top > 0) {
+            while (node != NIL) {
+                String key = sortKeys[node];
+                if (key.startsWith(sortPrefix)) {
+                    stack[top++] = node;
+                    node = left[node];
+                } else if (key.compareTo(sortPrefix) < 0) {
+                    node = right[node];
+                } else {
+                    node = left[node];
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+            addBucket(node, results);
+            node = right[node];
+        }
+        return results;
+    }
+
+    /**
+     * 更新联系人信息
+     * 通过电话索引直接定位联系人，不遍历同名链表
+     *
+     * @throws IllegalArgumentException 如果新电话已被其他联系人使用
+     */
+    @Override
+    public boolean update(String name, String phone, Contact newContact) {
+        int entry = phone == null ? NIL : phones.find(phone);
+        if (entry == NIL) {
+            return false;
+        }
+        Contact c = contactAt(entry);
+        if (!c.getName().equals(name)) {
+            return false;
+        }
+        String newPhone = newContact.getPhone();
+        boolean phoneChanged = !phone.equals(newPhone);
+        if (phoneChanged) {
+            int existing = newPhone == null ? NIL : phones.find(newPhone);
+            if (existing != NIL) {
+                throw AVLTree.duplicatePhone(contactAt(existing), new Contact(name, newPhone, null, null));
+            }
+            phones.remove(entry);
+        }
+        c.setPhone(newPhone);
+        c.setEmail(newContact.getEmail());
+        c.setAddress(newContact.getAddress());
+        storeEntry(entry, c);
+        if (phoneChanged) {
+            indexPhone(entry, newPhone);
+        }
+        return true;
+    }
+
+    /**
+     * 按电话精确查找联系人（哈希索引，O(1)）
+     *
+     * @return 联系人，不存在时返回null
+     */
+    @Override
+    public Contact searchByPhone(String phone) {
+        if (phone == null || phone.trim().isEmpty()) {
+            throw new IllegalArgumentException("电话不能为空");
+        }
+        int entry = phones.find(phone);
+        return entry == NIL ? null : contactAt(entry);
+    }
+
+    /**
+     * 按指定顺序遍历所有联系人
+     * 前序、中序、后序使用定长的节点编号栈，层序使用按节点数分配的编号队列
+     */
+    @Override
+    public void traverse(TraversalOrder order, Consumer<Contact> visitor) {
+        if (order == null || visitor == null) {
+            throw new IllegalArgumentException("遍历顺序和访问器不能为空");
+        }
+        if (root == NIL) {
+            return;
+        }
+        int[] stack = new int[MAX_HEIGHT + 1];
+        int top = 0;
+        switch (order) {
+            case PREORDER:
+                stack[top++] = root;
+                while (top > 0) {
+                    int node = stack[--top];
+                    visitBucket(node, visitor);
+                    if (right[node] != NIL) {
+                        stack[top++] = right[node];
+                    }
+                    if (left[node] != NIL) {
+                        stack[top++] = left[node];
+                    }
+                }
+                break;
+            case INORDER:
+                for (int node = root; node != NIL || top > 0; ) {
+                    while (node != NIL) {
+                        stack[top++] = node;
+                        node = left[node];
+                    }
+                    node = stack[--top];
+                    visitBucket(node, visitor);
+                    node = right[node];
+                }
+                break;
+            case POSTORDER:
+                int lastVisited = NIL;
+                for (int node = root; node != NIL || top > 0; ) {
+                    while (node != NIL) {
+                        stack[top++] = node;
+                        node = left[node];
+                    }
+                    int peek = stack[top - 1];
+                    if (right[peek] != NIL && right[peek] != lastVisited) {
+                        node = right[peek];
+                    } else {
+                        visitBucket(peek, visitor);
+                        lastVisited = stack[--top];
+                    }
+                }
+                break;
+            case LEVEL_ORDER:
+                int[] queue = new int[nodeLimit];
+                int tailIndex = 0;
+                queue[tailIndex++] = root;
+                for (int headIndex = 0; headIndex < tailIndex; headIndex++) {
+                    int node = queue[headIndex];
+                    visitBucket(node, visitor);
+                    if (left[node] != NIL) {
+                        queue[tailIndex++] = left[node];
+                    }
+                    if (right[node] != NIL) {
+                        queue[tailIndex++] = right[node];
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的遍历顺序：" + order);
+        }
+    }
+
+    private void visitBucket(int node, Consumer<Contact> visitor) {
+        for (int entry = head[node]; entry != NIL; entry = next[entry]) {
+            visitor.accept(contactAt(entry));
+        }
+    }
+
+    @Override
+    public List<Contact> getPreorderContacts() {
+        return collect(TraversalOrder.PREORDER);
+    }
+
+    @Override
+    public List<Contact> getPostorderContacts() {
+        return collect(TraversalOrder.POSTORDER);
+    }
+
+    @Override
+    public List<Contact> getLevelOrderContacts() {
+        return collect(TraversalOrder.LEVEL_ORDER);
+    }
+
+    @Override
+    public List<Contact> getAllContacts() {
+        return collect(TraversalOrder.INORDER);
+    }
+
+    private List<Contact> collect(TraversalOrder order) {
+        List<Contact> contacts = new ArrayList<>(size());
+        traverse(order, contacts::add);
+        return contacts;
+    }
+
+    /**
+     * 按姓名升序惰性迭代所有联系人
+     */
+    @Override
+    public Iterator<Contact> iterator() {
+        return new Iterator<Contact>() {
+            private final int[] stack = new int[MAX_HEIGHT];
+            private int top;
+            private int entry = NIL; // 下一个要返回的条目
+
+            {
+                pushLeft(root);
+                advance();
+            }
+
+            private void pushLeft(int node) {
+                for (; node != NIL; node = left[node]) {
+                    stack[top++] = node;
+                }
+            }
+
+            /**
+             * 取中序的下一个节点的首条目
+             */
+            private void advance() {
+                if (top > 0) {
+                    int node = stack[--top];
+                    entry = head[node];
+                    pushLeft(right[node]);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return entry != NIL;
+            }
+
+            @Override
+            public Contact next() {
+                if (entry == NIL) {
+                    throw new NoSuchElementException();
+                }
+                Contact contact = contactAt(entry);
+                entry = next[entry];
+                if (entry == NIL) {
+                    advance();
+                }
+                return contact;
+            }
+        };
+    }
+
+    /**
+     * 获取联系人总数（O(1)，直接读取根节点的子树计数）
+     */
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * 按姓名顺序获取第index个联系人（从0开始），复杂度为O(log n + 同名数)
+     */
+    @Override
+    public Contact select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IllegalArgumentException("索引越界：" + index);
+        }
+        int node = root;
+        while (node != NIL) {
+            int leftSize = sizeOf(left[node]);
+            if (index < leftSize) {
+                node = left[node];
+            } else if (index < leftSize + count[node]) {
+                int entry = head[node];
+                for (int i = leftSize; i < index; i++) {
+                    entry = next[entry];
+                }
+                return contactAt(entry);
+            } else {
+                index -= leftSize + count[node];
+                node = right[node];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取姓名排在name之前的联系人数量
+     */
+    @Override
+    public int rank(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        String sortKey = NameCollation.sortKey(name);
+        int rank = 0;
+        int node = root;
+        while (node != NIL) {
+            int cmp = sortKey.compareTo(sortKeys[node]);
+            if (cmp < 0) {
+                node = left[node];
+            } else if (cmp > 0) {
+                rank += sizeOf(left[node]) + count[node];
+                node = right[node];
+            } else {
+                return rank + sizeOf(left[node]);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 分页获取联系人（按姓名顺序），复杂度为O(log n + limit)
+     */
+    @Override
+    public List<Contact> getPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("分页参数不能为负数");
+        }
+        List<Contact> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        if (limit == 0 || offset >= size()) {
+            return page;
+        }
+
+        // 定位起始节点，路径上尚未输出的祖先压栈
+        int[] stack = new int[MAX_HEIGHT];
+        int top = 0;
+        int node = root;
+        int skip = offset;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (skip < leftSize) {
+                stack[top++] = node;
+                node = left[node];
+            } else if (skip < leftSize + count[node]) {
+                skip -= leftSize;
+                break;
+            } else {
+                skip -= leftSize + count[node];
+                node = right[node];
+            }
+        }
+
+        // 从起始节点的第skip个联系人开始按中序输出
+        while (node != NIL && page.size() < limit) {
+            int entry = head[node];
+            for (int i = 0; i < skip; i++) {
+                entry = next[entry];
+            }
+            for (; entry != NIL && page.size() < limit; entry = next[entry]) {
+                page.add(contactAt(entry));
+            }
+            skip = 0;
+            for (int child = right[node]; child != NIL; child = left[child]) {
+                stack[top++] = child;
+            }
+            node = top > 0 ? stack[--top] : NIL;
+        }
+        return page;
+    }
+
+    /**
+     * 按指定遍历顺序分页获取联系人
+     * 中序同getPage(int, int)；前序、后序整棵跳过联系人数不超过剩余offset的子树，复杂度为O(log n + limit)；
+     * 层序需逐个跳过前面的节点，为O(offset + limit)
+     */
+    @Override
+    public List<Contact> getPage(TraversalOrder order, int offset, int limit) {
+        if (order == null) {
+            throw new IllegalArgumentException("遍历顺序不能为空");
+        }
+        if (order == TraversalOrder.INORDER) {
+            return getPage(offset, limit);
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("分页参数不能为负数");
+        }
+        List<Contact> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        if (limit == 0 || offset >= size()) {
+            return page;
+        }
+        int skip = offset;
+        switch (order) {
+            case PREORDER: {
+                int[] stack = new int[2 * MAX_HEIGHT + 1];
+                int top = 0;
+                stack[top++] = root;
+                while (top > 0 && page.size() < limit) {
+                    int node = stack[--top];
+                    if (skip >= size[node]) {
+                        skip -= size[node];
+                        continue;
+                    }
+                    skip = pageBucket(node, skip, page, limit);
+                    if (right[node] != NIL) {
+                        stack[top++] = right[node];
+                    }
+                    if (left[node] != NIL) {
+                        stack[top++] = left[node];
+                    }
+                }
+                break;
+            }
+            case POSTORDER: {
+                // 栈中的~node表示子树已展开、只剩节点本身待输出
+                int[] stack = new int[3 * MAX_HEIGHT + 1];
+                int top = 0;
+                stack[top++] = root;
+                while (top > 0 && page.size() < limit) {
+                    int item = stack[--top];
+                    if (item < 0) {
+                        skip = pageBucket(~item, skip, page, limit);
+                    } else if (skip >= size[item]) {
+                        skip -= size[item];
+                    } else {
+                        stack[top++] = ~item;
+                        if (right[item] != NIL) {
+                            stack[top++] = right[item];
+                        }
+                        if (left[item] != NIL) {
+                            stack[top++] = left[item];
+                        }
+                    }
+                }
+                break;
+            }
+            case LEVEL_ORDER: {
+                int[] queue = new int[nodeLimit];
+                int tailIndex = 0;
+                queue[tailIndex++] = root;
+                for (int headIndex = 0; headIndex < tailIndex && page.size() < limit; headIndex++) {
+                    int node = queue[headIndex];
+                    skip = pageBucket(node, skip, page, limit);
+                    if (left[node] != NIL) {
+                        queue[tailIndex++] = left[node];
+                    }
+                    if (right[node] != NIL) {
+                        queue[tailIndex++] = right[node];
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("不支持的遍历顺序：" + order);
+        }
+        return page;
+    }
+
+    /**
+     * 跳过节点同名链表的前skip个联系人后把其余的加入page（至多到limit个）
+     *
+     * @return 仍需跳过的联系人数
+     */
+    private int pageBucket(int node, int skip, List<Contact> page, int limit) {
+        if (skip >= count[node]) {
+            return skip - count[node];
+        }
+        int entry = head[node];
+        for (int i = 0; i < skip; i++) {
+            entry = next[entry];
+        }
+        for (; entry != NIL && page.size() < limit; entry = next[entry]) {
+            page.add(contactAt(entry));
+        }
+        return 0;
+    }
+
+    /**
+     * 校验结构不变量：排序键严格有序且与键一致、高度和子树计数正确、平衡因子在[-1, 1]内、
+     * 同名链表非空且长度与计数一致、空闲链表与在用槽位互不重叠，以及电话索引与树内容一致
+     */
+    @Override
+    public boolean isValid() {
+        boolean[] used = new boolean[nodeLimit];
+        boolean[] usedEntries = new boolean[entryLimit];
+        if (checkSubtree(root, null, null, used, usedEntries) < 0) {
+            return false;
+        }
+        for (int node = freeNode; node != NIL; node = left[node]) {
+            if (used[node] || keys[node] != null || sortKeys[node] != null) {
+                return false;
+            }
+            used[node] = true;
+        }
+        for (int entry = freeEntry; entry != NIL; entry = next[entry]) {
+            if (usedEntries[entry] || hasEntry(entry)) {
+                return false;
+            }
+            usedEntries[entry] = true;
+        }
+        for (boolean slot : used) {
+            if (!slot) {
+                return false;
+            }
+        }
+        for (boolean slot : usedEntries) {
+            if (!slot) {
+                return false;
+            }
+        }
+        int indexed = 0;
+        for (Contact c : this) {
+            if (c.getPhone() != null) {
+                int entry = phones.find(c.getPhone());
+                if (entry == NIL || !c.getName().equals(contactAt(entry).getName())) {
+                    return false;
+                }
+                indexed++;
+            }
+        }
+        return indexed == phones.size();
+    }
+
+    /**
+     * 校验以node为根、排序键位于(lower, upper)开区间内的子树，并标记用到的节点和条目
+     *
+     * @return 子树高度，不满足不变量时返回-1
+     */
+    private int checkSubtree(int node, String lower, String upper, boolean[] used, boolean[] usedEntries) {
+        if (node == NIL) {
+            return 0;
+        }
+        String key = keys[node];
+        String sortKey = sortKeys[node];
+        if (used[node] || key == null || !NameCollation.sortKey(key).equals(sortKey)
+                || (lower != null && sortKey.compareTo(lower) <= 0)
+                || (upper != null && sortKey.compareTo(upper) >= 0)) {
+            return -1;
+        }
+        used[node] = true;
+        int bucket = 0;
+        int last = NIL;
+        for (int entry = head[node]; entry != NIL; entry = next[entry]) {
+            if (usedEntries[entry] || !hasEntry(entry) || !key.equals(contactAt(entry).getName())) {
+                return -1;
+            }
+            usedEntries[entry] = true;
+            last = entry;
+            bucket++;
+        }
+        if (bucket == 0 || bucket != count[node] || tail[node] != last) {
+            return -1;
+        }
+        int leftHeight = checkSubtree(left[node], lower, sortKey, used, usedEntries);
+        int rightHeight = checkSubtree(right[node], sortKey, upper, used, usedEntries);
+        if (leftHeight < 0 || rightHeight < 0 || Math.abs(leftHeight - rightHeight) > 1) {
+            return -1;
+        }
+        int expectedHeight = Math.max(leftHeight, rightHeight) + 1;
+        int expectedSize = sizeOf(left[node]) + sizeOf(right[node]) + bucket;
+        return height[node] == expectedHeight && size[node] == expectedSize ? expectedHeight : -1;
+    }
+}
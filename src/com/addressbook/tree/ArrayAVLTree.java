@@ -0,0 +1,45 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.Arrays;
+
+/**
+ * 数组存储的AVL树实现类（堆内）
+ * 树结构见AbstractArrayAVLTree；同名链表的条目直接引用联系人对象，
+ * 每个联系人只占条目数组和next数组各一格，每个姓名只占节点数组的一行，
+ * 没有节点对象头和指针，内存更紧凑，遍历时访问的也是连续内存。
+ * 与AVLTree一样，查询返回的就是树中的联系人对象，不应通过setter直接修改，而应调用update
+ */
+public class ArrayAVLTree extends AbstractArrayAVLTree {
+    private Contact[] entries = new Contact[INITIAL_CAPACITY]; // 条目编号 -> 联系人
+
+    @Override
+    void storeEntry(int entry, Contact contact) {
+        entries[entry] = contact;
+    }
+
+    @Override
+    void clearEntry(int entry) {
+        entries[entry] = null; // 断开引用，联系人可被回收
+    }
+
+    @Override
+    Contact contactAt(int entry) {
+        return entries[entry];
+    }
+
+    @Override
+    String phoneAt(int entry) {
+        return entries[entry].getPhone();
+    }
+
+    @Override
+    boolean hasEntry(int entry) {
+        return entries[entry] != null;
+    }
+
+    @Override
+    void growEntries(int capacity) {
+        entries = Arrays.copyOf(entries, capacity);
+    }
+}
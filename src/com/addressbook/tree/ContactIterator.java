@@ -0,0 +1,35 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 联系人迭代器
+ * 在节点迭代器之上逐个展开各节点的同名联系人链表，按需推进，不预先复制
+ */
+class ContactIterator implements Iterator<Contact> {
+    private final NodeIterator nodes;
+    private Iterator<Contact> bucket = Collections.emptyIterator(); // 当前节点的同名联系人
+
+    ContactIterator(NodeIterator nodes) {
+        this.nodes = nodes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!bucket.hasNext() && nodes.hasNext()) {
+            bucket = nodes.next().getContacts().iterator();
+        }
+        return bucket.hasNext();
+    }
+
+    @Override
+    public Contact next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return bucket.next();
+    }
+}
@@ -0,0 +1,205 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 不依赖二级索引的查询：沿中序逐个检查全部联系人，复杂度为O(n)
+ * 供没有电话前缀树、拼音、n-gram索引的树（ArrayAVLTree、OffHeapAVLTree）使用，
+ * 匹配规则与AVLTree中对应的索引查询相同，结果顺序也尽量一致
+ */
+public final class ContactScan {
+    private ContactScan() {
+    }
+
+    /**
+     * 号码数字以digits中的数字开头的联系人，按号码数字顺序返回至多limit个
+     * digits中的非数字字符被忽略，没有数字时匹配全部有电话的联系人
+     */
+    public static List<Contact> byPhonePrefix(ContactTree tree, String digits, int limit) {
+        checkLimit(limit);
+        String prefix = PhoneTrie.digitsOf(digits);
+        List<Contact> matches = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (Contact c : tree) {
+            if (c.getPhone() != null) {
+                String key = PhoneTrie.digitsOf(c.getPhone());
+                if (key.startsWith(prefix)) {
+                    matches.add(c);
+                    keys.add(key);
+                }
+            }
+        }
+        return sortedByKey(matches, keys, limit);
+    }
+
+    /**
+     * 号码数字以digits中的数字开头的联系人数
+     */
+    public static int countByPhonePrefix(ContactTree tree, String digits) {
+        String prefix = PhoneTrie.digitsOf(digits);
+        int count = 0;
+        for (Contact c : tree) {
+            if (c.getPhone() != null && PhoneTrie.digitsOf(c.getPhone()).startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 姓名全拼或首字母以prefix开头的联系人，按命中的拼音键顺序返回至多limit个（见PinyinIndex）
+     */
+    public static List<Contact> byPinyin(ContactTree tree, String prefix, int limit) {
+        checkLimit(limit);
+        String normalized = PinyinIndex.normalize(prefix);
+        List<Contact> matches = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return matches;
+        }
+        for (Contact c : tree) {
+            String first = null;
+            for (String key : PinyinIndex.keysOf(c.getName())) {
+                if (key.startsWith(normalized) && (first == null || key.compareTo(first) < 0)) {
+                    first = key;
+                }
+            }
+            if (first != null) {
+                matches.add(c);
+                keys.add(first);
+            }
+        }
+        return sortedByKey(matches, keys, limit);
+    }
+
+    /**
+     * 姓名与name的编辑距离不超过maxEdits的联系人，按距离升序返回，距离相同时按姓名排序
+     */
+    public static List<Contact> fuzzy(ContactTree tree, String name, int maxEdits) {
+        String target = NameCollation.sortKey(name);
+        List<List<Contact>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxEdits; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        String previous = null;
+        int distance = -1;
+        for (Contact c : tree) {
+            // 同名联系人按中序相邻，只计算一次
+            if (!c.getName().equals(previous)) {
+                previous = c.getName();
+                distance = boundedDistance(NameCollation.sortKey(previous), target, maxEdits);
+            }
+            if (distance >= 0) {
+                byDistance.get(distance).add(c);
+            }
+        }
+        List<Contact> results = new ArrayList<>();
+        for (List<Contact> group : byDistance) {
+            results.addAll(group);
+        }
+        return results;
+    }
+
+    /**
+     * 字段值包含text（不区分大小写）的联系人，按姓名顺序返回至多limit个
+     */
+    public static List<Contact> contains(ContactTree tree, ContactField field, String text, int limit) {
+        if (!NGramIndex.supports(field)) {
+            throw new IllegalArgumentException("不支持按该字段包含查找：" + field);
+        }
+        List<Contact> results = new ArrayList<>();
+        forEachMatch(tree, ContactQuery.contains(field, text), limit, results::add);
+        return results;
+    }
+
+    /**
+     * 按姓名顺序把满足条件的至多limit个联系人交给action
+     *
+     * @return 交给action的联系人数
+     */
+    public static int forEachMatch(ContactTree tree, ContactQuery query, int limit, Consumer<Contact> action) {
+        if (query == null) {
+            throw new IllegalArgumentException("查询条件不能为空");
+        }
+        checkLimit(limit);
+        int matched = 0;
+        for (Contact c : tree) {
+            if (matched == limit) {
+                break;
+            }
+            if (query.matches(c)) {
+                action.accept(c);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 说明查询将如何执行（没有二级索引，总是遍历）
+     */
+    public static String explain(ContactTree tree, ContactQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("查询条件不能为空");
+        }
+        return "遍历：没有二级索引，逐个过滤全部" + tree.size() + "个联系人";
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("结果数量不能为负数");
+        }
+    }
+
+    /**
+     * 按键稳定排序后取前limit个，键相同的联系人保持姓名顺序
+     */
+    private static List<Contact> sortedByKey(List<Contact> contacts, List<String> keys, int limit) {
+        List<Integer> order = new ArrayList<>(contacts.size());
+        for (int i = 0; i < contacts.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(keys::get));
+        List<Contact> results = new ArrayList<>(Math.min(limit, order.size()));
+        for (int i = 0; i < order.size() && results.size() < limit; i++) {
+            results.add(contacts.get(order.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * a与b的编辑距离，超过maxEdits时返回-1
+     */
+    private static int boundedDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return -1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            int min = row[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                min = Math.min(min, row[j]);
+            }
+            if (min > maxEdits) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return previous[b.length()] <= maxEdits ? previous[b.length()] : -1;
+    }
+}
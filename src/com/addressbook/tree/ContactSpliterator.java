@@ -0,0 +1,138 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.BSTNode;
+import com.addressbook.model.Contact;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 按子树拆分的联系人可拆分迭代器
+ * 待处理区间表示为若干片段组成的队列，每个片段是一棵完整子树或单个节点的同名链表。
+ * 拆分时把唯一的子树片段按遍历顺序展开为左子树、本节点、右子树三段，
+ * 再把前面约一半的片段交给新的迭代器，从而让并行流按子树分摊到多个线程。
+ * 只支持前序、中序、后序（层序无法按子树划分）。不检测遍历期间的并发修改
+ */
+class ContactSpliterator implements Spliterator<Contact> {
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL;
+
+    /**
+     * 片段：完整子树或单个节点的同名链表
+     */
+    private static final class Segment {
+        final BSTNode node;
+        final boolean bucketOnly;
+
+        Segment(BSTNode node, boolean bucketOnly) {
+            this.node = node;
+            this.bucketOnly = bucketOnly;
+        }
+
+        long size() {
+            return bucketOnly ? node.getContacts().size() : node.getSize();
+        }
+    }
+
+    private final TraversalOrder order;
+    private final Deque<Segment> segments;
+    private long remaining;
+    private Iterator<Contact> current; // 开始遍历后指向队首片段的迭代器
+
+    ContactSpliterator(BSTNode root, TraversalOrder order) {
+        this(order, new ArrayDeque<>());
+        if (root != null) {
+            segments.add(new Segment(root, false));
+            remaining = root.getSize();
+        }
+    }
+
+    private ContactSpliterator(TraversalOrder order, Deque<Segment> segments) {
+        this.order = order;
+        this.segments = segments;
+        for (Segment segment : segments) {
+            remaining += segment.size();
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Contact> action) {
+        while (current == null || !current.hasNext()) {
+            if (current != null) {
+                segments.poll();
+            }
+            Segment head = segments.peek();
+            if (head == null) {
+                current = null;
+                return false;
+            }
+            current = head.bucketOnly
+                    ? head.node.getContacts().iterator()
+                    : new ContactIterator(new NodeIterator(head.node, order));
+        }
+        remaining--;
+        action.accept(current.next());
+        return true;
+    }
+
+    @Override
+    public Spliterator<Contact> trySplit() {
+        if (current != null) {
+            return null; // 已开始遍历则不再拆分
+        }
+        if (segments.size() == 1 && !segments.peek().bucketOnly) {
+            expand(segments.poll().node);
+        }
+        if (segments.size() < 2) {
+            return null;
+        }
+
+        // 取前面累计约一半的片段作为前缀
+        Deque<Segment> prefix = new ArrayDeque<>();
+        long prefixSize = 0;
+        while (segments.size() > 1 && prefixSize < remaining / 2) {
+            Segment segment = segments.poll();
+            prefix.add(segment);
+            prefixSize += segment.size();
+        }
+        remaining -= prefixSize;
+        return new ContactSpliterator(order, prefix);
+    }
+
+    /**
+     * 按遍历顺序把子树展开为左子树、本节点、右子树三个片段（省略空片段）
+     */
+    private void expand(BSTNode node) {
+        Segment self = new Segment(node, true);
+        Segment left = node.getLeft() == null ? null : new Segment(node.getLeft(), false);
+        Segment right = node.getRight() == null ? null : new Segment(node.getRight(), false);
+        Segment[] parts;
+        switch (order) {
+            case PREORDER:
+                parts = new Segment[] {self, left, right};
+                break;
+            case POSTORDER:
+                parts = new Segment[] {left, right, self};
+                break;
+            default:
+                parts = new Segment[] {left, self, right};
+                break;
+        }
+        for (Segment part : parts) {
+            if (part != null) {
+                segments.add(part);
+            }
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
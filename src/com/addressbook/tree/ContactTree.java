@@ -0,0 +1,204 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 按姓名有序存放联系人的平衡树的核心操作
+ * 同名联系人放在同一个键下，电话号码在整棵树内唯一；
+ * AVLTree（节点对象 + 二级索引）、ArrayAVLTree（数组存储）和OffHeapAVLTree（联系人存放在堆外）都实现此接口，便于对比和替换。
+ * 电话前缀、拼音、模糊、包含和组合条件查询的默认实现沿中序遍历逐个检查（见ContactScan），AVLTree用二级索引覆盖它们
+ */
+public interface ContactTree extends Iterable<Contact> {
+    /**
+     * 插入联系人
+     *
+     * @throws IllegalArgumentException 如果姓名为空或电话已被使用
+     */
+    void insert(Contact contact);
+
+    /**
+     * 批量导入联系人，出现空姓名或重复电话时抛出异常且树保持不变
+     *
+     * @throws IllegalArgumentException 如果存在空姓名或重复联系人
+     */
+    void bulkLoad(Collection<Contact> contacts);
+
+    /**
+     * 删除联系人
+     *
+     * @param phone 为null时删除所有同名联系人
+     */
+    boolean delete(String name, String phone);
+
+    /**
+     * 精确查找联系人（按姓名）
+     */
+    List<Contact> search(String name);
+
+    /**
+     * 前缀模糊查询
+     */
+    List<Contact> searchByPrefix(String prefix);
+
+    /**
+     * 更新联系人信息
+     *
+     * @throws IllegalArgumentException 如果新电话已被其他联系人使用
+     */
+    boolean update(String name, String phone, Contact newContact);
+
+    /**
+     * 按电话精确查找联系人
+     *
+     * @return 联系人，不存在时返回null
+     */
+    Contact searchByPhone(String phone);
+
+    /**
+     * 按电话数字前缀查找联系人，按号码数字顺序返回至多limit个
+     */
+    default List<Contact> searchByPhonePrefix(String digits, int limit) {
+        if (digits == null || digits.trim().isEmpty()) {
+            throw new IllegalArgumentException("电话前缀不能为空");
+        }
+        return ContactScan.byPhonePrefix(this, digits, limit);
+    }
+
+    /**
+     * 按姓名拼音前缀查找联系人，全拼和首字母均可匹配，按拼音顺序返回至多limit个
+     */
+    default List<Contact> searchByPinyin(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new IllegalArgumentException("拼音前缀不能为空");
+        }
+        return ContactScan.byPinyin(this, prefix, limit);
+    }
+
+    /**
+     * 查找姓名与name的编辑距离不超过maxEdits的联系人，按距离升序返回，距离相同时按姓名升序
+     */
+    default List<Contact> searchFuzzy(String name, int maxEdits) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("姓名不能为空");
+        }
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("编辑距离不能为负数");
+        }
+        return ContactScan.fuzzy(this, name, maxEdits);
+    }
+
+    /**
+     * 查找字段值包含text（不区分大小写）的联系人，支持姓名、邮箱和地址，返回至多limit个
+     */
+    default List<Contact> searchContains(ContactField field, String text, int limit) {
+        if (field == null || text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("查找字段和内容不能为空");
+        }
+        return ContactScan.contains(this, field, text, limit);
+    }
+
+    /**
+     * 按组合条件查询联系人，按姓名顺序返回至多limit个
+     */
+    default List<Contact> query(ContactQuery query, int limit) {
+        List<Contact> results = new ArrayList<>();
+        ContactScan.forEachMatch(this, query, limit, results::add);
+        return results;
+    }
+
+    /**
+     * 按姓名顺序把满足条件的联系人逐个交给action，不生成结果列表
+     *
+     * @return 满足条件的联系人数
+     */
+    default int forEachMatch(ContactQuery query, Consumer<Contact> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("处理函数不能为空");
+        }
+        return ContactScan.forEachMatch(this, query, Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * 说明查询将如何执行
+     */
+    default String explain(ContactQuery query) {
+        return ContactScan.explain(this, query);
+    }
+
+    /**
+     * 按指定顺序遍历所有联系人
+     */
+    void traverse(TraversalOrder order, Consumer<Contact> visitor);
+
+    /**
+     * 指定遍历顺序的联系人流
+     * 默认实现先按顺序复制为列表，AVLTree沿树惰性推进
+     */
+    default Stream<Contact> stream(TraversalOrder order) {
+        List<Contact> contacts = new ArrayList<>(size());
+        traverse(order, contacts::add);
+        return contacts.stream();
+    }
+
+    /**
+     * 获取前序遍历联系人列表
+     */
+    List<Contact> getPreorderContacts();
+
+    /**
+     * 获取后序遍历联系人列表
+     */
+    List<Contact> getPostorderContacts();
+
+    /**
+     * 获取层序遍历联系人列表
+     */
+    List<Contact> getLevelOrderContacts();
+
+    /**
+     * 获取树中所有联系人（按姓名顺序）
+     */
+    List<Contact> getAllContacts();
+
+    /**
+     * 获取联系人总数
+     */
+    int size();
+
+    /**
+     * 判断树是否为空
+     */
+    boolean isEmpty();
+
+    /**
+     * 按姓名顺序获取第index个联系人（从0开始）
+     */
+    Contact select(int index);
+
+    /**
+     * 获取姓名排在name之前的联系人数量
+     */
+    int rank(String name);
+
+    /**
+     * 分页获取联系人（按姓名顺序）
+     */
+    List<Contact> getPage(int offset, int limit);
+
+    /**
+     * 按指定遍历顺序分页获取联系人
+     */
+    List<Contact> getPage(TraversalOrder order, int offset, int limit);
+
+    /**
+     * 校验树结构不变量，主要供测试使用
+     */
+    boolean isValid();
+}
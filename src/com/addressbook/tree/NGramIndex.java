@@ -0,0 +1,311 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * 姓名、邮箱、地址的n-gram倒排索引，支持子串（包含）查询
+ * 字段值转为小写后，从每个位置取一个片段作为键：汉字取2个字符（bigram），其他字符取3个（trigram），
+ * 超出末尾的部分用'\0'补齐，使每个位置都有以它开头的片段。每个片段对应一个压缩倒排表，保存含有它的联系人编号。
+ * 查询时取完全落在查询串内的各个片段，对其倒排表求交集得到候选，再核对字段确实包含查询串；
+ * 查询串短于一个片段时，改为合并所有以查询串开头的片段（在TreeMap中是一段连续区间）。
+ * 联系人每次入索引分配一个递增编号，删除只把编号标记为失效，失效编号超过一半时整体重建
+ */
+public final class NGramIndex {
+    private static final ContactField[] FIELDS = { ContactField.NAME, ContactField.EMAIL, ContactField.ADDRESS };
+    private static final int COMPACT_THRESHOLD = 1024; // 失效编号少于此数时不重建
+    private static final char PADDING = '\0';
+
+    private final Map<ContactField, TreeMap<String, PostingList>> grams = new EnumMap<>(ContactField.class);
+    private final Map<Contact, Integer> ids = new IdentityHashMap<>(); // 联系人 -> 当前编号
+    private Contact[] contacts = new Contact[16];                      // 编号 -> 联系人，null表示已失效
+    private int nextId;
+
+    public NGramIndex() {
+        for (ContactField field : FIELDS) {
+            grams.put(field, new TreeMap<>());
+        }
+    }
+
+    /**
+     * 是否支持按该字段做包含查询
+     */
+    public static boolean supports(ContactField field) {
+        return field == ContactField.NAME || field == ContactField.EMAIL || field == ContactField.ADDRESS;
+    }
+
+    /**
+     * 从位置i开始的片段长度：汉字为2，其他字符为3
+     */
+    private static int gramLength(char c) {
+        return Character.isIdeographic(c) ? 2 : 3;
+    }
+
+    /**
+     * 转为小写，逐字符转换，保持长度不变
+     */
+    private static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 加入联系人
+     */
+    public void insert(Contact contact) {
+        if (ids.containsKey(contact)) {
+            throw new IllegalArgumentException("联系人已在索引中：" + contact.getName());
+        }
+        int id = nextId++;
+        if (id == contacts.length) {
+            contacts = Arrays.copyOf(contacts, contacts.length * 2);
+        }
+        contacts[id] = contact;
+        ids.put(contact, id);
+        for (ContactField field : FIELDS) {
+            String value = field.valueOf(contact);
+            if (value != null) {
+                addGrams(grams.get(field), fold(value), id);
+            }
+        }
+    }
+
+    private static void addGrams(TreeMap<String, PostingList> map, String value, int id) {
+        for (int i = 0; i < value.length(); i++) {
+            int end = i + gramLength(value.charAt(i));
+            String gram;
+            if (end <= value.length()) {
+                gram = value.substring(i, end);
+            } else {
+                StringBuilder padded = new StringBuilder(end - i).append(value, i, value.length());
+                while (padded.length() < end - i) {
+                    padded.append(PADDING);
+                }
+                gram = padded.toString();
+            }
+            map.computeIfAbsent(gram, g -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * 删除联系人（按对象身份匹配），只把编号标记为失效
+     *
+     * @return 是否找到并删除
+     */
+    public boolean delete(Contact contact) {
+        Integer id = ids.remove(contact);
+        if (id == null) {
+            return false;
+        }
+        contacts[id] = null;
+        if (nextId - ids.size() > Math.max(ids.size(), COMPACT_THRESHOLD)) {
+            rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * 联系人的邮箱或地址被修改后重新建立它的索引项
+     */
+    public void reindex(Contact contact) {
+        if (delete(contact)) {
+            insert(contact);
+        }
+    }
+
+    /**
+     * 按编号顺序为全部有效联系人重新分配连续编号并重建倒排表
+     */
+    private void rebuild() {
+        Contact[] live = new Contact[ids.size()];
+        int n = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (contacts[id] != null) {
+                live[n++] = contacts[id];
+            }
+        }
+        for (TreeMap<String, PostingList> map : grams.values()) {
+            map.clear();
+        }
+        ids.clear();
+        contacts = new Contact[Math.max(16, live.length * 2)];
+        nextId = 0;
+        for (Contact c : live) {
+            insert(c);
+        }
+    }
+
+    /**
+     * 获取索引中的联系人数
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * 估计字段值包含text的联系人数上限，供查询规划比较各条件的选择性
+     * 取查询串各片段倒排表长度的最小值（按前缀合并时取各倒排表长度之和），不核对内容，也不扣除失效编号
+     */
+    public int estimate(ContactField field, String text) {
+        if (!supports(field)) {
+            throw new IllegalArgumentException("不支持按该字段包含查找：" + field);
+        }
+        String query = fold(text);
+        if (query.isEmpty()) {
+            return ids.size();
+        }
+        TreeMap<String, PostingList> map = grams.get(field);
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < query.length(); i++) {
+            int end = i + gramLength(query.charAt(i));
+            if (end <= query.length()) {
+                PostingList list = map.get(query.substring(i, end));
+                if (list == null) {
+                    return 0;
+                }
+                best = Math.min(best, list.size());
+            }
+        }
+        if (best != Integer.MAX_VALUE) {
+            return best;
+        }
+        long total = 0;
+        for (PostingList list : map.subMap(query, query + Character.MAX_VALUE).values()) {
+            total += list.size();
+            if (total >= ids.size()) {
+                return ids.size();
+            }
+        }
+        return (int) total;
+    }
+
+    /**
+     * 查找字段值包含text（不区分大小写）的联系人，按入索引的先后顺序返回至多limit个
+     */
+    public List<Contact> searchContains(ContactField field, String text, int limit) {
+        if (!supports(field)) {
+            throw new IllegalArgumentException("不支持按该字段包含查找：" + field);
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("结果数量不能为负数");
+        }
+        List<Contact> results = new ArrayList<>(Math.min(limit, 64));
+        String query = fold(text);
+        if (query.isEmpty() || limit == 0) {
+            return results;
+        }
+        TreeMap<String, PostingList> map = grams.get(field);
+        List<PostingList.Cursor> cursors = new ArrayList<>();
+        for (int i = 0; i < query.length(); i++) {
+            int end = i + gramLength(query.charAt(i));
+            if (end <= query.length()) {
+                PostingList list = map.get(query.substring(i, end));
+                if (list == null) {
+                    return results;
+                }
+                cursors.add(list.cursor());
+            }
+        }
+        // 查询串恰好是一个片段或按前缀合并时，命中片段本身就说明字段包含查询串，无需再核对内容
+        if (cursors.isEmpty()) {
+            String check = query.indexOf(PADDING) >= 0 ? query : null;
+            union(map.subMap(query, query + Character.MAX_VALUE).values(), field, check, limit, results);
+        } else {
+            cursors.sort(Comparator.comparingInt(PostingList.Cursor::size));
+            String check = gramLength(query.charAt(0)) == query.length() ? null : query;
+            intersect(cursors.toArray(new PostingList.Cursor[0]), field, check, limit, results);
+        }
+        return results;
+    }
+
+    /**
+     * 多路跳跃求交集（游标已按倒排表长度升序排列）：从最短的倒排表取候选，其余游标前进到候选编号，
+     * 任一游标越过候选时以它的编号作为新的候选
+     */
+    private void intersect(PostingList.Cursor[] sorted, ContactField field, String query, int limit,
+            List<Contact> results) {
+        int target = 0;
+        while (true) {
+            int candidate = sorted[0].advanceTo(target);
+            if (candidate < 0) {
+                return;
+            }
+            target = candidate + 1;
+            for (int i = 1; i < sorted.length; i++) {
+                int id = sorted[i].advanceTo(candidate);
+                if (id < 0) {
+                    return;
+                }
+                if (id > candidate) {
+                    target = id;
+                    candidate = -1;
+                    break;
+                }
+            }
+            if (candidate >= 0 && verify(candidate, field, query, results) && results.size() == limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按编号顺序合并多个倒排表，相同编号只核对一次
+     */
+    private void union(Iterable<PostingList> lists, ContactField field, String query, int limit,
+            List<Contact> results) {
+        PriorityQueue<PostingList.Cursor> heap =
+                new PriorityQueue<>(Comparator.comparingInt(PostingList.Cursor::current));
+        for (PostingList list : lists) {
+            PostingList.Cursor cursor = list.cursor();
+            if (cursor.next() >= 0) {
+                heap.add(cursor);
+            }
+        }
+        int previous = -1;
+        while (!heap.isEmpty()) {
+            PostingList.Cursor cursor = heap.poll();
+            int id = cursor.current();
+            if (id != previous) {
+                previous = id;
+                if (verify(id, field, query, results) && results.size() == limit) {
+                    return;
+                }
+            }
+            if (cursor.next() >= 0) {
+                heap.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * 核对候选编号仍然有效且字段确实包含查询串，满足时加入结果
+     *
+     * @param query 为null时只核对编号有效
+     */
+    private boolean verify(int id, ContactField field, String query, List<Contact> results) {
+        Contact contact = contacts[id];
+        if (contact == null) {
+            return false;
+        }
+        if (query != null) {
+            String value = field.valueOf(contact);
+            if (value == null || !fold(value).contains(query)) {
+                return false;
+            }
+        }
+        results.add(contact);
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.Comparator;
+
+/**
+ * 姓名排序规则
+ * 顺序为：ASCII标点、数字等符号，英文字母（不区分大小写，同一字母大写在前），
+ * 汉字按拼音（同音字按PinyinDictionary中UCA拼音排序表的先后），最后是其余字符按码位。
+ * 每个字符按一张预先算好的表映射为一个权重字符，该表是0~0xFFFF上的一一映射，因此：
+ * 排序键与姓名等长，不同姓名的排序键必然不同；name以prefix开头当且仅当sortKey(name)以sortKey(prefix)开头，
+ * 前缀查询仍是树上的一段连续区间。
+ * 各棵树在插入时为每个姓名计算一次排序键并存放在节点中，比较只是排序键之间的String.compareTo，
+ * 不需要每次比较都查拼音或调用Collator。
+ * 逐字比较而不是整体比较拼音串，即“李四”与“李明”比较的是“四”和“明”的拼音
+ */
+public final class NameCollation {
+    private static final char[] WEIGHTS = new char[Character.MAX_VALUE + 1]; // 字符 -> 排序权重
+
+    /**
+     * 按姓名排序的联系人比较器，每次比较都现算排序键，适合对查询结果等少量联系人排序
+     */
+    public static final Comparator<Contact> CONTACT_ORDER = (a, b) -> compare(a.getName(), b.getName());
+
+    static {
+        boolean[] assigned = new boolean[WEIGHTS.length];
+        int next = 0;
+        for (char c = 0; c < 0x80; c++) {
+            if (!isAsciiLetter(c)) {
+                WEIGHTS[c] = (char) next++;
+                assigned[c] = true;
+            }
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            char upper = Character.toUpperCase(c);
+            WEIGHTS[upper] = (char) next++;
+            WEIGHTS[c] = (char) next++;
+            assigned[upper] = true;
+            assigned[c] = true;
+        }
+        String hanzi = PinyinDictionary.hanziInCollationOrder();
+        for (int i = 0; i < hanzi.length(); i++) {
+            char c = hanzi.charAt(i);
+            if (!assigned[c]) {
+                WEIGHTS[c] = (char) next++;
+                assigned[c] = true;
+            }
+        }
+        for (int c = 0x80; c < WEIGHTS.length; c++) {
+            if (!assigned[c]) {
+                WEIGHTS[c] = (char) next++;
+            }
+        }
+    }
+
+    private NameCollation() {
+    }
+
+    /**
+     * 计算姓名的排序键，排序键之间用String.compareTo比较
+     */
+    public static String sortKey(String name) {
+        char[] key = new char[name.length()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = WEIGHTS[name.charAt(i)];
+        }
+        return new String(key);
+    }
+
+    /**
+     * 按排序规则比较两个姓名，结果与比较二者的排序键相同，但不生成排序键
+     */
+    public static int compare(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char wa = WEIGHTS[a.charAt(i)];
+            char wb = WEIGHTS[b.charAt(i)];
+            if (wa != wb) {
+                return wa - wb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
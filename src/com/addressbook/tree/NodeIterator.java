@@ -0,0 +1,229 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.BSTNode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 树节点迭代器
+ * 使用显式栈（层序使用队列）按指定顺序逐个产出节点，不使用递归，
+ * 额外空间与树高成正比（层序与最宽一层成正比）。
+ * 可以从遍历序列中的任意位置开始：前序、中序、后序借助子树计数沿一条路径定位，O(log n)；
+ * 层序没有可用的计数，逐个跳过前面的节点
+ */
+class NodeIterator implements Iterator<BSTNode> {
+    private final TraversalOrder order;
+    private final Deque<BSTNode> pending = new ArrayDeque<>(); // 待处理节点（栈或队列）
+    private int startSkip;                                     // 第一个产出的节点中应跳过的联系人数
+
+    NodeIterator(BSTNode root, TraversalOrder order) {
+        this.order = order;
+        if (root == null) {
+            return;
+        }
+        switch (order) {
+            case INORDER:
+                pushLeftPath(root);
+                break;
+            case POSTORDER:
+                pushPostorderPath(root);
+                break;
+            default:
+                pending.push(root);
+                break;
+        }
+    }
+
+    /**
+     * 从遍历序列中第offset个联系人开始，第一个产出的节点即包含该联系人，
+     * 其中需跳过的联系人数由getStartSkip()给出；offset不小于联系人总数时没有节点可产出
+     */
+    NodeIterator(BSTNode root, TraversalOrder order, int offset) {
+        this.order = order;
+        if (root == null || offset >= root.getSize()) {
+            return;
+        }
+        switch (order) {
+            case PREORDER:
+                seekPreorder(root, offset);
+                break;
+            case INORDER:
+                seekInorder(root, offset);
+                break;
+            case POSTORDER:
+                seekPostorder(root, offset);
+                break;
+            default:
+                pending.offer(root);
+                while (offset >= pending.peek().getContacts().size()) {
+                    offset -= pending.peek().getContacts().size();
+                    nextLevelOrder();
+                }
+                startSkip = offset;
+                break;
+        }
+    }
+
+    /**
+     * 前序：节点、左子树、右子树；进入左子树前先压入右孩子，与nextPreorder的栈内容一致
+     */
+    private void seekPreorder(BSTNode node, int offset) {
+        while (true) {
+            int bucketSize = node.getContacts().size();
+            if (offset < bucketSize) {
+                pending.push(node);
+                startSkip = offset;
+                return;
+            }
+            offset -= bucketSize;
+            int leftSize = sizeOf(node.getLeft());
+            if (offset < leftSize) {
+                if (node.getRight() != null) {
+                    pending.push(node.getRight());
+                }
+                node = node.getLeft();
+            } else {
+                offset -= leftSize;
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * 中序：左子树、节点、右子树；进入左子树的祖先压栈，之后按nextInorder输出
+     */
+    private void seekInorder(BSTNode node, int offset) {
+        while (true) {
+            int leftSize = sizeOf(node.getLeft());
+            int bucketSize = node.getContacts().size();
+            if (offset < leftSize) {
+                pending.push(node);
+                node = node.getLeft();
+            } else if (offset < leftSize + bucketSize) {
+                pending.push(node);
+                startSkip = offset - leftSize;
+                return;
+            } else {
+                offset -= leftSize + bucketSize;
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * 后序：左子树、右子树、节点；路径上的节点都尚未产出，全部压栈，栈顶即目标节点
+     */
+    private void seekPostorder(BSTNode node, int offset) {
+        while (true) {
+            pending.push(node);
+            int leftSize = sizeOf(node.getLeft());
+            int rightSize = sizeOf(node.getRight());
+            if (offset < leftSize) {
+                node = node.getLeft();
+            } else if (offset < leftSize + rightSize) {
+                offset -= leftSize;
+                node = node.getRight();
+            } else {
+                startSkip = offset - leftSize - rightSize;
+                return;
+            }
+        }
+    }
+
+    private static int sizeOf(BSTNode node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * 第一个产出的节点中应跳过的联系人数（从指定位置开始时使用）
+     */
+    int getStartSkip() {
+        return startSkip;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public BSTNode next() {
+        if (pending.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        switch (order) {
+            case PREORDER:
+                return nextPreorder();
+            case INORDER:
+                return nextInorder();
+            case POSTORDER:
+                return nextPostorder();
+            default:
+                return nextLevelOrder();
+        }
+    }
+
+    private BSTNode nextPreorder() {
+        BSTNode node = pending.pop();
+        // 先压右再压左，保证左子树先出栈
+        if (node.getRight() != null) {
+            pending.push(node.getRight());
+        }
+        if (node.getLeft() != null) {
+            pending.push(node.getLeft());
+        }
+        return node;
+    }
+
+    private BSTNode nextInorder() {
+        BSTNode node = pending.pop();
+        pushLeftPath(node.getRight());
+        return node;
+    }
+
+    /**
+     * 后序：栈顶始终是下一个要产出的节点；
+     * 弹出左孩子后若父节点还有右子树，则先压入右子树的下降路径
+     */
+    private BSTNode nextPostorder() {
+        BSTNode node = pending.pop();
+        BSTNode parent = pending.peek();
+        if (parent != null && parent.getLeft() == node && parent.getRight() != null) {
+            pushPostorderPath(parent.getRight());
+        }
+        return node;
+    }
+
+    private BSTNode nextLevelOrder() {
+        BSTNode node = pending.poll();
+        if (node.getLeft() != null) {
+            pending.offer(node.getLeft());
+        }
+        if (node.getRight() != null) {
+            pending.offer(node.getRight());
+        }
+        return node;
+    }
+
+    /**
+     * 中序：压入从node出发的最左路径
+     */
+    private void pushLeftPath(BSTNode node) {
+        while (node != null) {
+            pending.push(node);
+            node = node.getLeft();
+        }
+    }
+
+    /**
+     * 后序：压入从node出发、优先向左否则向右的下降路径，栈顶即为下一个候选叶子
+     */
+    private void pushPostorderPath(BSTNode node) {
+        while (node != null) {
+            pending.push(node);
+            node = node.getLeft() != null ? node.getLeft() : node.getRight();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.Arrays;
+
+/**
+ * 堆外存储的数组AVL树实现类
+ * 树结构见AbstractArrayAVLTree；联系人字段以UTF-8记录存放在堆外记录区（OffHeapRecordStore），
+ * 条目只保存long记录句柄，堆上只剩节点数组、每个不同姓名一个键字符串和电话哈希表，
+ * 对象数量与联系人数无关，GC无需扫描数以百万计的联系人和字符串。
+ * 查询返回的联系人是按需从记录解码出的副本：修改副本不会影响存储，应通过update修改；
+ * 同一联系人两次取出的是不同对象。
+ * 记录区中的垃圾（删除和修改留下的旧记录）超过存活记录且达到1MB时，把存活记录复制到新的记录区。
+ * 只维护电话索引，没有拼音、子串等二级索引，这些查询使用ContactTree沿中序遍历的默认实现（见ContactScan）；
+ * AddressBookService以StorageMode.OFF_HEAP创建时使用它
+ */
+public class OffHeapAVLTree extends AbstractArrayAVLTree {
+    private static final long FREE = -1;                  // 空闲条目的句柄
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private OffHeapRecordStore store = new OffHeapRecordStore();
+    private long[] records = freeRecords(INITIAL_CAPACITY); // 条目编号 -> 记录句柄
+
+    @Override
+    void storeEntry(int entry, Contact contact) {
+        long old = records[entry];
+        records[entry] = store.write(contact);
+        if (old != FREE) {
+            store.free(old);
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    void clearEntry(int entry) {
+        store.free(records[entry]);
+        records[entry] = FREE;
+        compactIfNeeded();
+    }
+
+    @Override
+    Contact contactAt(int entry) {
+        return store.read(records[entry]);
+    }
+
+    @Override
+    String phoneAt(int entry) {
+        return store.readPhone(records[entry]);
+    }
+
+    @Override
+    boolean hasEntry(int entry) {
+        return records[entry] != FREE;
+    }
+
+    @Override
+    void growEntries(int capacity) {
+        int old = records.length;
+        records = Arrays.copyOf(records, capacity);
+        Arrays.fill(records, old, capacity, FREE);
+    }
+
+    /**
+     * 已分配的直接内存字节数
+     */
+    public long offHeapBytes() {
+        return store.reservedBytes();
+    }
+
+    /**
+     * 垃圾过多时把存活记录复制到新的记录区，条目编号不变，只更新句柄
+     */
+    private void compactIfNeeded() {
+        if (store.garbageBytes() < MIN_COMPACT_BYTES || store.garbageBytes() <= store.liveBytes()) {
+            return;
+        }
+        OffHeapRecordStore compacted = new OffHeapRecordStore();
+        for (int entry = 0; entry < entryLimit(); entry++) {
+            if (records[entry] != FREE) {
+                records[entry] = compacted.copy(store, records[entry]);
+            }
+        }
+        store = compacted;
+    }
+
+    private static long[] freeRecords(int capacity) {
+        long[] records = new long[capacity];
+        Arrays.fill(records, FREE);
+        return records;
+    }
+}
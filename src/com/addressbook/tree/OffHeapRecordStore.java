@@ -0,0 +1,203 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外联系人记录区
+ * 联系人的四个字段以UTF-8编码连续写入直接内存（DirectByteBuffer）分块中，只在堆上留下少量分块对象；
+ * 记录句柄是long：高32位为分块号，低32位为块内偏移。
+ * 记录格式：四个字段的字节长度（各2字节，0xFFFF表示null），随后依次是姓名、电话、邮箱、地址的字节。
+ * 分块从64KB起按两倍增长到64MB，记录不跨块。记录只追加不原地修改，释放只累计垃圾字节数，
+ * 由所属的树在垃圾过多时把存活记录复制到新的记录区（见OffHeapAVLTree），旧分块随之被回收。
+ * 非线程安全
+ */
+final class OffHeapRecordStore {
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int HEADER_SIZE = 8;
+    private static final int NULL_LENGTH = 0xFFFF;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current; // 正在写入的分块
+    private int position;       // 当前分块的写入位置
+    private long liveBytes;     // 存活记录的字节数
+    private long garbageBytes;  // 已释放记录的字节数
+    private long reservedBytes; // 已分配的直接内存
+
+    /**
+     * 写入联系人
+     *
+     * @return 记录句柄
+     * @throws IllegalArgumentException 如果某个字段的UTF-8编码超过65534字节
+     */
+    long write(Contact contact) {
+        byte[] name = encode(contact.getName());
+        byte[] phone = encode(contact.getPhone());
+        byte[] email = encode(contact.getEmail());
+        byte[] address = encode(contact.getAddress());
+        int length = HEADER_SIZE + lengthOf(name) + lengthOf(phone) + lengthOf(email) + lengthOf(address);
+        ByteBuffer chunk = reserve(length);
+        int offset = position;
+        chunk.putShort(offset, (short) headerLength(name));
+        chunk.putShort(offset + 2, (short) headerLength(phone));
+        chunk.putShort(offset + 4, (short) headerLength(email));
+        chunk.putShort(offset + 6, (short) headerLength(address));
+        int p = offset + HEADER_SIZE;
+        p = put(chunk, p, name);
+        p = put(chunk, p, phone);
+        p = put(chunk, p, email);
+        put(chunk, p, address);
+        return commit(length);
+    }
+
+    /**
+     * 把另一个记录区中的记录原样复制到本记录区（压缩用）
+     *
+     * @return 新的记录句柄
+     */
+    long copy(OffHeapRecordStore source, long handle) {
+        ByteBuffer from = source.chunk(handle);
+        int offset = offset(handle);
+        int length = recordLength(from, offset);
+        byte[] raw = new byte[length];
+        from.get(offset, raw);
+        reserve(length).put(position, raw);
+        return commit(length);
+    }
+
+    /**
+     * 把记录解码为联系人对象（每次调用都创建新对象）
+     */
+    Contact read(long handle) {
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        int p = offset + HEADER_SIZE;
+        int nameLength = chunk.getShort(offset) & 0xFFFF;
+        int phoneLength = chunk.getShort(offset + 2) & 0xFFFF;
+        int emailLength = chunk.getShort(offset + 4) & 0xFFFF;
+        int addressLength = chunk.getShort(offset + 6) & 0xFFFF;
+        String name = decode(chunk, p, nameLength);
+        p += bytesOf(nameLength);
+        String phone = decode(chunk, p, phoneLength);
+        p += bytesOf(phoneLength);
+        String email = decode(chunk, p, emailLength);
+        p += bytesOf(emailLength);
+        String address = decode(chunk, p, addressLength);
+        return new Contact(name, phone, email, address);
+    }
+
+    /**
+     * 只解码记录中的电话
+     */
+    String readPhone(long handle) {
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        int nameLength = chunk.getShort(offset) & 0xFFFF;
+        return decode(chunk, offset + HEADER_SIZE + bytesOf(nameLength), chunk.getShort(offset + 2) & 0xFFFF);
+    }
+
+    /**
+     * 释放记录，只计入垃圾字节数
+     */
+    void free(long handle) {
+        int length = recordLength(chunk(handle), offset(handle));
+        liveBytes -= length;
+        garbageBytes += length;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * 已分配的直接内存字节数
+     */
+    long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * 保证当前分块还能写下length字节，不够时分配新分块
+     */
+    private ByteBuffer reserve(int length) {
+        if (current == null || position + length > current.capacity()) {
+            int size = Math.max(length, Math.min(MAX_CHUNK_SIZE, MIN_CHUNK_SIZE << Math.min(chunks.size(), 10)));
+            current = ByteBuffer.allocateDirect(size);
+            chunks.add(current);
+            position = 0;
+            reservedBytes += size;
+        }
+        return current;
+    }
+
+    private long commit(int length) {
+        long handle = ((long) (chunks.size() - 1) << 32) | position;
+        position += length;
+        liveBytes += length;
+        return handle;
+    }
+
+    private ByteBuffer chunk(long handle) {
+        return chunks.get((int) (handle >>> 32));
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+
+    private static int recordLength(ByteBuffer chunk, int offset) {
+        int length = HEADER_SIZE;
+        for (int i = 0; i < 4; i++) {
+            length += bytesOf(chunk.getShort(offset + 2 * i) & 0xFFFF);
+        }
+        return length;
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("联系人字段过长：超过" + (NULL_LENGTH - 1) + "字节");
+        }
+        return bytes;
+    }
+
+    private static String decode(ByteBuffer chunk, int offset, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        chunk.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int put(ByteBuffer chunk, int offset, byte[] bytes) {
+        if (bytes == null) {
+            return offset;
+        }
+        chunk.put(offset, bytes);
+        return offset + bytes.length;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static int headerLength(byte[] bytes) {
+        return bytes == null ? NULL_LENGTH : bytes.length;
+    }
+
+    private static int bytesOf(int headerLength) {
+        return headerLength == NULL_LENGTH ? 0 : headerLength;
+    }
+}
@@ -0,0 +1,110 @@
+package com.addressbook.tree;
+
+/**
+ * 电话到条目编号的开放寻址哈希表（线性探测，删除时后移填补空位，不留墓碑）
+ * 只保存条目编号和电话的哈希值，电话本身由所属的树按条目编号取出比较，
+ * 不像HashMap那样为每个联系人创建一个映射节点对象
+ */
+final class PhoneTable {
+    /**
+     * 按条目编号取电话
+     */
+    interface PhoneSource {
+        String phoneAt(int entry);
+    }
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final PhoneSource source;
+    private int[] slots = new int[INITIAL_CAPACITY];  // 条目编号+1，0表示空槽
+    private int[] hashes = new int[INITIAL_CAPACITY]; // 槽中电话的哈希值，扩容和后移时无需重新取电话
+    private int size;
+
+    PhoneTable(PhoneSource source) {
+        this.source = source;
+    }
+
+    /**
+     * 查找电话所在的条目
+     *
+     * @return 条目编号，不存在时返回-1
+     */
+    int find(String phone) {
+        int hash = hash(phone);
+        int mask = slots.length - 1;
+        for (int i = hash & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (hashes[i] == hash && phone.equals(source.phoneAt(slots[i] - 1))) {
+                return slots[i] - 1;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * 登记条目的电话（调用方保证电话非空且尚未登记）
+     */
+    void add(int entry) {
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        place(entry + 1, hash(source.phoneAt(entry)));
+        size++;
+    }
+
+    /**
+     * 移除条目的电话登记，需在条目的电话改变或释放之前调用
+     */
+    void remove(int entry) {
+        int mask = slots.length - 1;
+        int gap = hash(source.phoneAt(entry)) & mask;
+        while (slots[gap] != entry + 1) {
+            if (slots[gap] == 0) {
+                return;
+            }
+            gap = (gap + 1) & mask;
+        }
+        size--;
+        // 把后面探测链上的元素前移填补空位：元素的初始位置到当前位置的循环区间包含空位时才能前移
+        for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = hashes[j] & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots[gap] = slots[j];
+                hashes[gap] = hashes[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(int slot, int hash) {
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = slot;
+        hashes[i] = hash;
+    }
+
+    private void resize() {
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new int[oldSlots.length * 2];
+        hashes = new int[oldSlots.length * 2];
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                place(oldSlots[i], oldHashes[i]);
+            }
+        }
+    }
+
+    private static int hash(String phone) {
+        int h = phone.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,405 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 电话号码数字前缀树（路径压缩）
+ * 以电话中的数字（忽略空格、横线、加号等）为键，支持拨号盘式的前缀查询。
+ * 只在分叉处建立内部节点，只有一个号码的分支直接以联系人作为叶子；
+ * 节点不保存被压缩的数字，需要时从子树中任一联系人（sample）的号码读取，
+ * 因此内部节点数远小于号码数，每个节点只有计数、位图和子项数组。
+ * 查询通过Cursor进行：每输入一位数字只从上一位的位置前进一步，与号码总数无关
+ */
+public final class PhoneTrie {
+    private static final Object[] NO_CHILDREN = new Object[0];
+    private static final Contact[] NO_CONTACTS = new Contact[0];
+
+    /**
+     * 内部节点：子树中所有号码共享前depth位数字
+     */
+    private static final class Node {
+        final int depth;
+        Contact sample;                      // 子树中任一联系人，用于读取压缩掉的数字
+        int count;                           // 子树中的联系人数
+        int mask;                            // 第d位为1表示存在以数字d开头的子项
+        Object[] children = NO_CHILDREN;     // 按数字升序排列，元素为Node或Contact（叶子）
+        Contact[] terminals = NO_CONTACTS;   // 号码数字恰好在本节点结束的联系人
+
+        Node(int depth, Contact sample) {
+            this.depth = depth;
+            this.sample = sample;
+        }
+
+        private int slot(int digit) {
+            return Integer.bitCount(mask & ((1 << digit) - 1));
+        }
+
+        Object child(int digit) {
+            return (mask & (1 << digit)) == 0 ? null : children[slot(digit)];
+        }
+
+        void putChild(int digit, Object child) {
+            int slot = slot(digit);
+            if ((mask & (1 << digit)) != 0) {
+                children[slot] = child;
+                return;
+            }
+            Object[] grown = new Object[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, slot);
+            grown[slot] = child;
+            System.arraycopy(children, slot, grown, slot + 1, children.length - slot);
+            children = grown;
+            mask |= 1 << digit;
+        }
+
+        void removeChild(int digit) {
+            int slot = slot(digit);
+            Object[] shrunk = children.length == 1 ? NO_CHILDREN : new Object[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, slot);
+            System.arraycopy(children, slot + 1, shrunk, slot, children.length - slot - 1);
+            children = shrunk;
+            mask &= ~(1 << digit);
+        }
+
+        /**
+         * 放入一个键长至少为depth的子项：键恰好结束时作为终止联系人，否则按下一位数字作为子项
+         */
+        void add(Object item, String itemKey) {
+            if (itemKey.length() == depth) {
+                addTerminal((Contact) item);
+            } else {
+                putChild(itemKey.charAt(depth) - '0', item);
+            }
+        }
+
+        void addTerminal(Contact contact) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = contact;
+        }
+
+        boolean removeTerminal(Contact contact) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i] == contact) {
+                    Contact[] shrunk = terminals.length == 1 ? NO_CONTACTS : new Contact[terminals.length - 1];
+                    System.arraycopy(terminals, 0, shrunk, 0, i);
+                    System.arraycopy(terminals, i + 1, shrunk, i, terminals.length - i - 1);
+                    terminals = shrunk;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Node root = new Node(0, null);
+    private int modCount; // 结构修改次数，游标据此判断缓存的位置是否失效
+
+    /**
+     * 提取电话中的数字；本身全是数字时直接返回原字符串，不分配新对象
+     */
+    static String digitsOf(String phone) {
+        int i = 0;
+        while (i < phone.length() && isDigit(phone.charAt(i))) {
+            i++;
+        }
+        if (i == phone.length()) {
+            return phone;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        digits.append(phone, 0, i);
+        for (; i < phone.length(); i++) {
+            if (isDigit(phone.charAt(i))) {
+                digits.append(phone.charAt(i));
+            }
+        }
+        return digits.toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String keyOf(Object item) {
+        return digitsOf(item instanceof Node ? ((Node) item).sample.getPhone() : ((Contact) item).getPhone());
+    }
+
+    private static int countOf(Object item) {
+        return item instanceof Node ? ((Node) item).count : 1;
+    }
+
+    /**
+     * 插入联系人（电话不能为null）
+     * 沿路径下探到第一个分歧位置，必要时在该位置分裂出新的分支节点
+     */
+    public void insert(Contact contact) {
+        String key = digitsOf(contact.getPhone());
+        modCount++;
+        Node node = root;
+        while (true) {
+            node.count++;
+            if (key.length() == node.depth) {
+                node.addTerminal(contact);
+                return;
+            }
+            int digit = key.charAt(node.depth) - '0';
+            Object child = node.child(digit);
+            if (child == null) {
+                node.putChild(digit, contact);
+                return;
+            }
+
+            // 比较新号码与子项共享的数字，直到分歧、任一号码结束或到达子节点深度
+            String childKey = keyOf(child);
+            int childDepth = child instanceof Node ? ((Node) child).depth : childKey.length();
+            int limit = Math.min(key.length(), childDepth);
+            int common = node.depth + 1;
+            while (common < limit && key.charAt(common) == childKey.charAt(common)) {
+                common++;
+            }
+            if (child instanceof Node && common == childDepth) {
+                node = (Node) child;
+                continue;
+            }
+
+            // 在第common位分裂：新分支节点同时容纳原子项和新联系人
+            Node branch = new Node(common, contact);
+            branch.count = countOf(child) + 1;
+            branch.add(child, childKey);
+            branch.add(contact, key);
+            node.putChild(digit, branch);
+            return;
+        }
+    }
+
+    /**
+     * 删除联系人（按对象身份匹配），之后收缩不再需要的分支节点
+     *
+     * @return 是否找到并删除
+     */
+    public boolean delete(Contact contact) {
+        String key = digitsOf(contact.getPhone());
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        while (true) {
+            path.add(node);
+            if (key.length() == node.depth) {
+                if (!node.removeTerminal(contact)) {
+                    return false;
+                }
+                break;
+            }
+            int digit = key.charAt(node.depth) - '0';
+            Object child = node.child(digit);
+            if (child == contact) {
+                node.removeChild(digit);
+                break;
+            }
+            if (!(child instanceof Node) || key.length() < ((Node) child).depth) {
+                return false;
+            }
+            node = (Node) child;
+        }
+
+        modCount++;
+        for (Node n : path) {
+            n.count--;
+            if (n.sample == contact) {
+                n.sample = n.count == 0 ? null : anyContact(n);
+            }
+        }
+        // 自底向上：空节点移除，只剩一个子项或一个终止联系人的节点由它顶替
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node n = path.get(i);
+            Node parent = path.get(i - 1);
+            int digit = key.charAt(parent.depth) - '0';
+            if (n.count == 0) {
+                parent.removeChild(digit);
+            } else {
+                if (n.terminals.length == 0 && n.children.length == 1) {
+                    parent.putChild(digit, n.children[0]);
+                } else if (n.terminals.length == 1 && n.children.length == 0) {
+                    parent.putChild(digit, n.terminals[0]);
+                }
+                break;
+            }
+        }
+        return true;
+    }
+
+    private static Contact anyContact(Node node) {
+        while (node.terminals.length == 0) {
+            Object first = node.children[0];
+            if (first instanceof Contact) {
+                return (Contact) first;
+            }
+            node = (Node) first;
+        }
+        return node.terminals[0];
+    }
+
+    /**
+     * 获取联系人总数
+     */
+    public int size() {
+        return root.count;
+    }
+
+    /**
+     * 查询号码以digits开头的联系人，按号码数字顺序返回至多limit个
+     */
+    public List<Contact> searchByPrefix(String digits, int limit) {
+        return cursor().type(digits).results(limit);
+    }
+
+    /**
+     * 创建从空前缀开始的增量查询游标
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * 拨号盘增量查询游标
+     * 记录每输入一位数字后所在的位置（Node、叶子Contact或null表示无匹配），
+     * 输入下一位只需在当前位置比较一位数字，退格直接回到上一位的位置。
+     * 前缀树被修改后，游标在下次使用时从根重新定位当前前缀。游标本身不是线程安全的
+     */
+    public final class Cursor {
+        private final StringBuilder prefix = new StringBuilder();
+        private Object[] positions = {root}; // positions[i]为输入前i位数字后的位置
+        private int expectedModCount = modCount;
+
+        private Cursor() {
+        }
+
+        /**
+         * 追加数字，非数字字符被忽略
+         */
+        public Cursor type(CharSequence digits) {
+            for (int i = 0; i < digits.length(); i++) {
+                type(digits.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * 追加一位数字，非数字字符被忽略
+         */
+        public Cursor type(char c) {
+            if (!isDigit(c)) {
+                return this;
+            }
+            revalidate();
+            int length = prefix.length();
+            if (positions.length == length + 1) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            }
+            positions[length + 1] = advance(positions[length], length, c);
+            prefix.append(c);
+            return this;
+        }
+
+        /**
+         * 删除最后一位数字
+         */
+        public Cursor backspace() {
+            if (prefix.length() > 0) {
+                prefix.setLength(prefix.length() - 1);
+            }
+            return this;
+        }
+
+        /**
+         * 清空已输入的数字
+         */
+        public Cursor clear() {
+            prefix.setLength(0);
+            return this;
+        }
+
+        /**
+         * 获取已输入的数字
+         */
+        public String getPrefix() {
+            return prefix.toString();
+        }
+
+        /**
+         * 获取号码以当前前缀开头的联系人数（O(1)）
+         */
+        public int count() {
+            revalidate();
+            Object position = positions[prefix.length()];
+            return position == null ? 0 : countOf(position);
+        }
+
+        /**
+         * 按号码数字顺序返回至多limit个匹配的联系人
+         */
+        public List<Contact> results(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("结果数量不能为负数");
+            }
+            revalidate();
+            List<Contact> results = new ArrayList<>(Math.min(limit, count()));
+            Object position = positions[prefix.length()];
+            if (position == null || limit == 0) {
+                return results;
+            }
+            Deque<Object> stack = new ArrayDeque<>();
+            stack.push(position);
+            while (!stack.isEmpty() && results.size() < limit) {
+                Object item = stack.pop();
+                if (item instanceof Contact) {
+                    results.add((Contact) item);
+                    continue;
+                }
+                Node node = (Node) item;
+                for (Contact c : node.terminals) {
+                    if (results.size() == limit) {
+                        break;
+                    }
+                    results.add(c);
+                }
+                for (int i = node.children.length - 1; i >= 0; i--) {
+                    stack.push(node.children[i]);
+                }
+            }
+            return results;
+        }
+
+        /**
+         * 前缀树被修改过时从根重新定位已输入的每一位
+         */
+        private void revalidate() {
+            if (expectedModCount == modCount) {
+                return;
+            }
+            positions[0] = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                positions[i + 1] = advance(positions[i], i, prefix.charAt(i));
+            }
+            expectedModCount = modCount;
+        }
+
+        /**
+         * 从匹配前length位的位置出发，匹配第length位数字c
+         */
+        private Object advance(Object position, int length, char c) {
+            if (position == null) {
+                return null;
+            }
+            if (position instanceof Node && ((Node) position).depth == length) {
+                return ((Node) position).child(c - '0');
+            }
+            // 位于压缩路径中间或叶子上：比较号码的下一位
+            String key = keyOf(position);
+            return key.length() > length && key.charAt(length) == c ? position : null;
+        }
+    }
+}
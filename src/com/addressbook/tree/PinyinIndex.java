@@ -0,0 +1,167 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 姓名拼音索引
+ * 为每个联系人的姓名生成全拼键（如"zhangsan"）和首字母键（如"zs"），存入按键排序的TreeMap，
+ * 以某个前缀开头的键构成一段连续区间，前缀查询只需定位区间起点并顺序读取，复杂度为O(log n + k)。
+ * 姓名中的英文字母和数字按小写原样参与匹配，其他符号忽略；多音字生成各读音组合的键（数量有上限）
+ */
+public final class PinyinIndex {
+    private static final int MAX_READINGS = 8; // 每个姓名最多生成的读音组合数
+
+    private final TreeMap<String, List<Contact>> keys = new TreeMap<>(); // 拼音键 -> 联系人
+    private int size;
+
+    /**
+     * 生成姓名的全部拼音键：各读音组合的全拼及首字母，去重后按生成顺序返回
+     * 姓名中没有可匹配的字符时返回空串键，使联系人仍留在索引中以便删除（空串不会被查询命中）
+     */
+    static List<String> keysOf(String name) {
+        List<StringBuilder> fulls = new ArrayList<>();
+        List<StringBuilder> initials = new ArrayList<>();
+        fulls.add(new StringBuilder());
+        initials.add(new StringBuilder());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            String[] readings;
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                readings = new String[] { String.valueOf(c) };
+            } else if (c >= 'A' && c <= 'Z') {
+                readings = new String[] { String.valueOf((char) (c + ('a' - 'A'))) };
+            } else {
+                readings = PinyinDictionary.readingsOf(c);
+                if (readings == null) {
+                    continue;
+                }
+            }
+            // 组合数已达上限时多音字只取最常用读音
+            int variants = fulls.size() * readings.length > MAX_READINGS ? 1 : readings.length;
+            int count = fulls.size();
+            for (int r = 1; r < variants; r++) {
+                for (int k = 0; k < count; k++) {
+                    fulls.add(new StringBuilder(fulls.get(k)).append(readings[r]));
+                    initials.add(new StringBuilder(initials.get(k)).append(readings[r].charAt(0)));
+                }
+            }
+            for (int k = 0; k < count; k++) {
+                fulls.get(k).append(readings[0]);
+                initials.get(k).append(readings[0].charAt(0));
+            }
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (int k = 0; k < fulls.size(); k++) {
+            result.add(fulls.get(k).toString());
+            result.add(initials.get(k).toString());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * 规范化查询串：转为小写，去掉空格、隔音符等非字母数字字符，ü记作v
+     */
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        for (int i = 0; i < query.length(); i++) {
+            char c = Character.toLowerCase(query.charAt(i));
+            if (c == 'ü') {
+                normalized.append('v');
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 加入联系人（姓名不能为null）
+     */
+    public void insert(Contact contact) {
+        for (String key : keysOf(contact.getName())) {
+            keys.computeIfAbsent(key, k -> new ArrayList<>(1)).add(contact);
+        }
+        size++;
+    }
+
+    /**
+     * 删除联系人（按对象身份匹配）
+     *
+     * @return 是否找到并删除
+     */
+    public boolean delete(Contact contact) {
+        boolean found = false;
+        for (String key : keysOf(contact.getName())) {
+            List<Contact> bucket = keys.get(key);
+            int i = bucket == null ? -1 : indexOf(bucket, contact);
+            if (i < 0) {
+                continue;
+            }
+            found = true;
+            if (bucket.size() == 1) {
+                keys.remove(key);
+            } else {
+                bucket.remove(i);
+            }
+        }
+        if (found) {
+            size--;
+        }
+        return found;
+    }
+
+    private static int indexOf(List<Contact> bucket, Contact contact) {
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == contact) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取索引中的联系人数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 查询全拼或首字母以query开头的联系人，按拼音键顺序返回至多limit个
+     * 例如"zhang"、"zhangs"、"zs"都能找到"张三"
+     */
+    public List<Contact> searchByPrefix(String query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("结果数量不能为负数");
+        }
+        String prefix = normalize(query);
+        List<Contact> results = new ArrayList<>(Math.min(limit, 64));
+        if (prefix.isEmpty() || limit == 0) {
+            return results;
+        }
+        // 同一联系人的全拼键和首字母键可能同时命中，按身份去重
+        Set<Contact> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<String, List<Contact>> entry : keys.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            for (Contact c : entry.getValue()) {
+                if (seen.add(c)) {
+                    results.add(c);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,145 @@
+package com.addressbook.tree;
+
+import java.util.Arrays;
+
+/**
+ * 压缩倒排表
+ * 按升序保存编号，相邻编号之差以变长字节（每字节7位，最高位表示后面还有字节）编码，
+ * 常见的小间隔只占一个字节。每BLOCK个编号记录一个跳跃点（块前最后一个编号及块的字节位置），
+ * 求交集时游标可以二分跳跃点直接越过整块，而不必逐个解码
+ */
+final class PostingList {
+    private static final int BLOCK = 128;
+    private static final int[] NO_SKIPS = new int[0];
+
+    private byte[] data = new byte[2];
+    private int length;                   // 已使用的字节数
+    private int count;                    // 编号个数
+    private int last = -1;                // 最后一个编号
+    private int[] skipIds = NO_SKIPS;     // skipIds[b - 1]为第b块之前的最后一个编号
+    private int[] skipOffsets = NO_SKIPS; // skipOffsets[b - 1]为第b块的起始字节位置
+
+    /**
+     * 追加编号，必须大于已有的全部编号；等于最后一个编号时忽略
+     */
+    void add(int id) {
+        if (id == last) {
+            return;
+        }
+        if (id < last) {
+            throw new IllegalArgumentException("编号必须递增：" + id);
+        }
+        if (count > 0 && count % BLOCK == 0) {
+            int block = count / BLOCK;
+            if (skipIds.length < block) {
+                skipIds = Arrays.copyOf(skipIds, Math.max(4, block * 2));
+                skipOffsets = Arrays.copyOf(skipOffsets, skipIds.length);
+            }
+            skipIds[block - 1] = last;
+            skipOffsets[block - 1] = length;
+        }
+        if (data.length - length < 5) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        int delta = id - last;
+        while (delta >= 0x80) {
+            data[length++] = (byte) (delta | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = id;
+        count++;
+    }
+
+    /**
+     * 获取编号个数
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * 创建从头开始的读取游标
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * 倒排表读取游标，只能向前移动
+     */
+    final class Cursor {
+        private int index;       // 已解码的编号个数
+        private int offset;      // 下一个编号的字节位置
+        private int current = -1;
+
+        /**
+         * 所属倒排表的编号个数
+         */
+        int size() {
+            return count;
+        }
+
+        /**
+         * 当前编号，尚未读取或已读完时无意义
+         */
+        int current() {
+            return current;
+        }
+
+        /**
+         * 读取下一个编号
+         *
+         * @return 编号，已读完时返回-1
+         */
+        int next() {
+            if (index == count) {
+                return -1;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            index++;
+            current += delta;
+            return current;
+        }
+
+        /**
+         * 前进到第一个不小于target的编号（当前编号已满足时不移动）
+         *
+         * @return 该编号，不存在时返回-1
+         */
+        int advanceTo(int target) {
+            if (index > 0 && current >= target) {
+                return current;
+            }
+            // 找到块前编号小于target的最后一块，若在当前位置之后则直接跳过去
+            int blocks = (count - 1) / BLOCK;
+            int lo = 0;
+            int hi = blocks - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (skipIds[mid] < target) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (lo > 0 && lo * BLOCK > index) {
+                index = lo * BLOCK;
+                offset = skipOffsets[lo - 1];
+                current = skipIds[lo - 1];
+            }
+            int id;
+            do {
+                id = next();
+            } while (id >= 0 && id < target);
+            return id;
+        }
+    }
+}
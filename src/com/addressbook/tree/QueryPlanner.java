@@ -0,0 +1,193 @@
+package com.addressbook.tree;
+
+import com.addressbook.model.Contact;
+import com.addressbook.model.ContactField;
+import com.addressbook.model.ContactQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 组合条件查询的规划与执行
+ * 先为条件树中每个能走索引的字段条件估计候选数：姓名相等和前缀用AVL树（前缀借助子树计数精确计数），
+ * 电话相等用哈希索引，电话前缀用数字前缀树，其余姓名、邮箱、地址条件都隐含“字段包含value”，用n-gram索引。
+ * AND取估计候选最少的子条件作为来源，其余条件在候选上过滤；OR要求每个子条件都能走索引，候选取并集。
+ * 没有可用的索引，或候选超过总数的1/SCAN_RATIO时，改为沿中序遍历整棵树逐个过滤，不复制联系人列表。
+ * 两种方式的结果都按姓名顺序输出
+ */
+final class QueryPlanner {
+    private static final int SCAN_RATIO = 4; // 候选数超过总数的1/4时遍历比取候选再排序更划算
+
+    private final AVLTree tree;
+    private final Map<String, Contact> phoneIndex;
+    private final PhoneTrie phoneTrie;
+    private final NGramIndex ngramIndex;
+
+    QueryPlanner(AVLTree tree, Map<String, Contact> phoneIndex, PhoneTrie phoneTrie, NGramIndex ngramIndex) {
+        this.tree = tree;
+        this.phoneIndex = phoneIndex;
+        this.phoneTrie = phoneTrie;
+        this.ngramIndex = ngramIndex;
+    }
+
+    /**
+     * 候选来源：某个索引上的一次查找，结果是满足条件的联系人的超集
+     */
+    private static final class Access {
+        final String description;
+        final long estimate;
+        final Supplier<Collection<Contact>> fetch;
+
+        Access(String description, long estimate, Supplier<Collection<Contact>> fetch) {
+            this.description = description;
+            this.estimate = estimate;
+            this.fetch = fetch;
+        }
+    }
+
+    /**
+     * 按姓名顺序把匹配的前limit个联系人交给action
+     *
+     * @return 交给action的联系人数
+     */
+    int execute(ContactQuery query, int limit, Consumer<Contact> action) {
+        Access access = access(query);
+        int count = 0;
+        if (limit == 0) {
+            return count;
+        }
+        if (!useIndex(access)) {
+            for (Contact contact : tree) {
+                if (query.matches(contact)) {
+                    action.accept(contact);
+                    if (++count == limit) {
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+        List<Contact> matched = new ArrayList<>();
+        for (Contact contact : access.fetch.get()) {
+            if (query.matches(contact)) {
+                matched.add(contact);
+            }
+        }
+        matched.sort(NameCollation.CONTACT_ORDER);
+        for (Contact contact : matched) {
+            action.accept(contact);
+            if (++count == limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 说明查询的执行方式
+     */
+    String explain(ContactQuery query) {
+        Access access = access(query);
+        if (access == null) {
+            return "遍历：没有可用的索引，逐个过滤全部" + tree.size() + "个联系人";
+        }
+        if (!useIndex(access)) {
+            return "遍历：" + access.description + "约" + access.estimate + "个候选，超过总数的1/" + SCAN_RATIO
+                    + "，逐个过滤全部" + tree.size() + "个联系人";
+        }
+        return "索引：" + access.description + "约" + access.estimate + "个候选，其余条件逐个过滤";
+    }
+
+    private boolean useIndex(Access access) {
+        return access != null && access.estimate * SCAN_RATIO <= tree.size();
+    }
+
+    /**
+     * 为条件选择候选来源，无法走索引时返回null
+     */
+    private Access access(ContactQuery query) {
+        switch (query.getKind()) {
+            case AND: {
+                Access best = null;
+                for (ContactQuery child : query.getChildren()) {
+                    Access access = access(child);
+                    if (access != null && (best == null || access.estimate < best.estimate)) {
+                        best = access;
+                    }
+                }
+                return best;
+            }
+            case OR: {
+                List<Access> parts = new ArrayList<>();
+                long estimate = 0;
+                StringBuilder description = new StringBuilder("并集(");
+                for (ContactQuery child : query.getChildren()) {
+                    Access access = access(child);
+                    if (access == null) {
+                        return null;
+                    }
+                    parts.add(access);
+                    estimate += access.estimate;
+                    description.append(parts.size() > 1 ? "、" : "").append(access.description);
+                }
+                return new Access(description.append(')').toString(), estimate, () -> {
+                    Set<Contact> union = Collections.newSetFromMap(new IdentityHashMap<>());
+                    for (Access part : parts) {
+                        union.addAll(part.fetch.get());
+                    }
+                    return union;
+                });
+            }
+            default:
+                return fieldAccess(query);
+        }
+    }
+
+    private Access fieldAccess(ContactQuery query) {
+        ContactField field = query.getField();
+        String value = query.getValue();
+        ContactQuery.Kind kind = query.getKind();
+        if (field == ContactField.NAME && kind == ContactQuery.Kind.EQUALS) {
+            List<Contact> bucket = tree.search(value);
+            return new Access("姓名=\"" + value + "\"", bucket.size(), () -> bucket);
+        }
+        if (field == ContactField.NAME && kind == ContactQuery.Kind.PREFIX) {
+            // 以value开头的键位于[value, value + MAX_VALUE)区间内，两次rank相减即为区间内的联系人数
+            int count = tree.rank(value + Character.MAX_VALUE) - tree.rank(value);
+            return new Access("姓名前缀\"" + value + "\"", count, () -> tree.searchByPrefix(value));
+        }
+        if (field == ContactField.PHONE) {
+            if (kind == ContactQuery.Kind.EQUALS) {
+                Contact contact = phoneIndex.get(value);
+                List<Contact> hit = contact == null ? Collections.emptyList() : Collections.singletonList(contact);
+                return new Access("电话=\"" + value + "\"", hit.size(), () -> hit);
+            }
+            if (kind == ContactQuery.Kind.PREFIX) {
+                PhoneTrie.Cursor cursor = phoneTrie.cursor().type(value);
+                return new Access("电话前缀\"" + cursor.getPrefix() + "\"", cursor.count(),
+                        () -> cursor.results(Integer.MAX_VALUE));
+            }
+            return null;
+        }
+        // 相等、前缀、邮箱域名都意味着字段包含value，取子串索引的结果作为候选
+        return new Access(label(field) + "包含\"" + value + "\"", ngramIndex.estimate(field, value),
+                () -> ngramIndex.searchContains(field, value, Integer.MAX_VALUE));
+    }
+
+    private static String label(ContactField field) {
+        switch (field) {
+            case NAME:
+                return "姓名";
+            case EMAIL:
+                return "邮箱";
+            default:
+                return "地址";
+        }
+    }
+}
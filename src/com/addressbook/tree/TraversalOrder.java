@@ -0,0 +1,11 @@
+package com.addressbook.tree;
+
+/**
+ * 树遍历顺序
+ */
+public enum TraversalOrder {
+    PREORDER,    // 前序：根 -> 左 -> 右
+    INORDER,     // 中序：左 -> 根 -> 右（按姓名升序）
+    POSTORDER,   // 后序：左 -> 右 -> 根
+    LEVEL_ORDER  // 层序：自上而下逐层从左到右
+}